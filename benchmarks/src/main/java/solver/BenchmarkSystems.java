@@ -0,0 +1,55 @@
+package solver;
+
+import java.util.Random;
+
+final class BenchmarkSystems {
+    /*
+    Systems for the benchmarks, generated from fixed seeds so that runs are repeatable
+     */
+
+    private BenchmarkSystems() {
+    }
+
+    /**
+     * Fills a system with values from a fixed seed
+     * "real" and "complex" systems have random coefficients; a "near-singular" (real) system
+     * has its last equation equal to the sum of the others plus a small perturbation, which
+     * keeps it just above the precision at which elements are considered zero
+     * @param coeffMat the matrix of coefficients to fill ('Matrix' class)
+     * @param constMat the vector of constants to fill ('Matrix' class)
+     * @param kind "real", "complex" or "near-singular" (String)
+     * @param size # of variables (and equations) (int)
+     */
+    static void fill(Matrix coeffMat, Matrix constMat, String kind, int size) {
+        Random random = new Random(size);
+        boolean isComplex = "complex".equals(kind);
+        for (int row = 0; row < size; ++row) {
+            for (int col = 0; col < size; ++col) {
+                coeffMat.set(row, col, 20.0 * random.nextDouble() - 10.0, isComplex ? 20.0 * random.nextDouble() - 10.0 : 0.0);
+            }
+            constMat.set(row, 0, 20.0 * random.nextDouble() - 10.0, isComplex ? 20.0 * random.nextDouble() - 10.0 : 0.0);
+        }
+        if ("near-singular".equals(kind) && size > 1) {
+            for (int col = 0; col < size; ++col) {
+                double sum = 0.0;
+                for (int row = 0; row < size - 1; ++row) {
+                    sum += coeffMat.getReal(row, col);
+                }
+                coeffMat.set(size - 1, col, sum + 0.01 * random.nextDouble(), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Creates the Gauss-Jordan solver of a generated system
+     * @param kind "real", "complex" or "near-singular" (String)
+     * @param size # of variables (and equations) (int)
+     * @return the solver, picking the real-valued one for real systems ('LinearSystem')
+     */
+    static LinearSystem createGaussJord(String kind, int size) {
+        Matrix coeffMat = Matrix.createMatrix(size, size);
+        Matrix constMat = Matrix.createMatrix(size, 1);
+        fill(coeffMat, constMat, kind, size);
+        return LinearSystem.create(coeffMat, constMat);
+    }
+}
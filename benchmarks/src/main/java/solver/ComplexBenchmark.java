@@ -0,0 +1,84 @@
+package solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ComplexBenchmark {
+    /*
+    Benchmarks of the arithmetic of 'Complex' and of Complex.parseComplex()
+    Each operation goes through NUM_VALUES values, so the times are per value
+     */
+    private static final int NUM_VALUES = 1024;
+    private Complex[] nums;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        nums = new Complex[NUM_VALUES];
+        tokens = new String[NUM_VALUES];
+        for (int ind = 0; ind < NUM_VALUES; ++ind) {
+            nums[ind] = Complex.valueOf(200.0 * random.nextDouble() - 100.0, 200.0 * random.nextDouble() - 100.0);
+            double real = Math.round(2e4 * random.nextDouble() - 1e4) / 1e3;
+            double imag = Math.round(2e4 * random.nextDouble() - 1e4) / 1e3;
+            tokens[ind] = Complex.valueOf(real, imag).toString();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public Complex add() {
+        Complex sum = Complex.valueOf(0.0, 0.0);
+        for (Complex num : nums) {
+            sum = sum.add(num);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public Complex multiply() {
+        Complex prod = Complex.valueOf(1.0, 0.0);
+        for (Complex num : nums) {
+            prod = prod.multiply(num).multiply(Complex.valueOf(0.01, 0.0));
+        }
+        return prod;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public Complex divide() {
+        Complex quot = Complex.valueOf(1.0, 0.0);
+        for (Complex num : nums) {
+            quot = quot.divide(num).multiply(num);
+        }
+        return quot;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public void parseComplex(Blackhole blackhole) {
+        for (String token : tokens) {
+            blackhole.consume(Complex.parseComplex(token));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FormatBenchmark {
+    /*
+    Benchmarks of PrettyFormat and of writing a solution in the format of the output file
+    Each operation goes through NUM_VALUES values, so the times are per value
+     */
+    private static final int NUM_VALUES = 1024;
+    private final PrettyFormat formatter = new PrettyFormat(4);
+    private final StringBuilder buffer = new StringBuilder();
+    private final Writer nullWriter = Writer.nullWriter();
+    private double[] vals;
+    private LinearSystem solved;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(2);
+        vals = new double[NUM_VALUES];
+        for (int ind = 0; ind < NUM_VALUES; ++ind) {
+            vals[ind] = (200.0 * random.nextDouble() - 100.0) * Math.pow(10.0, random.nextInt(9) - 4);
+        }
+        // A solution of NUM_VALUES complex values, written to a writer that discards it
+        solved = new LinearSystem() {
+            @Override
+            void solve() {
+            }
+        };
+        solved.solArr = new Complex[NUM_VALUES];
+        for (int ind = 0; ind < NUM_VALUES; ++ind) {
+            solved.solArr[ind] = Complex.valueOf(vals[ind], vals[NUM_VALUES - 1 - ind]);
+        }
+        solved.hasUniqueSolution = true;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public void format(Blackhole blackhole) {
+        for (double val : vals) {
+            blackhole.consume(formatter.format(val));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public StringBuilder appendTo() {
+        buffer.setLength(0);
+        for (double val : vals) {
+            formatter.appendTo(buffer, val);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public void writeSolution() throws IOException {
+        SolutionWriter.write(nullWriter, solved);
+    }
+}
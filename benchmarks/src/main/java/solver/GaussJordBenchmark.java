@@ -0,0 +1,47 @@
+package solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GaussJordBenchmark {
+    /*
+    Benchmark of GaussJordSolver.solve() on real, complex and near-singular systems of each size
+    solve() works on a copy of the matrix, so the same system is solved again by each operation.
+    The largest systems take seconds per solve; add them with e.g. -p size=10,100,1000,4000
+     */
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"real", "complex", "near-singular"})
+    public String kind;
+
+    private LinearSystem linSys;
+
+    @Setup
+    public void setUp() {
+        linSys = BenchmarkSystems.createGaussJord(kind, size);
+    }
+
+    @Benchmark
+    public Complex[] solve() {
+        linSys.solve();
+        return linSys.solArr;
+    }
+}
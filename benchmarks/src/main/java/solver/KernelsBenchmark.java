@@ -0,0 +1,98 @@
+package solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class KernelsBenchmark {
+    /*
+    Benchmarks of the row operations of 'RowKernels' for rows of each size, and of
+    GaussJordSolver.solve() with them, for "scalar" and the Vector API kernels.
+    Other kernels are chosen with e.g. -p kernelsName=vector128,vector256
+     */
+    private static final int NUM_REPS = 1000;
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"scalar", "vector"})
+    public String kernelsName;
+
+    private RowKernels kernels;
+    private RowKernels previous;
+    private double[] source;
+    private double[] dest;
+    private LinearSystem realSys;
+    private LinearSystem complexSys;
+
+    @Setup
+    public void setUp() {
+        kernels = RowKernels.create(kernelsName);
+        previous = RowKernels.getCurrent();
+        RowKernels.setCurrent(kernels);
+        Random random = new Random(size);
+        source = new double[2 * size];
+        dest = new double[2 * size];
+        for (int ind = 0; ind < source.length; ++ind) {
+            source[ind] = 20.0 * random.nextDouble() - 10.0;
+        }
+        realSys = BenchmarkSystems.createGaussJord("real", size);
+        complexSys = BenchmarkSystems.createGaussJord("complex", size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RowKernels.setCurrent(previous);
+    }
+
+    // The factors alternate in sign so the rows stay bounded however many times they are added
+    @Benchmark
+    @OperationsPerInvocation(NUM_REPS)
+    public double[] addScaled() {
+        for (int rep = 0; rep < NUM_REPS; ++rep) {
+            kernels.addScaled(dest, 0, source, 0, size, (rep % 2 == 0) ? 0.5 : -0.5, 0.25);
+        }
+        return dest;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_REPS)
+    public double[] addScaledReal() {
+        for (int rep = 0; rep < NUM_REPS; ++rep) {
+            kernels.addScaledReal(dest, 0, source, 0, 2 * size, (rep % 2 == 0) ? 0.5 : -0.5);
+        }
+        return dest;
+    }
+
+    @Benchmark
+    public Complex[] gaussJordReal() {
+        realSys.solve();
+        return realSys.solArr;
+    }
+
+    @Benchmark
+    public Complex[] gaussJordComplex() {
+        complexSys.solve();
+        return complexSys.solArr;
+    }
+}
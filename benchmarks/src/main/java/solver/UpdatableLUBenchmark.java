@@ -0,0 +1,57 @@
+package solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UpdatableLUBenchmark {
+    /*
+    Benchmark of replacing a random row of a factored system and solving it again with
+    UpdatableLUSolver, which refactors every UpdatableLUSolver.DEFAULT_MAX_RANK updates
+     */
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private UpdatableLUSolver linSys;
+    private Random random;
+    private Matrix newRow;
+
+    @Setup
+    public void setUp() {
+        Matrix coeffMat = Matrix.createMatrix(size, size);
+        Matrix constMat = Matrix.createMatrix(size, 1);
+        BenchmarkSystems.fill(coeffMat, constMat, "real", size);
+        linSys = new UpdatableLUSolver(coeffMat, constMat);
+        linSys.solve();
+        // Not seeded like BenchmarkSystems.fill(), which would make the new rows copies of existing ones
+        random = new Random(-size);
+        newRow = Matrix.createMatrix(1, size);
+    }
+
+    @Benchmark
+    public Complex[] updateRow() {
+        for (int col = 0; col < size; ++col) {
+            newRow.set(0, col, 20.0 * random.nextDouble() - 10.0, 0.0);
+        }
+        linSys.updateRow(random.nextInt(size), newRow);
+        linSys.solve();
+        return linSys.solArr;
+    }
+}
@@ -0,0 +1,477 @@
+package solver;
+
+class BandedSolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem and solves square systems whose non-zero coefficients are all
+    within a band around the diagonal, e.g. from discretized 1D and 2D models. Only the band is
+    stored, so the time and memory are linear in the # of variables for a fixed bandwidth:
+    - Tridiagonal systems that are diagonally dominant are solved with the Thomas algorithm,
+      which needs no pivoting
+    - Other banded systems are solved with an LU factorization with partial pivoting that
+      works within the band. The row swaps can widen U by up to the lower bandwidth, so each row
+      keeps room for lower + upper elements to the right of the diagonal, and the multipliers of
+      L are kept in place of the elements they eliminate, which are left of the diagonal
+    Either factorization is kept after the solve, to solve with A^H for the condition estimate.
+    A singular system is handed to the solver that would have been used otherwise, to tell if
+    it has no solutions or infinitely many, and 'path' tells which of these happened
+     */
+    // Systems are only solved as banded automatically if they have at least this # of variables
+    static final int MIN_AUTO_SIZE = 16;
+    // and the band (lower + upper + 1) is at most this fraction of the # of variables
+    static final int MIN_SIZE_PER_BAND = 4;
+
+    enum Path {
+        THOMAS("the Thomas algorithm"),
+        BANDED_LU("banded LU"),
+        SINGULAR_GAUSS("banded LU, singular in the band, classified with Gauss-Jordan"),
+        SINGULAR_SPARSE("banded LU, singular in the band, classified with sparse LU");
+
+        final String description;
+
+        Path(String description) {
+            this.description = description;
+        }
+    }
+
+    SparseMatrix sparseCoeffMat; // the coefficients if they were given in the sparse format; 'coeffMat' is null then
+    int size; // # of variables (and equations)
+    int lower; // # of diagonals with non-zero elements below the main one
+    int upper; // # of diagonals with non-zero elements above the main one
+    Path path; // how the last call to solve() solved the system; null until it is called
+    private double[] factors; // the band of the factors of the last solve, 'width' elements per row; null if it found a zero pivot
+    private int[] pivots; // row swapped with each row by the banded LU factorization; null for the Thomas algorithm
+    private int width;
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the square matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    BandedSolver(Matrix coeffMat, Matrix constMat) {
+        this(coeffMat, null, coeffMat.rows, coeffMat.cols, coeffMat.bandwidths(), constMat);
+    }
+
+    /**
+     * Constructor for the class
+     * @param sparseCoeffMat the square sparse matrix of coefficients in the linear equation system ('SparseMatrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    BandedSolver(SparseMatrix sparseCoeffMat, Matrix constMat) {
+        this(null, sparseCoeffMat, sparseCoeffMat.rows, sparseCoeffMat.cols, sparseCoeffMat.bandwidths(), constMat);
+    }
+
+    private BandedSolver(Matrix coeffMat, SparseMatrix sparseCoeffMat, int rows, int cols, int[] bandwidths, Matrix constMat) {
+        if (rows != cols) {
+            throw new IllegalArgumentException(String.format("The banded solver needs a square system, not %dx%d", rows, cols));
+        }
+        if (constMat.rows != rows || constMat.cols != 1) {
+            throw new IllegalArgumentException("The banded solver needs a single column of constants!");
+        }
+        this.coeffMat = coeffMat;
+        this.sparseCoeffMat = sparseCoeffMat;
+        this.constMat = constMat;
+        this.size = rows;
+        // Diagonal and bidiagonal matrices are solved as tridiagonal ones
+        this.lower = (bandwidths[0] <= 1 && bandwidths[1] <= 1) ? 1 : bandwidths[0];
+        this.upper = (bandwidths[0] <= 1 && bandwidths[1] <= 1) ? 1 : bandwidths[1];
+        if (2L * rows * (2L * lower + upper + 1) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format("Band of %d diagonals for %d variables is too large to store", 2 * lower + upper + 1, rows));
+        }
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[rows];
+    }
+
+    /**
+     * Returns the banded solver for a system if its band is narrow enough to be worth it
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the constants in the linear equation system ('Matrix' class)
+     * @return the solver; null if the system is not square, small or narrow-banded ('BandedSolver')
+     */
+    static BandedSolver createIfBanded(Matrix coeffMat, Matrix constMat) {
+        if (coeffMat.rows != coeffMat.cols || coeffMat.rows < MIN_AUTO_SIZE || constMat.cols != 1) {
+            return null;
+        }
+        int[] bandwidths = coeffMat.bandwidths();
+        return isNarrow(coeffMat.rows, bandwidths) ? new BandedSolver(coeffMat, null, coeffMat.rows, coeffMat.cols, bandwidths, constMat) : null;
+    }
+
+    /**
+     * Returns the banded solver for a system if its band is narrow enough to be worth it
+     * @param sparseCoeffMat the sparse matrix of coefficients in the linear equation system ('SparseMatrix' class)
+     * @param constMat the constants in the linear equation system ('Matrix' class)
+     * @return the solver; null if the system is not square, small or narrow-banded ('BandedSolver')
+     */
+    static BandedSolver createIfBanded(SparseMatrix sparseCoeffMat, Matrix constMat) {
+        if (sparseCoeffMat.rows != sparseCoeffMat.cols || sparseCoeffMat.rows < MIN_AUTO_SIZE || constMat.cols != 1) {
+            return null;
+        }
+        int[] bandwidths = sparseCoeffMat.bandwidths();
+        return isNarrow(sparseCoeffMat.rows, bandwidths)
+                ? new BandedSolver(null, sparseCoeffMat, sparseCoeffMat.rows, sparseCoeffMat.cols, bandwidths, constMat) : null;
+    }
+
+    private static boolean isNarrow(int size, int[] bandwidths) {
+        return (long) MIN_SIZE_PER_BAND * (bandwidths[0] + bandwidths[1] + 1) <= size;
+    }
+
+    @Override
+    void solve() {
+        double[] b = new double[2 * size];
+        for (int row = 0; row < size; ++row) {
+            b[2 * row] = constMat.getReal(row, 0);
+            b[2 * row + 1] = constMat.getImag(row, 0);
+        }
+        if (lower == 1 && upper == 1 && factorTridiagonal()) {
+            path = Path.THOMAS;
+        } else if (factorBanded()) {
+            path = Path.BANDED_LU;
+        } else {
+            factors = null;
+            path = (sparseCoeffMat != null) ? Path.SINGULAR_SPARSE : Path.SINGULAR_GAUSS;
+            classifySingular();
+            return;
+        }
+        substitute(b);
+        for (int row = 0; row < size; ++row) {
+            solArr[row] = Complex.valueOf(b[2 * row], b[2 * row + 1]);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    @Override
+    SparseMatrix getSparseCoeffMat() {
+        return sparseCoeffMat;
+    }
+
+    /**
+     * Copies the band of the matrix of coefficients to an array with 'width' elements per row,
+     * element (row, col) being the element (col - row + lower) of the row
+     * @param width # of elements stored per row, at least lower + upper + 1 (int)
+     * @return the band, with interleaved real and imaginary parts (double[])
+     */
+    private double[] copyBand(int width) {
+        double[] band = new double[2 * size * width];
+        if (sparseCoeffMat != null) {
+            for (int row = 0; row < size; ++row) {
+                for (int pos = sparseCoeffMat.rowPtr[row]; pos < sparseCoeffMat.rowPtr[row + 1]; ++pos) {
+                    int offset = sparseCoeffMat.colInd[pos] - row;
+                    // Elements stored outside the band are zeros
+                    if (offset < -lower || offset > upper) {
+                        continue;
+                    }
+                    int ind = 2 * (row * width + offset + lower);
+                    band[ind] += sparseCoeffMat.values[2 * pos];
+                    band[ind + 1] += sparseCoeffMat.values[2 * pos + 1];
+                }
+            }
+        } else {
+            for (int row = 0; row < size; ++row) {
+                int fromCol = Math.max(0, row - lower);
+                int toCol = Math.min(size - 1, row + upper);
+                System.arraycopy(coeffMat.data, coeffMat.index(row, fromCol), band, 2 * (row * width + fromCol - row + lower), 2 * (toCol - fromCol + 1));
+            }
+        }
+        return band;
+    }
+
+    /**
+     * Factors a tridiagonal matrix for the Thomas algorithm, if it is diagonally dominant
+     * (|diagonal| >= sum of |off-diagonal| on each row) so that no pivoting is needed:
+     * A = L * U, with L lower bidiagonal (the sub-diagonal a(row) and m(row) = b(row) - a(row) * c'(row - 1)
+     * on the diagonal) and U unit upper bidiagonal (c'(row) = c(row) / m(row) on the super-diagonal).
+     * 1 / m is kept in place of the diagonal and c' in place of the super-diagonal
+     * @return true if it was factored; false if it is not diagonally dominant or a pivot was zero
+     */
+    private boolean factorTridiagonal() {
+        width = 3; // sub-diagonal, diagonal and super-diagonal of each row
+        pivots = null;
+        factors = copyBand(width);
+        double[] band = factors;
+        for (int row = 0; row < size; ++row) {
+            int ind = 6 * row;
+            if (Math.hypot(band[ind + 2], band[ind + 3]) < Math.hypot(band[ind], band[ind + 1]) + Math.hypot(band[ind + 4], band[ind + 5])) {
+                return false;
+            }
+        }
+        for (int row = 0; row < size; ++row) {
+            int ind = 6 * row;
+            double mReal = band[ind + 2];
+            double mImag = band[ind + 3];
+            if (row > 0) {
+                double aReal = band[ind];
+                double aImag = band[ind + 1];
+                double cReal = band[ind - 2];
+                double cImag = band[ind - 1];
+                mReal -= aReal * cReal - aImag * cImag;
+                mImag -= aReal * cImag + aImag * cReal;
+            }
+            if (Complex.isZero(mReal, mImag)) {
+                return false;
+            }
+            double denominator = mReal * mReal + mImag * mImag;
+            double invReal = mReal / denominator;
+            double invImag = -mImag / denominator;
+            double cReal = band[ind + 4];
+            double cImag = band[ind + 5];
+            band[ind + 2] = invReal;
+            band[ind + 3] = invImag;
+            band[ind + 4] = cReal * invReal - cImag * invImag;
+            band[ind + 5] = cReal * invImag + cImag * invReal;
+        }
+        return true;
+    }
+
+    /**
+     * Factors the matrix with an LU factorization with partial pivoting within the band
+     * @return true if it was factored; false if a zero pivot was found
+     */
+    private boolean factorBanded() {
+        width = 2 * lower + upper + 1;
+        pivots = new int[size];
+        factors = copyBand(width);
+        double[] band = factors;
+        for (int k = 0; k < size; ++k) {
+            int lastRow = Math.min(size - 1, k + lower);
+            int lastCol = Math.min(size - 1, k + lower + upper);
+            // Find the element of largest modulus in the column, on or below the diagonal
+            int pivotRow = k;
+            double maxModulus = -1.0;
+            for (int row = k; row <= lastRow; ++row) {
+                int ind = 2 * (row * width + k - row + lower);
+                double modulus = band[ind] * band[ind] + band[ind + 1] * band[ind + 1];
+                if (modulus > maxModulus) {
+                    maxModulus = modulus;
+                    pivotRow = row;
+                }
+            }
+            pivots[k] = pivotRow;
+            int pivotInd = 2 * (pivotRow * width + k - pivotRow + lower);
+            if (Complex.isZero(band[pivotInd], band[pivotInd + 1])) {
+                return false;
+            }
+            if (pivotRow != k) {
+                for (int col = k; col <= lastCol; ++col) {
+                    int ind1 = 2 * (k * width + col - k + lower);
+                    int ind2 = 2 * (pivotRow * width + col - pivotRow + lower);
+                    swap(band, ind1, ind2);
+                    swap(band, ind1 + 1, ind2 + 1);
+                }
+            }
+            int diag = 2 * (k * width + lower);
+            double denominator = band[diag] * band[diag] + band[diag + 1] * band[diag + 1];
+            double invReal = band[diag] / denominator;
+            double invImag = -band[diag + 1] / denominator;
+            for (int row = k + 1; row <= lastRow; ++row) {
+                int ind = 2 * (row * width + k - row + lower);
+                double lReal = band[ind] * invReal - band[ind + 1] * invImag;
+                double lImag = band[ind] * invImag + band[ind + 1] * invReal;
+                band[ind] = lReal;
+                band[ind + 1] = lImag;
+                if (lReal == 0.0 && lImag == 0.0) {
+                    continue;
+                }
+                // row <- row - l * pivot row, over the columns after k (both rows are contiguous there)
+                int len = 2 * (lastCol - k + 1);
+                for (int offset = 2; offset < len; offset += 2) {
+                    double uReal = band[diag + offset];
+                    double uImag = band[diag + offset + 1];
+                    band[ind + offset] -= lReal * uReal - lImag * uImag;
+                    band[ind + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves A * x = b with the factors of the last solve
+     * @param b the constants, replaced by the solution (double[])
+     */
+    private void substitute(double[] b) {
+        double[] band = factors;
+        if (pivots == null) {
+            // Forward sweep: d'(row) = (d(row) - a(row) * d'(row - 1)) / m(row)
+            for (int row = 0; row < size; ++row) {
+                int ind = 6 * row;
+                double dReal = b[2 * row];
+                double dImag = b[2 * row + 1];
+                if (row > 0) {
+                    double aReal = band[ind];
+                    double aImag = band[ind + 1];
+                    dReal -= aReal * b[2 * row - 2] - aImag * b[2 * row - 1];
+                    dImag -= aReal * b[2 * row - 1] + aImag * b[2 * row - 2];
+                }
+                double invReal = band[ind + 2];
+                double invImag = band[ind + 3];
+                b[2 * row] = dReal * invReal - dImag * invImag;
+                b[2 * row + 1] = dReal * invImag + dImag * invReal;
+            }
+            // Back substitution: x(row) = d'(row) - c'(row) * x(row + 1)
+            for (int row = size - 2; row >= 0; --row) {
+                int ind = 6 * row;
+                double cReal = band[ind + 4];
+                double cImag = band[ind + 5];
+                b[2 * row] -= cReal * b[2 * row + 2] - cImag * b[2 * row + 3];
+                b[2 * row + 1] -= cReal * b[2 * row + 3] + cImag * b[2 * row + 2];
+            }
+            return;
+        }
+        // The row swaps and the multipliers of L, in the order the factorization applied them
+        for (int k = 0; k < size; ++k) {
+            if (pivots[k] != k) {
+                swap(b, 2 * k, 2 * pivots[k]);
+                swap(b, 2 * k + 1, 2 * pivots[k] + 1);
+            }
+            int lastRow = Math.min(size - 1, k + lower);
+            for (int row = k + 1; row <= lastRow; ++row) {
+                int ind = 2 * (row * width + k - row + lower);
+                double lReal = band[ind];
+                double lImag = band[ind + 1];
+                if (lReal == 0.0 && lImag == 0.0) {
+                    continue;
+                }
+                b[2 * row] -= lReal * b[2 * k] - lImag * b[2 * k + 1];
+                b[2 * row + 1] -= lReal * b[2 * k + 1] + lImag * b[2 * k];
+            }
+        }
+        // Back substitution with U, which has up to lower + upper elements right of the diagonal
+        for (int row = size - 1; row >= 0; --row) {
+            int diag = 2 * (row * width + lower);
+            double real = b[2 * row];
+            double imag = b[2 * row + 1];
+            int lastCol = Math.min(size - 1, row + lower + upper);
+            for (int col = row + 1; col <= lastCol; ++col) {
+                int ind = diag + 2 * (col - row);
+                real -= band[ind] * b[2 * col] - band[ind + 1] * b[2 * col + 1];
+                imag -= band[ind] * b[2 * col + 1] + band[ind + 1] * b[2 * col];
+            }
+            double denominator = band[diag] * band[diag] + band[diag + 1] * band[diag + 1];
+            b[2 * row] = (real * band[diag] + imag * band[diag + 1]) / denominator;
+            b[2 * row + 1] = (imag * band[diag] - real * band[diag + 1]) / denominator;
+        }
+    }
+
+    /**
+     * Solves A^H * x = b with the factors of the last solve: with A = L * U, forward substitution
+     * with U^H then back substitution with L^H, the row swaps of the banded factorization being
+     * undone after the multipliers of the same column
+     * @param b the constants, replaced by the solution (double[])
+     */
+    private void substituteConjugateTranspose(double[] b) {
+        double[] band = factors;
+        if (pivots == null) {
+            // U^H is unit lower bidiagonal with Conj(c'(row - 1)) left of the diagonal
+            for (int row = 1; row < size; ++row) {
+                int ind = 6 * (row - 1);
+                double cReal = band[ind + 4];
+                double cImag = -band[ind + 5];
+                b[2 * row] -= cReal * b[2 * row - 2] - cImag * b[2 * row - 1];
+                b[2 * row + 1] -= cReal * b[2 * row - 1] + cImag * b[2 * row - 2];
+            }
+            // L^H is upper bidiagonal with Conj(m(row)) on the diagonal and Conj(a(row + 1)) right of it
+            for (int row = size - 1; row >= 0; --row) {
+                int ind = 6 * row;
+                double real = b[2 * row];
+                double imag = b[2 * row + 1];
+                if (row < size - 1) {
+                    double aReal = band[ind + 6];
+                    double aImag = -band[ind + 7];
+                    real -= aReal * b[2 * row + 2] - aImag * b[2 * row + 3];
+                    imag -= aReal * b[2 * row + 3] + aImag * b[2 * row + 2];
+                }
+                double invReal = band[ind + 2];
+                double invImag = -band[ind + 3];
+                b[2 * row] = real * invReal - imag * invImag;
+                b[2 * row + 1] = real * invImag + imag * invReal;
+            }
+            return;
+        }
+        // Forward substitution with U^H: the elements of column row of U^H are those of row 'row' of U
+        for (int row = 0; row < size; ++row) {
+            int diag = 2 * (row * width + lower);
+            double dReal = band[diag];
+            double dImag = -band[diag + 1];
+            double denominator = dReal * dReal + dImag * dImag;
+            double real = (b[2 * row] * dReal + b[2 * row + 1] * dImag) / denominator;
+            double imag = (b[2 * row + 1] * dReal - b[2 * row] * dImag) / denominator;
+            b[2 * row] = real;
+            b[2 * row + 1] = imag;
+            int lastCol = Math.min(size - 1, row + lower + upper);
+            for (int col = row + 1; col <= lastCol; ++col) {
+                int ind = diag + 2 * (col - row);
+                double uReal = band[ind];
+                double uImag = -band[ind + 1];
+                b[2 * col] -= uReal * real - uImag * imag;
+                b[2 * col + 1] -= uReal * imag + uImag * real;
+            }
+        }
+        // The multipliers of L conjugated and transposed, then the row swap, from the last column
+        for (int k = size - 1; k >= 0; --k) {
+            double real = b[2 * k];
+            double imag = b[2 * k + 1];
+            int lastRow = Math.min(size - 1, k + lower);
+            for (int row = k + 1; row <= lastRow; ++row) {
+                int ind = 2 * (row * width + k - row + lower);
+                double lReal = band[ind];
+                double lImag = -band[ind + 1];
+                real -= lReal * b[2 * row] - lImag * b[2 * row + 1];
+                imag -= lReal * b[2 * row + 1] + lImag * b[2 * row];
+            }
+            b[2 * k] = real;
+            b[2 * k + 1] = imag;
+            if (pivots[k] != k) {
+                swap(b, 2 * k, 2 * pivots[k]);
+                swap(b, 2 * k + 1, 2 * pivots[k] + 1);
+            }
+        }
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        return (factors == null) ? null : new BandInverse();
+    }
+
+    /**
+     * The inverse through the factors of the last solve
+     */
+    private class BandInverse implements ConditionEstimator.Inverse {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void solveInPlace(double[] x) {
+            substitute(x);
+        }
+
+        @Override
+        public void solveConjugateTransposeInPlace(double[] x) {
+            substituteConjugateTranspose(x);
+        }
+    }
+
+    private static void swap(double[] arr, int ind1, int ind2) {
+        double temp = arr[ind1];
+        arr[ind1] = arr[ind2];
+        arr[ind2] = temp;
+    }
+
+    /**
+     * Used when a zero pivot was found: the system is solved by the solver that would be used
+     * for it if it wasn't banded, which tells if it has no solutions or infinitely many
+     */
+    private void classifySingular() {
+        LinearSystem fallback = (sparseCoeffMat != null) ? new SparseLUSolver(sparseCoeffMat, constMat) : LinearSystem.create(coeffMat, constMat);
+        fallback.setStepListener(stepListener);
+        fallback.solve();
+        hasUniqueSolution = fallback.hasUniqueSolution;
+        hasNoSolutions = fallback.hasNoSolutions;
+        hasInfiniteSolutions = fallback.hasInfiniteSolutions;
+        solArr = fallback.solArr;
+    }
+}
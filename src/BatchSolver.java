@@ -0,0 +1,194 @@
+package solver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class BatchSolver {
+    /*
+    Class to solve many independent systems in one run, concurrently on a fixed pool of threads
+    The systems come from the files of a directory (in the order of their names) or from a
+    container file holding several text systems separated by lines with only SEPARATOR.
+    Each system is solved on a single thread without printing its steps, and the results are
+    written in the order of the input, each one after a line with its name and status:
+        ### <name> <unique|infinite|none|not-converged|error>
+    With -cond, each unique solution is followed by its residual, backward error and condition number estimate.
+    At most a few systems per thread are read ahead, so memory stays bounded for any # of systems
+     */
+    static final String SEPARATOR = "---";
+    private static final int PENDING_PER_THREAD = 4;
+
+    private final SolverOptions options;
+    private final boolean isSparse; // whether the text systems are in the sparse format
+    private final int numThreads;
+    private final int[] statusCounts = new int[LinearSystem.Status.values().length];
+
+    /**
+     * Constructor for the class
+     * @param options the options to create the solver of each system with ('SolverOptions')
+     * @param isSparse whether the text systems are in the sparse format (boolean)
+     * @param numThreads # of systems solved at the same time; the # of processors if < 1 (int)
+     */
+    BatchSolver(SolverOptions options, boolean isSparse, int numThreads) {
+        this.options = options;
+        this.isSparse = isSparse;
+        this.numThreads = (numThreads < 1) ? Runtime.getRuntime().availableProcessors() : numThreads;
+    }
+
+    /**
+     * Solves every system of a directory or container file and writes the results to a file
+     * @param input the directory or the container file ('File')
+     * @param outFile the file to write the results to ('File')
+     * @throws IOException if the input can't be read or the output can't be written
+     */
+    void run(File input, File outFile) throws IOException {
+        if (!input.exists()) {
+            System.out.printf("Could not find batch input: %s\n", input.getAbsolutePath());
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int numSystems = 0;
+        try (PrintWriter writer = new PrintWriter(outFile)) {
+            if (input.isDirectory()) {
+                File[] files = input.listFiles(file -> file.isFile() && !file.isHidden());
+                Arrays.sort(files);
+                for (File file : files) {
+                    submit(executor, pending, writer, file.getName(), () -> readFile(file));
+                    ++numSystems;
+                }
+            } else {
+                try (BufferedReader reader = new BufferedReader(new FileReader(input))) {
+                    String text;
+                    while ((text = nextContainedSystem(reader)) != null) {
+                        String systemText = text;
+                        ++numSystems;
+                        submit(executor, pending, writer, String.format("#%d", numSystems), () ->
+                                InputParser.readSystem(new BufferedReader(new StringReader(systemText)), isSparse));
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                writer.print(takeResult(pending));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.printf("Solved %d systems: %d unique, %d infinite, %d none, %d not converged, %d errors\n", numSystems,
+                statusCounts[LinearSystem.Status.UNIQUE.ordinal()], statusCounts[LinearSystem.Status.INFINITE.ordinal()],
+                statusCounts[LinearSystem.Status.NONE.ordinal()], statusCounts[LinearSystem.Status.NOT_CONVERGED.ordinal()],
+                statusCounts[LinearSystem.Status.ERROR.ordinal()]);
+        if (options.cache != null) {
+            System.out.println(options.cache.statsToString());
+        }
+        System.out.printf("Saved to %s\n", outFile.getName());
+    }
+
+    /**
+     * Interface for reading a system, which can fail like reading an input file does
+     */
+    private interface SystemSource {
+        SystemData read() throws IOException;
+    }
+
+    /**
+     * Queues a system to be read and solved, first writing the oldest result if too many are pending
+     */
+    private void submit(ExecutorService executor, ArrayDeque<Future<String>> pending, PrintWriter writer, String name, SystemSource source) throws IOException {
+        if (pending.size() >= PENDING_PER_THREAD * numThreads) {
+            writer.print(takeResult(pending));
+        }
+        pending.add(executor.submit(() -> solve(name, source)));
+    }
+
+    private String takeResult(ArrayDeque<Future<String>> pending) throws IOException {
+        try {
+            return pending.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a system to be solved", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unexpected failure while solving a system", e.getCause());
+        }
+    }
+
+    /**
+     * Reads and solves a system, returning its result in the format of the output file
+     * @param name the name of the system in the output (String)
+     * @param source where to read the system from ('SystemSource')
+     * @return the line with the name and status of the system followed by its solution (String)
+     */
+    private String solve(String name, SystemSource source) {
+        StringWriter result = new StringWriter();
+        PrintWriter writer = new PrintWriter(result);
+        LinearSystem.Status status;
+        try {
+            LinearSystem linSys = options.createSolver(source.read());
+            linSys.solve();
+            if (options.isAssessingAccuracy) {
+                linSys.assessAccuracy();
+            }
+            status = linSys.getStatus();
+            writer.printf("### %s %s\n", name, status.name);
+            SolutionWriter.write(writer, linSys);
+        } catch (IOException | RuntimeException e) {
+            // Covers invalid input (NumberFormatException, IllegalArgumentException) as well as failures while solving
+            status = LinearSystem.Status.ERROR;
+            writer.printf("### %s %s\n", name, status.name);
+            writer.println(e.getMessage() == null ? e.toString() : e.getMessage().replace('\n', ' '));
+        }
+        synchronized (statusCounts) {
+            ++statusCounts[status.ordinal()];
+        }
+        writer.flush();
+        return result.toString();
+    }
+
+    /**
+     * Reads a system from a file, in the binary format or as text
+     * @param file the file to read ('File')
+     * @return the system read ('SystemData')
+     * @throws IOException if the file can't be read
+     */
+    private SystemData readFile(File file) throws IOException {
+        if (BinaryFormat.isBinary(file)) {
+            return BinaryFormat.read(file);
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            return InputParser.readSystem(reader, isSparse);
+        }
+    }
+
+    /**
+     * Reads the text of the next system of a container file, up to the next separator line
+     * @param reader the reader of the container file ('BufferedReader')
+     * @return the text of the system; null if there are no more systems (String)
+     * @throws IOException if the file can't be read
+     */
+    private static String nextContainedSystem(BufferedReader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (SEPARATOR.equals(line.trim())) {
+                if (text.length() > 0) {
+                    return text.toString();
+                }
+                continue;
+            }
+            if (text.length() > 0 || !line.isBlank()) {
+                text.append(line).append('\n');
+            }
+        }
+        return (text.length() > 0) ? text.toString() : null;
+    }
+}
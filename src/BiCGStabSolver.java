@@ -0,0 +1,81 @@
+package solver;
+
+class BiCGStabSolver extends IterativeSolver {
+    /*
+    Right-preconditioned biconjugate gradient stabilized method (BiCGSTAB)
+    Works for general (non-Hermitian) matrices of coefficients
+     */
+
+    BiCGStabSolver(LinearOperator operator, Matrix constMat) {
+        super(operator, constMat);
+    }
+
+    @Override
+    int iterate(double[] b, double[] x) {
+        int len = b.length;
+        double bNorm = Math.max(norm(b), Double.MIN_NORMAL);
+        double[] r = b.clone();
+        double[] rHat = r.clone();
+        double[] p = new double[len];
+        double[] v = new double[len];
+        double[] pHat = new double[len];
+        double[] s = new double[len];
+        double[] sHat = new double[len];
+        double[] t = new double[len];
+        double[] rho = {1.0, 0.0};
+        double[] alpha = {1.0, 0.0};
+        double[] omega = {1.0, 0.0};
+        for (int iter = 1; iter <= maxIterations; ++iter) {
+            double[] rhoNew = dot(rHat, r);
+            if (rhoNew[0] == 0.0 && rhoNew[1] == 0.0) {
+                return iter - 1; // breakdown
+            }
+            // beta = (rhoNew / rho) * (alpha / omega)
+            double[] ratio1 = divide(rhoNew[0], rhoNew[1], rho[0], rho[1]);
+            double[] ratio2 = divide(alpha[0], alpha[1], omega[0], omega[1]);
+            double betaReal = ratio1[0] * ratio2[0] - ratio1[1] * ratio2[1];
+            double betaImag = ratio1[0] * ratio2[1] + ratio1[1] * ratio2[0];
+            // p = r + beta * (p - omega * v)
+            for (int ind = 0; ind < len; ind += 2) {
+                double diffReal = p[ind] - (omega[0] * v[ind] - omega[1] * v[ind + 1]);
+                double diffImag = p[ind + 1] - (omega[0] * v[ind + 1] + omega[1] * v[ind]);
+                p[ind] = r[ind] + betaReal * diffReal - betaImag * diffImag;
+                p[ind + 1] = r[ind + 1] + betaReal * diffImag + betaImag * diffReal;
+            }
+            preconditioner.apply(p, pHat);
+            operator.multiply(pHat, v);
+            double[] rHatV = dot(rHat, v);
+            if (rHatV[0] == 0.0 && rHatV[1] == 0.0) {
+                return iter - 1; // breakdown
+            }
+            alpha = divide(rhoNew[0], rhoNew[1], rHatV[0], rHatV[1]);
+            System.arraycopy(r, 0, s, 0, len);
+            axpy(-alpha[0], -alpha[1], v, s);
+            if (norm(s) / bNorm <= tolerance) {
+                axpy(alpha[0], alpha[1], pHat, x);
+                return iter;
+            }
+            preconditioner.apply(s, sHat);
+            operator.multiply(sHat, t);
+            double[] ts = dot(t, s);
+            double tt = dot(t, t)[0];
+            if (tt == 0.0) {
+                axpy(alpha[0], alpha[1], pHat, x);
+                return iter;
+            }
+            omega = new double[]{ts[0] / tt, ts[1] / tt};
+            axpy(alpha[0], alpha[1], pHat, x);
+            axpy(omega[0], omega[1], sHat, x);
+            System.arraycopy(s, 0, r, 0, len);
+            axpy(-omega[0], -omega[1], t, r);
+            if (norm(r) / bNorm <= tolerance) {
+                return iter;
+            }
+            if (omega[0] == 0.0 && omega[1] == 0.0) {
+                return iter; // breakdown
+            }
+            rho = rhoNew;
+        }
+        return maxIterations;
+    }
+}
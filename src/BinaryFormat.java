@@ -0,0 +1,433 @@
+package solver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+class BinaryFormat {
+    /*
+    Class to read and write linear systems in a binary file format, which is loaded
+    through memory mapping instead of being parsed. All numbers are little-endian.
+    Header (32 bytes):
+        bytes 0-3    magic "LSYS"
+        int          version (1)
+        int          flags: FLAG_COMPLEX if values have an imaginary part, FLAG_SPARSE if the coefficients are sparse
+        int          # of variables
+        int          # of equations
+        int          # of columns of constants
+        long         # of non-zero coefficients (sparse only, 0 otherwise)
+    Values are one double (real) or two doubles (real, imaginary) each.
+    Dense body: for each equation, the values of its coefficients followed by its constants
+    Sparse body: the coefficients in CSR format (see 'SparseMatrix'): the int row pointers
+    (# of equations + 1), the int columns (# of non-zero), padding to a multiple of 8 bytes,
+    the values, and then the constants of each equation
+    Solutions are written in the same way, for programs that read them back (-outformat binary).
+    Header (24 bytes):
+        bytes 0-3    magic "LSOL"
+        int          version (1)
+        int          flags: FLAG_COMPLEX if values have an imaginary part
+        int          status, the ordinal of 'LinearSystem.Status' (0 unique, 1 infinite, 2 none, 3 not converged, 4 error)
+        int          # of variables (0 without a unique solution)
+        int          # of columns of constants (0 without a unique solution)
+    Body: for each variable, its values for each column of constants
+     */
+    private static final byte[] MAGIC = "LSYS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SOLUTION_MAGIC = "LSOL".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    static final int FLAG_COMPLEX = 1;
+    static final int FLAG_SPARSE = 2;
+    // Size of the parts of the file mapped at once; a single mapping can't exceed 2 GB
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Checks if a file starts with the magic bytes of the binary format
+     * @param file the file to check ('File')
+     * @return true if the file is in the binary format; false if not
+     * @throws IOException if the file can't be read
+     */
+    static boolean isBinary(File file) throws IOException {
+        try (InputStream stream = new FileInputStream(file)) {
+            byte[] start = new byte[MAGIC.length];
+            int numRead = stream.readNBytes(start, 0, start.length);
+            return numRead == MAGIC.length && Arrays.equals(start, MAGIC);
+        }
+    }
+
+    /**
+     * Loads a linear system from a file in the binary format
+     * The file is mapped in windows of up to 'WINDOW_SIZE' bytes and the values are copied in bulk
+     * from the mappings into the storage of the matrices, so files larger than 2 GB work too
+     * @param file the file to read ('File')
+     * @return the system read ('SystemData')
+     * @throws IOException if the file can't be read
+     */
+    static SystemData read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedInput input = new MappedInput(channel);
+            Header header = readHeader(input, channel, file);
+            int numVars = header.numVars;
+            int numEqns = header.numEqns;
+            int numConsts = header.numConsts;
+            long numNonZeros = header.numNonZeros;
+            boolean isComplex = header.isComplex();
+            boolean isSparse = header.isSparse();
+
+            SystemData system = new SystemData();
+            system.constMat = Matrix.createMatrix(numEqns, numConsts);
+            if (isSparse) {
+                int nnz = (int) numNonZeros;
+                int[] rowPtr = new int[numEqns + 1];
+                int[] colInd = new int[nnz];
+                double[] values = new double[2 * nnz];
+                input.readInts(rowPtr, 0, rowPtr.length);
+                input.readInts(colInd, 0, nnz);
+                if ((rowPtr.length + nnz) % 2 != 0) {
+                    input.readInt(); // padding
+                }
+                input.readValues(values, 0, nnz, isComplex);
+                for (int row = 0; row < numEqns; ++row) {
+                    input.readValues(system.constMat.data, system.constMat.index(row, 0), numConsts, isComplex);
+                }
+                system.sparseCoeffMat = SparseMatrix.createMatrix(numEqns, numVars, rowPtr, colInd, values);
+            } else {
+                system.coeffMat = Matrix.createMatrix(numEqns, numVars);
+                for (int row = 0; row < numEqns; ++row) {
+                    input.readValues(system.coeffMat.data, system.coeffMat.index(row, 0), numVars, isComplex);
+                    input.readValues(system.constMat.data, system.constMat.index(row, 0), numConsts, isComplex);
+                }
+            }
+            return system;
+        }
+    }
+
+    /**
+     * The sizes and flags from the header of a file in the binary format
+     */
+    static class Header {
+        int flags;
+        int numVars;
+        int numEqns;
+        int numConsts;
+        long numNonZeros;
+
+        boolean isComplex() {
+            return (flags & FLAG_COMPLEX) != 0;
+        }
+
+        boolean isSparse() {
+            return (flags & FLAG_SPARSE) != 0;
+        }
+    }
+
+    /**
+     * Reads and checks the header of a file in the binary format
+     * @param file the file to read ('File')
+     * @return the header ('Header')
+     * @throws IOException if the file can't be read
+     */
+    static Header readHeader(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return readHeader(new MappedInput(channel), channel, file);
+        }
+    }
+
+    private static Header readHeader(MappedInput input, FileChannel channel, File file) throws IOException {
+        for (byte magicByte : MAGIC) {
+            if (input.readByte() != magicByte) {
+                throw new IllegalArgumentException(String.format("%s is not a binary system file", file.getName()));
+            }
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(String.format("Unsupported binary format version: %d", version));
+        }
+        Header header = new Header();
+        header.flags = input.readInt();
+        header.numVars = input.readInt();
+        header.numEqns = input.readInt();
+        header.numConsts = input.readInt();
+        header.numNonZeros = input.readLong();
+        if (header.numNonZeros < 0 || header.numNonZeros > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException(String.format("Invalid # of non-zero coefficients: %d", header.numNonZeros));
+        }
+        if (channel.size() != fileSize(header.numVars, header.numEqns, header.numConsts, (int) header.numNonZeros, header.isComplex(), header.isSparse())) {
+            throw new IllegalArgumentException(String.format("Size of %s does not match its header", file.getName()));
+        }
+        return header;
+    }
+
+    /**
+     * Reads the rows of a file in the binary format with dense coefficients one at a time,
+     * handing each one over instead of storing it, so systems larger than the memory can be read
+     * @param file the file to read ('File')
+     * @param handler receives each row: its coefficients followed by its constants ('InputParser.RowHandler')
+     * @throws IOException if the file can't be read
+     */
+    static void readDenseRows(File file, InputParser.RowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedInput input = new MappedInput(channel);
+            Header header = readHeader(input, channel, file);
+            if (header.isSparse()) {
+                throw new IllegalArgumentException(String.format("%s has sparse coefficients", file.getName()));
+            }
+            int numVals = header.numVars + header.numConsts;
+            double[] values = new double[2 * numVals];
+            for (int row = 0; row < header.numEqns; ++row) {
+                input.readValues(values, 0, numVals, header.isComplex());
+                handler.handle(row, values);
+            }
+        }
+    }
+
+    /**
+     * Writes a linear system with a dense matrix of coefficients in the binary format
+     * @param file the file to write ('File')
+     * @param coeffMat the matrix of coefficients ('Matrix' class)
+     * @param constMat the constants ('Matrix' class)
+     * @throws IOException if the file can't be written
+     */
+    static void write(File file, Matrix coeffMat, Matrix constMat) throws IOException {
+        boolean isComplex = !coeffMat.isReal() || !constMat.isReal();
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(buffer, isComplex ? FLAG_COMPLEX : 0, coeffMat.cols, coeffMat.rows, constMat.cols, 0);
+            for (int row = 0; row < coeffMat.rows; ++row) {
+                writeValues(channel, buffer, coeffMat.data, coeffMat.index(row, 0), coeffMat.cols, isComplex);
+                writeValues(channel, buffer, constMat.data, constMat.index(row, 0), constMat.cols, isComplex);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes a linear system with a sparse matrix of coefficients in the binary format
+     * @param file the file to write ('File')
+     * @param coeffMat the matrix of coefficients ('SparseMatrix' class)
+     * @param constMat the constants ('Matrix' class)
+     * @throws IOException if the file can't be written
+     */
+    static void write(File file, SparseMatrix coeffMat, Matrix constMat) throws IOException {
+        boolean isComplex = !coeffMat.isReal() || !constMat.isReal();
+        int nnz = coeffMat.nonZeros();
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(buffer, FLAG_SPARSE | (isComplex ? FLAG_COMPLEX : 0), coeffMat.cols, coeffMat.rows, constMat.cols, nnz);
+            for (int val : coeffMat.rowPtr) {
+                ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(val);
+            }
+            for (int pos = 0; pos < nnz; ++pos) {
+                ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(coeffMat.colInd[pos]);
+            }
+            if ((coeffMat.rowPtr.length + nnz) % 2 != 0) {
+                ensureSpace(channel, buffer, Integer.BYTES);
+                buffer.putInt(0); // padding
+            }
+            writeValues(channel, buffer, coeffMat.values, 0, nnz, isComplex);
+            for (int row = 0; row < constMat.rows; ++row) {
+                writeValues(channel, buffer, constMat.data, constMat.index(row, 0), constMat.cols, isComplex);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the solution of a solved system in the binary format
+     * @param file the file to write ('File')
+     * @param linSys the solved system ('LinearSystem')
+     * @throws IOException if the file can't be written
+     */
+    static void writeSolution(File file, LinearSystem linSys) throws IOException {
+        // With several columns of constants, there is one solution per column
+        Matrix solMat = (linSys instanceof LUSolver) ? ((LUSolver) linSys).solMat : null;
+        if (linSys.hasUniqueSolution && solMat == null) {
+            solMat = Matrix.createMatrix(linSys.solArr.length, 1);
+            for (int row = 0; row < solMat.rows; ++row) {
+                solMat.set(row, 0, linSys.solArr[row].getReal(), linSys.solArr[row].getImag());
+            }
+        }
+        LinearSystem.Status status = linSys.getStatus();
+        boolean hasValues = status == LinearSystem.Status.UNIQUE && solMat != null;
+        boolean isComplex = hasValues && !solMat.isReal();
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(SOLUTION_MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(isComplex ? FLAG_COMPLEX : 0);
+            buffer.putInt(status.ordinal());
+            buffer.putInt(hasValues ? solMat.rows : 0);
+            buffer.putInt(hasValues ? solMat.cols : 0);
+            if (hasValues) {
+                writeValues(channel, buffer, solMat.data, 0, solMat.rows * solMat.cols, isComplex);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Returns the size a file in the binary format should have
+     * @return the size of the file in bytes (long)
+     */
+    private static long fileSize(int numVars, int numEqns, int numConsts, int numNonZeros, boolean isComplex, boolean isSparse) {
+        long valueSize = isComplex ? 2 * Double.BYTES : Double.BYTES;
+        if (!isSparse) {
+            return HEADER_SIZE + (long) numEqns * ((long) numVars + numConsts) * valueSize;
+        }
+        long numInts = (long) numEqns + 1 + numNonZeros;
+        return HEADER_SIZE + Integer.BYTES * (numInts + numInts % 2) + ((long) numNonZeros + (long) numEqns * numConsts) * valueSize;
+    }
+
+    private static FileChannel openForWriting(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int flags, int numVars, int numEqns, int numConsts, long numNonZeros) {
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(flags);
+        buffer.putInt(numVars);
+        buffer.putInt(numEqns);
+        buffer.putInt(numConsts);
+        buffer.putLong(numNonZeros);
+    }
+
+    /**
+     * Writes values stored with interleaved real and imaginary parts, dropping the imaginary parts if not complex
+     */
+    private static void writeValues(FileChannel channel, ByteBuffer buffer, double[] data, int start, int count, boolean isComplex) throws IOException {
+        for (int ind = start; ind < start + 2 * count; ind += 2) {
+            ensureSpace(channel, buffer, 2 * Double.BYTES);
+            buffer.putDouble(data[ind]);
+            if (isComplex) {
+                buffer.putDouble(data[ind + 1]);
+            }
+        }
+    }
+
+    private static void ensureSpace(FileChannel channel, ByteBuffer buffer, int numBytes) throws IOException {
+        if (buffer.remaining() < numBytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Class to read a file sequentially through memory mappings of up to 'WINDOW_SIZE' bytes
+     * Every value in the format is aligned to its size, so a value never spans two mappings
+     */
+    private static class MappedInput {
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+        private long pos;
+
+        MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+        }
+
+        /**
+         * Maps the part of the file at the current position if it isn't mapped
+         * @param numBytes # of bytes that must be available from the current position (int)
+         */
+        private void ensureMapped(int numBytes) throws IOException {
+            if (window != null && pos + numBytes <= windowEnd) {
+                return;
+            }
+            if (pos + numBytes > fileSize) {
+                throw new IllegalArgumentException("Unexpected end of binary system file");
+            }
+            windowStart = pos;
+            windowEnd = Math.min(fileSize, pos + WINDOW_SIZE);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        byte readByte() throws IOException {
+            ensureMapped(1);
+            return window.get((int) (pos++ - windowStart));
+        }
+
+        int readInt() throws IOException {
+            ensureMapped(Integer.BYTES);
+            int val = window.getInt((int) (pos - windowStart));
+            pos += Integer.BYTES;
+            return val;
+        }
+
+        long readLong() throws IOException {
+            ensureMapped(Long.BYTES);
+            long val = window.getLong((int) (pos - windowStart));
+            pos += Long.BYTES;
+            return val;
+        }
+
+        void readInts(int[] dest, int start, int count) throws IOException {
+            while (count > 0) {
+                ensureMapped(Integer.BYTES);
+                int num = (int) Math.min(count, (windowEnd - pos) / Integer.BYTES);
+                window.position((int) (pos - windowStart));
+                window.asIntBuffer().get(dest, start, num);
+                pos += (long) num * Integer.BYTES;
+                start += num;
+                count -= num;
+            }
+        }
+
+        void readDoubles(double[] dest, int start, int count) throws IOException {
+            while (count > 0) {
+                ensureMapped(Double.BYTES);
+                int num = (int) Math.min(count, (windowEnd - pos) / Double.BYTES);
+                window.position((int) (pos - windowStart));
+                window.asDoubleBuffer().get(dest, start, num);
+                pos += (long) num * Double.BYTES;
+                start += num;
+                count -= num;
+            }
+        }
+
+        /**
+         * Reads values into storage with interleaved real and imaginary parts
+         * Real values are read into the first half of the space and then spread out from the end,
+         * so each value is only moved once and the imaginary parts are set to zero
+         * @param dest the storage to read the values into (double[])
+         * @param start the position of the first value in dest (int)
+         * @param count # of values to read (int)
+         * @param isComplex whether the file stores the imaginary parts (boolean)
+         */
+        void readValues(double[] dest, int start, int count, boolean isComplex) throws IOException {
+            if (isComplex) {
+                readDoubles(dest, start, 2 * count);
+                return;
+            }
+            readDoubles(dest, start, count);
+            for (int ind = count - 1; ind >= 0; --ind) {
+                dest[start + 2 * ind] = dest[start + ind];
+                dest[start + 2 * ind + 1] = 0.0;
+            }
+        }
+    }
+}
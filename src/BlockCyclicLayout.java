@@ -0,0 +1,106 @@
+package solver;
+
+class BlockCyclicLayout {
+    /*
+    Class mapping the elements of a matrix to a grid of processes in a 2D block-cyclic layout:
+    the rows are cut in blocks of 'blockSize' rows dealt to the rows of the grid in turn, and
+    the columns likewise to the columns of the grid. Each process stores the blocks it is dealt
+    as one smaller matrix (its local rows and columns in the same order as in the whole matrix),
+    so the rows or columns from a given one to the end are always at the end of its storage.
+    Every process of the grid is numbered by its row and its column in it
+     */
+    final int blockSize;
+    final int numProcRows; // # of rows of the grid
+    final int numProcCols; // # of columns of the grid
+
+    /**
+     * Constructor for the class
+     * @param blockSize # of rows (and columns) of each block (int)
+     * @param numProcRows # of rows of the grid of processes (int)
+     * @param numProcCols # of columns of the grid of processes (int)
+     */
+    BlockCyclicLayout(int blockSize, int numProcRows, int numProcCols) {
+        if (blockSize < 1 || numProcRows < 1 || numProcCols < 1) {
+            throw new IllegalArgumentException(String.format("Invalid layout: blocks of %d on a %dx%d grid", blockSize, numProcRows, numProcCols));
+        }
+        this.blockSize = blockSize;
+        this.numProcRows = numProcRows;
+        this.numProcCols = numProcCols;
+    }
+
+    /**
+     * Creates the layout over a # of processes, with the grid as close to square as it divides into
+     * @param blockSize # of rows (and columns) of each block (int)
+     * @param numProcs # of processes (int)
+     * @return the layout, with no more rows than columns in its grid ('BlockCyclicLayout')
+     */
+    static BlockCyclicLayout forProcesses(int blockSize, int numProcs) {
+        int numProcRows = (int) Math.sqrt(numProcs);
+        while (numProcs % numProcRows != 0) {
+            --numProcRows;
+        }
+        return new BlockCyclicLayout(blockSize, numProcRows, numProcs / numProcRows);
+    }
+
+    int rowOwner(int row) {
+        return row / blockSize % numProcRows;
+    }
+
+    int colOwner(int col) {
+        return col / blockSize % numProcCols;
+    }
+
+    /**
+     * Returns where a row of the matrix is among the rows of the process of the grid holding it
+     * @param row the row of the matrix (int)
+     * @return the local row (int)
+     */
+    int localRow(int row) {
+        return row / blockSize / numProcRows * blockSize + row % blockSize;
+    }
+
+    int localCol(int col) {
+        return col / blockSize / numProcCols * blockSize + col % blockSize;
+    }
+
+    /**
+     * Returns the row of the matrix held as a local row by a row of the grid
+     * @param localRow the local row (int)
+     * @param procRow the row of the grid (int)
+     * @return the row of the matrix (int)
+     */
+    int globalRow(int localRow, int procRow) {
+        return (localRow / blockSize * numProcRows + procRow) * blockSize + localRow % blockSize;
+    }
+
+    int globalCol(int localCol, int procCol) {
+        return (localCol / blockSize * numProcCols + procCol) * blockSize + localCol % blockSize;
+    }
+
+    /**
+     * Returns the # of rows of the matrix before a given one that a row of the grid holds, which is
+     * also the local row from which it holds the rows from the given one on
+     * Given the # of rows of the matrix, it is the # of local rows of that row of the grid
+     * @param row the row of the matrix (int)
+     * @param procRow the row of the grid (int)
+     * @return # of local rows (int)
+     */
+    int numRowsBefore(int row, int procRow) {
+        return numBefore(row, procRow, numProcRows);
+    }
+
+    int numColsBefore(int col, int procCol) {
+        return numBefore(col, procCol, numProcCols);
+    }
+
+    private int numBefore(int index, int proc, int numProcs) {
+        int numBlocks = index / blockSize;
+        int count = numBlocks / numProcs * blockSize;
+        if (proc < numBlocks % numProcs) {
+            count += blockSize;
+        } else if (proc == numBlocks % numProcs) {
+            count += index % blockSize;
+        }
+        return count;
+    }
+}
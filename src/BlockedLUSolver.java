@@ -0,0 +1,42 @@
+package solver;
+
+class BlockedLUSolver extends LUSolver {
+    /*
+    Class that extends LUSolver and factors the coefficient matrix a block of columns
+    at a time, so that most of the work is a matrix-matrix product on data that stays
+    in cache. Meant for large dense systems; solving is the same as LUSolver
+     */
+    static final int DEFAULT_BLOCK_SIZE = 64;
+    private int blockSize;
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the constants in the linear equation system, one column per system ('Matrix' class)
+     */
+    BlockedLUSolver(Matrix coeffMat, Matrix constMat) {
+        super(coeffMat, constMat);
+        this.blockSize = DEFAULT_BLOCK_SIZE;
+    }
+
+    /**
+     * Sets the # of columns factored in each block
+     * @param blockSize the # of columns in each block (int)
+     */
+    void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid block size: %d", blockSize));
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    LUFactorization factor() {
+        return LUFactorization.factorBlocked(coeffMat, blockSize);
+    }
+
+    @Override
+    String factorizationKind() {
+        return String.format("blocked/%d", blockSize);
+    }
+}
@@ -0,0 +1,45 @@
+package solver;
+
+class CGSolver extends IterativeSolver {
+    /*
+    Preconditioned conjugate gradient method
+    Only converges for Hermitian (symmetric, if real) positive definite matrices of coefficients,
+    and the preconditioner must be Hermitian positive definite too (so "jacobi" or "none")
+     */
+
+    CGSolver(LinearOperator operator, Matrix constMat) {
+        super(operator, constMat);
+    }
+
+    @Override
+    int iterate(double[] b, double[] x) {
+        double bNorm = Math.max(norm(b), Double.MIN_NORMAL);
+        double[] r = b.clone();
+        double[] z = new double[b.length];
+        double[] ap = new double[b.length];
+        preconditioner.apply(r, z);
+        double[] p = z.clone();
+        double rz = dot(r, z)[0];
+        for (int iter = 1; iter <= maxIterations; ++iter) {
+            operator.multiply(p, ap);
+            double[] pap = dot(p, ap);
+            if (pap[0] == 0.0 && pap[1] == 0.0) {
+                return iter - 1;
+            }
+            double[] alpha = divide(rz, 0.0, pap[0], pap[1]);
+            axpy(alpha[0], alpha[1], p, x);
+            axpy(-alpha[0], -alpha[1], ap, r);
+            if (norm(r) / bNorm <= tolerance) {
+                return iter;
+            }
+            preconditioner.apply(r, z);
+            double rzNew = dot(r, z)[0];
+            double beta = rzNew / rz;
+            for (int ind = 0; ind < p.length; ++ind) {
+                p[ind] = z[ind] + beta * p[ind];
+            }
+            rz = rzNew;
+        }
+        return maxIterations;
+    }
+}
@@ -0,0 +1,223 @@
+package solver;
+
+class CholeskySolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem and solves Hermitian (symmetric, if real) positive definite
+    systems with the Cholesky factorization A = L * L^H, which takes half the operations of LU.
+    Only the lower triangle is stored, packed row after row: element (row, col) with col <= row
+    is at position row * (row + 1) / 2 + col, so each row of L is contiguous.
+    Whether the matrix is Hermitian is checked first, and whether it is positive definite is found
+    while factoring it (a diagonal element of L would have to be the square root of a value that
+    is not positive). In either case the system is solved by 'LUSolver' instead, and 'path'
+    tells which of these happened.
+    Since A^H = A, the factor also solves with the conjugate transpose for the condition estimate
+     */
+    enum Path {
+        CHOLESKY("the Cholesky factorization"),
+        NOT_HERMITIAN("LU (the matrix is not Hermitian)"),
+        NOT_POSITIVE_DEFINITE("LU (the matrix is not positive definite)");
+
+        final String description;
+
+        Path(String description) {
+            this.description = description;
+        }
+    }
+
+    int size; // # of variables (and equations)
+    Path path; // how the last call to solve() solved the system; null until it is called
+    private double[] factor; // the packed lower triangle of L, kept for the condition estimate when assessing the accuracy
+    private LUSolver luSolver; // the solver used instead of the Cholesky factorization, if it was
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the square matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    CholeskySolver(Matrix coeffMat, Matrix constMat) {
+        if (coeffMat.rows != coeffMat.cols) {
+            throw new IllegalArgumentException(String.format("The cholesky solver needs a square system, not %dx%d", coeffMat.rows, coeffMat.cols));
+        }
+        if (constMat.cols != 1) {
+            throw new IllegalArgumentException("Multiple columns of constants can only be solved with the lu solver!");
+        }
+        this.coeffMat = coeffMat;
+        this.constMat = constMat;
+        this.size = coeffMat.rows;
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[size];
+    }
+
+    @Override
+    void solve() {
+        if (!isHermitian()) {
+            path = Path.NOT_HERMITIAN;
+            solveWithLU();
+            return;
+        }
+        double[] factor = factor();
+        if (factor == null) {
+            path = Path.NOT_POSITIVE_DEFINITE;
+            solveWithLU();
+            return;
+        }
+        path = Path.CHOLESKY;
+        if (isAssessingAccuracy) {
+            this.factor = factor;
+        }
+        double[] x = new double[2 * size];
+        for (int row = 0; row < size; ++row) {
+            x[2 * row] = constMat.getReal(row, 0);
+            x[2 * row + 1] = constMat.getImag(row, 0);
+        }
+        substitute(factor, x);
+        for (int row = 0; row < size; ++row) {
+            solArr[row] = Complex.valueOf(x[2 * row], x[2 * row + 1]);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    /**
+     * Solves L * L^H * x = b with forward and back substitution
+     * @param factor the packed lower triangle of L (double[])
+     * @param x the constants b, replaced by the solution (double[])
+     */
+    private void substitute(double[] factor, double[] x) {
+        // Forward substitution with L
+        for (int row = 0; row < size; ++row) {
+            int start = row * (row + 1);
+            double real = x[2 * row];
+            double imag = x[2 * row + 1];
+            for (int col = 0; col < row; ++col) {
+                double lReal = factor[start + 2 * col];
+                double lImag = factor[start + 2 * col + 1];
+                real -= lReal * x[2 * col] - lImag * x[2 * col + 1];
+                imag -= lReal * x[2 * col + 1] + lImag * x[2 * col];
+            }
+            double diag = factor[start + 2 * row];
+            x[2 * row] = real / diag;
+            x[2 * row + 1] = imag / diag;
+        }
+        // Back substitution with L^H, a column of L (spread over the rows below) at a time
+        for (int row = size - 1; row >= 0; --row) {
+            double diag = factor[row * (row + 1) + 2 * row];
+            double real = x[2 * row] / diag;
+            double imag = x[2 * row + 1] / diag;
+            x[2 * row] = real;
+            x[2 * row + 1] = imag;
+            // x(col) -= Conj(L(row, col)) * x(row), for the variables before this one
+            int start = row * (row + 1);
+            for (int col = 0; col < row; ++col) {
+                double lReal = factor[start + 2 * col];
+                double lImag = -factor[start + 2 * col + 1];
+                x[2 * col] -= lReal * real - lImag * imag;
+                x[2 * col + 1] -= lReal * imag + lImag * real;
+            }
+        }
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        if (path == Path.CHOLESKY) {
+            return (factor == null) ? null : new CholeskyInverse();
+        }
+        return (luSolver == null) ? null : luSolver.getInverse();
+    }
+
+    /**
+     * The inverse through the Cholesky factor, which solves with A^H too since A is Hermitian
+     */
+    private class CholeskyInverse implements ConditionEstimator.Inverse {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void solveInPlace(double[] x) {
+            substitute(factor, x);
+        }
+
+        @Override
+        public void solveConjugateTransposeInPlace(double[] x) {
+            substitute(factor, x);
+        }
+    }
+
+    /**
+     * Check if the matrix of coefficients is equal to its conjugate transpose
+     * @return true if it is Hermitian; false if not
+     */
+    boolean isHermitian() {
+        double[] data = coeffMat.data;
+        for (int row = 0; row < size; ++row) {
+            if (data[coeffMat.index(row, row) + 1] != 0.0) {
+                return false;
+            }
+            for (int col = 0; col < row; ++col) {
+                int lowerInd = coeffMat.index(row, col);
+                int upperInd = coeffMat.index(col, row);
+                if (data[lowerInd] != data[upperInd] || data[lowerInd + 1] != -data[upperInd + 1]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the Cholesky factor L of the matrix row by row (Cholesky-Banachiewicz):
+     *     L(row, col) = (A(row, col) - sum of L(row, k) * Conj(L(col, k)) for k < col) / L(col, col)
+     *     L(row, row) = sqrt(A(row, row) - sum of |L(row, k)|^2 for k < row)
+     * Both sums are over contiguous parts of the packed rows
+     * @return the packed lower triangle of L; null if the matrix is not positive definite (double[])
+     */
+    private double[] factor() {
+        double[] data = coeffMat.data;
+        double[] factor = new double[size * (size + 1)];
+        for (int row = 0; row < size; ++row) {
+            int rowStart = row * (row + 1);
+            for (int col = 0; col <= row; ++col) {
+                int colStart = col * (col + 1);
+                int ind = coeffMat.index(row, col);
+                double real = data[ind];
+                double imag = data[ind + 1];
+                for (int k = 0; k < col; ++k) {
+                    double aReal = factor[rowStart + 2 * k];
+                    double aImag = factor[rowStart + 2 * k + 1];
+                    double bReal = factor[colStart + 2 * k];
+                    double bImag = -factor[colStart + 2 * k + 1];
+                    real -= aReal * bReal - aImag * bImag;
+                    imag -= aReal * bImag + aImag * bReal;
+                }
+                if (col < row) {
+                    double diag = factor[colStart + 2 * col];
+                    factor[rowStart + 2 * col] = real / diag;
+                    factor[rowStart + 2 * col + 1] = imag / diag;
+                } else {
+                    // A zero pivot (as small as the solvers consider zero) is handed to LU too, which classifies singular systems
+                    if (!(real > 0.0) || Complex.isZero(real, 0.0)) {
+                        return null;
+                    }
+                    factor[rowStart + 2 * row] = Math.sqrt(real);
+                }
+            }
+        }
+        return factor;
+    }
+
+    private void solveWithLU() {
+        luSolver = new LUSolver(coeffMat, constMat);
+        luSolver.setStepListener(stepListener);
+        luSolver.setAssessingAccuracy(isAssessingAccuracy);
+        luSolver.solve();
+        hasUniqueSolution = luSolver.hasUniqueSolution;
+        hasNoSolutions = luSolver.hasNoSolutions;
+        hasInfiniteSolutions = luSolver.hasInfiniteSolutions;
+        solArr = luSolver.solArr;
+    }
+}
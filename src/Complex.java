@@ -6,11 +6,12 @@ import java.util.regex.Pattern;
 public class Complex {
     /*
     Class to create and operate on complex numbers
+    Instances are immutable, so they can be shared between threads
      */
-    private double real;
-    private double imag;
+    private final double real;
+    private final double imag;
     private static final double precision = 0.0001;
-    private static PrettyFormat formatter = new PrettyFormat((int) Math.log10(1 / precision));
+    private static final PrettyFormat formatter = new PrettyFormat((int) Math.log10(1 / precision));
 
     /**
      * Constructor for Complex class
@@ -113,6 +114,14 @@ public class Complex {
         return new Complex(realVal, imagVal);
     }
 
+    double getReal() {
+        return real;
+    }
+
+    double getImag() {
+        return imag;
+    }
+
     /**
      * Adds two complex numbers.
      * Returns a new Complex instance
@@ -202,6 +211,28 @@ public class Complex {
         return realPartEquals(0.0) && imagPartEquals(0.0);
     }
 
+    /**
+     * Check if a complex number given by its parts is equal to zero
+     * Same criteria as isZero() but without needing a Complex instance,
+     * so it can be used on the primitive storage of 'Matrix'
+     * @param real the real part of the number (double)
+     * @param imag the imaginary part of the number (double)
+     * @return true if it's equal; false if not
+     */
+    static boolean isZero(double real, double imag) {
+        return !(Math.abs(real) >= precision) && !(Math.abs(imag) >= precision);
+    }
+
+    /**
+     * Check if a complex number given by its parts is equal to one
+     * @param real the real part of the number (double)
+     * @param imag the imaginary part of the number (double)
+     * @return true if it's equal; false if not
+     */
+    static boolean isOne(double real, double imag) {
+        return !(Math.abs(real - 1.0) >= precision) && !(Math.abs(imag) >= precision);
+    }
+
     /**
      * Calculates the modulus of a complex number
      * Follows the principle z = a + bi
@@ -227,36 +258,48 @@ public class Complex {
             Complex numConj = num.conjugate();
             double denominator = Math.pow(num.modulus(), 2);
             Complex divResult = this.multiply(numConj);
-            divResult.real /= denominator;
-            divResult.imag /= denominator;
-            return divResult;
+            return new Complex(divResult.real / denominator, divResult.imag / denominator);
         }
     }
 
     @Override
     public String toString() {
-        if (isZero()) {
-            return "0";
-        } else if (realPartEquals(0.0)) {
-            if (imagPartEquals(1.0)) {
-                return "i";
-            } else if (imagPartEquals(-1.0)) {
-                return "-i";
-            } else {
-                return String.format("%si", formatter.format(imag));
+        StringBuilder out = new StringBuilder(24);
+        appendTo(out, real, imag);
+        return out.toString();
+    }
+
+    /**
+     * Appends the representation of a complex number given by its parts, the same as toString()
+     * returns, to a buffer, so writing many numbers doesn't create a 'Complex' or a String for each
+     * @param out the buffer to append to ('StringBuilder')
+     * @param real the real part of the number (double)
+     * @param imag the imaginary part of the number (double)
+     */
+    static void appendTo(StringBuilder out, double real, double imag) {
+        boolean isRealZero = !(Math.abs(real) >= precision);
+        boolean isImagZero = !(Math.abs(imag) >= precision);
+        if (isRealZero && isImagZero) {
+            out.append('0');
+            return;
+        }
+        if (isImagZero) {
+            formatter.appendTo(out, real);
+            return;
+        }
+        if (!isRealZero) {
+            formatter.appendTo(out, real);
+            if (imag > precision) {
+                out.append('+');
             }
-        } else if (imagPartEquals(0.0)) {
-            return formatter.format(real);
+        }
+        if (!(Math.abs(imag - 1.0) >= precision)) {
+            out.append('i');
+        } else if (!(Math.abs(imag + 1.0) >= precision)) {
+            out.append("-i");
         } else {
-            String imagStr;
-            if (imagPartEquals(1.0)) {
-                imagStr = "i";
-            } else if (imagPartEquals(-1.0)) {
-                imagStr = "-i";
-            } else {
-                imagStr = String.format("%si", formatter.format(imag));
-            }
-            return String.format("%s%s%s", formatter.format(real), (imag > precision) ? "+" : "", imagStr);
+            formatter.appendTo(out, imag);
+            out.append('i');
         }
     }
 
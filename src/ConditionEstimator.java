@@ -0,0 +1,219 @@
+package solver;
+
+import java.util.Arrays;
+
+class ConditionEstimator {
+    /*
+    Class estimating the condition number ||A|| * ||Inv(A)|| of a square matrix in the 1-norm
+    without forming Inv(A), with Hager's method as refined by Higham (the one LAPACK uses):
+    ||Inv(A)||_1 is the largest ||Inv(A) * x||_1 over the x with ||x||_1 = 1, which is reached at
+    a column of the identity. Starting from x = (1/n, ..., 1/n), each iteration solves with A and
+    with A^H to find the column the gradient points to, and stops once the estimate no longer
+    grows (at most 5 iterations); an extra vector of alternating signs guards against the cases
+    where this gets stuck. Each solve reuses the solver's factorization and costs O(n^2), so the
+    estimate costs a few solves; it is a lower bound, almost always within a factor of 3
+    Vectors are stored with the real and imaginary parts interleaved, like in 'Matrix'
+     */
+    private static final int MAX_ITERATIONS = 5;
+
+    /**
+     * Interface for the inverse of a square matrix, applied through a factorization of the matrix
+     */
+    interface Inverse {
+        /**
+         * Returns the # of rows (and columns) of the matrix
+         * @return the size of the matrix (int)
+         */
+        int size();
+
+        /**
+         * Solves A * x = b in place
+         * @param x the constants b, replaced by the solution (double[] of length 2 * size())
+         */
+        void solveInPlace(double[] x);
+
+        /**
+         * Solves A^H * x = b in place, with A^H the conjugate transpose of A
+         * @param x the constants b, replaced by the solution (double[] of length 2 * size())
+         */
+        void solveConjugateTransposeInPlace(double[] x);
+    }
+
+    private ConditionEstimator() {
+    }
+
+    /**
+     * Estimates the condition number of a square matrix in the 1-norm
+     * @param mat the matrix ('Matrix' class)
+     * @param inverse the inverse of the matrix, through its factorization ('Inverse')
+     * @return the estimate, a lower bound (double)
+     */
+    static double estimate(Matrix mat, Inverse inverse) {
+        return norm1(mat) * estimateInverseNorm1(inverse);
+    }
+
+    /**
+     * Estimates the condition number of a square sparse matrix in the 1-norm
+     * @param mat the matrix ('SparseMatrix' class)
+     * @param inverse the inverse of the matrix, through its factorization ('Inverse')
+     * @return the estimate, a lower bound (double)
+     */
+    static double estimate(SparseMatrix mat, Inverse inverse) {
+        return norm1(mat) * estimateInverseNorm1(inverse);
+    }
+
+    /**
+     * Estimates ||Inv(A)||_1
+     * @param inverse the inverse of the matrix, through its factorization ('Inverse')
+     * @return the estimate, a lower bound (double)
+     */
+    static double estimateInverseNorm1(Inverse inverse) {
+        int n = inverse.size();
+        if (n == 0) {
+            return 0.0;
+        }
+        double[] x = new double[2 * n];
+        for (int ind = 0; ind < n; ++ind) {
+            x[2 * ind] = 1.0 / n;
+        }
+        inverse.solveInPlace(x);
+        double estimate = norm1(x);
+        if (n == 1) {
+            return estimate;
+        }
+        int col = -1;
+        for (int iter = 0; iter < MAX_ITERATIONS; ++iter) {
+            // The gradient of ||Inv(A) * x||_1 is Inv(A)^H * sign(Inv(A) * x); its largest element gives the next column
+            toSigns(x);
+            inverse.solveConjugateTransposeInPlace(x);
+            int nextCol = indexOfMaxModulus(x);
+            if (col >= 0 && Math.hypot(x[2 * nextCol], x[2 * nextCol + 1]) == Math.hypot(x[2 * col], x[2 * col + 1])) {
+                break;
+            }
+            col = nextCol;
+            Arrays.fill(x, 0.0);
+            x[2 * col] = 1.0;
+            inverse.solveInPlace(x);
+            double nextEstimate = norm1(x);
+            if (nextEstimate <= estimate) {
+                break;
+            }
+            estimate = nextEstimate;
+        }
+        // The alternating signs, which are far from the columns tried so far for the matrices that fool the iteration
+        for (int ind = 0; ind < n; ++ind) {
+            x[2 * ind] = ((ind % 2 == 0) ? 1.0 : -1.0) * (1.0 + (double) ind / (n - 1));
+            x[2 * ind + 1] = 0.0;
+        }
+        inverse.solveInPlace(x);
+        return Math.max(estimate, 2.0 * norm1(x) / (3.0 * n));
+    }
+
+    /**
+     * Returns the 1-norm of a matrix, the largest sum of the moduli of a column
+     * @param mat the matrix ('Matrix' class)
+     * @return ||mat||_1 (double)
+     */
+    static double norm1(Matrix mat) {
+        double[] colSums = new double[mat.cols];
+        for (int row = 0; row < mat.rows; ++row) {
+            int start = mat.index(row, 0);
+            for (int col = 0; col < mat.cols; ++col) {
+                colSums[col] += Math.hypot(mat.data[start + 2 * col], mat.data[start + 2 * col + 1]);
+            }
+        }
+        double norm = 0.0;
+        for (double sum : colSums) {
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    /**
+     * Returns the infinity-norm of a matrix, the largest sum of the moduli of a row
+     * @param mat the matrix ('Matrix' class)
+     * @return ||mat||_inf (double)
+     */
+    static double normInf(Matrix mat) {
+        double norm = 0.0;
+        for (int row = 0; row < mat.rows; ++row) {
+            int start = mat.index(row, 0);
+            double sum = 0.0;
+            for (int col = 0; col < mat.cols; ++col) {
+                sum += Math.hypot(mat.data[start + 2 * col], mat.data[start + 2 * col + 1]);
+            }
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    /**
+     * Returns the 1-norm of a sparse matrix, going only through its non-zero elements
+     * @param mat the matrix ('SparseMatrix' class)
+     * @return ||mat||_1 (double)
+     */
+    static double norm1(SparseMatrix mat) {
+        double[] colSums = new double[mat.cols];
+        for (int pos = 0; pos < mat.nonZeros(); ++pos) {
+            colSums[mat.colInd[pos]] += Math.hypot(mat.values[2 * pos], mat.values[2 * pos + 1]);
+        }
+        double norm = 0.0;
+        for (double sum : colSums) {
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    /**
+     * Returns the infinity-norm of a sparse matrix, going only through its non-zero elements
+     * @param mat the matrix ('SparseMatrix' class)
+     * @return ||mat||_inf (double)
+     */
+    static double normInf(SparseMatrix mat) {
+        double norm = 0.0;
+        for (int row = 0; row < mat.rows; ++row) {
+            double sum = 0.0;
+            for (int pos = mat.rowPtr[row]; pos < mat.rowPtr[row + 1]; ++pos) {
+                sum += Math.hypot(mat.values[2 * pos], mat.values[2 * pos + 1]);
+            }
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    private static double norm1(double[] x) {
+        double norm = 0.0;
+        for (int ind = 0; ind < x.length; ind += 2) {
+            norm += Math.hypot(x[ind], x[ind + 1]);
+        }
+        return norm;
+    }
+
+    /**
+     * Replaces each element by its sign, the element divided by its modulus (1 for zero)
+     */
+    private static void toSigns(double[] x) {
+        for (int ind = 0; ind < x.length; ind += 2) {
+            double modulus = Math.hypot(x[ind], x[ind + 1]);
+            if (modulus == 0.0) {
+                x[ind] = 1.0;
+            } else {
+                x[ind] /= modulus;
+                x[ind + 1] /= modulus;
+            }
+        }
+    }
+
+    private static int indexOfMaxModulus(double[] x) {
+        int maxInd = 0;
+        double maxModulus = -1.0;
+        for (int ind = 0; ind < x.length / 2; ++ind) {
+            double modulus = Math.hypot(x[2 * ind], x[2 * ind + 1]);
+            if (modulus > maxModulus) {
+                maxModulus = modulus;
+                maxInd = ind;
+            }
+        }
+        return maxInd;
+    }
+}
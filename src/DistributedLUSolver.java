@@ -0,0 +1,610 @@
+package solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+class DistributedLUSolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem and solves square systems with an LU factorization with
+    partial pivoting distributed across worker processes ('LUWorker'), connected over sockets.
+    The augmented matrix (the coefficients with the constants as their last column) is dealt to
+    the workers in a 2D block-cyclic layout ('BlockCyclicLayout'), one block of columns at a time
+    being factored as a panel:
+        1. the coordinator gets the panel from the workers holding its columns and factors it,
+           picking the pivot of each column (the panel is narrow, so this is cheap)
+        2. it gets the rows the pivots swap, from the column after the panel on, swaps them and
+           solves the panel's rows with its unit lower triangle to get them as rows of U (U12)
+        3. it sends each worker its part of the swapped rows, of U12 and of the multipliers of
+           the panel (L21), and the workers subtract L21 * U12 from their part of the trailing
+           matrix at the same time; the workers holding the next panel send it back as updated
+    Since the constants are updated like the other columns, the factorization also does the
+    forward substitution. The back substitution then goes through the diagonal blocks of U on
+    the coordinator, a block at a time from the last one, with the workers holding the columns
+    of each block multiplying the rows of U above it with its part of the solution.
+    A singular matrix is classified with the Gauss-Jordan elimination instead, which tells
+    if the system has no solutions or infinitely many
+     */
+    int size; // # of variables (and equations)
+    final List<InetSocketAddress> workerAddresses;
+    long[] workerComputeNanos; // time each worker spent updating its blocks; null until solve() is called
+    long[] workerCommNanos; // rest of the time each worker was connected: sending, receiving and waiting
+    long coordinatorComputeNanos; // time the coordinator spent factoring panels and substituting
+    long coordinatorCommNanos; // rest of the time the coordinator was connected to the workers
+    private BlockCyclicLayout layout;
+    private int blockSize = BlockedLUSolver.DEFAULT_BLOCK_SIZE;
+    private LUWorker.Connection[] conns; // the connection to each worker, in the order of the grid
+    private double[] panel; // the panel being factored, from its diagonal down
+    private double[] trailing; // the rows swapped by the panel, from the column after it on
+    private int[] pivots; // row swapped with each row by the factorization, as global row #s
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the constants in the linear equation system ('Matrix' class)
+     * @param workerAddresses the address of each worker ('List<InetSocketAddress>')
+     */
+    DistributedLUSolver(Matrix coeffMat, Matrix constMat, List<InetSocketAddress> workerAddresses) {
+        if (constMat.cols > 1) {
+            throw new IllegalArgumentException("Multiple columns of constants can only be solved with the lu solver!");
+        }
+        if (workerAddresses == null || workerAddresses.isEmpty()) {
+            throw new IllegalArgumentException("The distributed solver needs the addresses of its workers (-workers)");
+        }
+        this.coeffMat = coeffMat;
+        this.constMat = constMat;
+        this.size = coeffMat.cols;
+        this.workerAddresses = workerAddresses;
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[coeffMat.cols];
+    }
+
+    void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid block size: %d", blockSize));
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Parses the addresses of the workers
+     * @param text the addresses, as host:port separated by commas; the host can be left out for localhost (String)
+     * @return the addresses ('List<InetSocketAddress>')
+     */
+    static List<InetSocketAddress> parseAddresses(String text) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String part : text.split(",")) {
+            addresses.add(parseAddress(part.trim()));
+        }
+        return addresses;
+    }
+
+    /**
+     * Parses an address as host:port, or only a port for localhost
+     * @param text the address (String)
+     * @return the address ('InetSocketAddress')
+     */
+    static InetSocketAddress parseAddress(String text) {
+        int colon = text.lastIndexOf(':');
+        String host = (colon < 0) ? "127.0.0.1" : text.substring(0, colon);
+        try {
+            return new InetSocketAddress(host, Integer.parseInt(text.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Invalid worker address: %s", text));
+        }
+    }
+
+    @Override
+    void solve() {
+        if (coeffMat.rows != coeffMat.cols) {
+            classifyWithoutUniqueSolution();
+            return;
+        }
+        boolean isFactored;
+        double[] x = new double[2 * size];
+        long start = System.nanoTime();
+        coordinatorComputeNanos = 0;
+        try {
+            connect();
+            try {
+                distribute();
+                isFactored = factor();
+                if (isFactored) {
+                    substitute(x);
+                }
+                finish();
+            } finally {
+                for (LUWorker.Connection conn : conns) {
+                    conn.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        coordinatorCommNanos = System.nanoTime() - start - coordinatorComputeNanos;
+        if (!isFactored) {
+            classifyWithoutUniqueSolution();
+            return;
+        }
+        for (int row = 0; row < size; ++row) {
+            solArr[row] = Complex.valueOf(x[2 * row], x[2 * row + 1]);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    /**
+     * Connects to the workers and has each of them allocate its blocks
+     * @throws IOException if a worker can't be connected to, or can't hold its blocks
+     */
+    private void connect() throws IOException {
+        int numProcs = workerAddresses.size();
+        layout = BlockCyclicLayout.forProcesses(Math.min(blockSize, Math.max(size, 1)), numProcs);
+        conns = new LUWorker.Connection[numProcs];
+        int numConnected = 0;
+        try {
+            for (; numConnected < numProcs; ++numConnected) {
+                Socket socket = new Socket();
+                try {
+                    socket.connect(workerAddresses.get(numConnected));
+                } catch (IOException e) {
+                    socket.close();
+                    throw new IOException(String.format("Could not connect to the worker at %s", workerAddresses.get(numConnected)), e);
+                }
+                conns[numConnected] = new LUWorker.Connection(socket);
+            }
+            for (int proc = 0; proc < numProcs; ++proc) {
+                LUWorker.Connection conn = conns[proc];
+                conn.out.writeInt(LUWorker.INIT);
+                conn.out.writeInt(proc / layout.numProcCols);
+                conn.out.writeInt(proc % layout.numProcCols);
+                conn.out.writeInt(layout.numProcRows);
+                conn.out.writeInt(layout.numProcCols);
+                conn.out.writeInt(layout.blockSize);
+                conn.out.writeInt(size);
+                conn.out.writeInt(size + 1);
+                conn.out.flush();
+            }
+            for (int proc = 0; proc < numProcs; ++proc) {
+                String error = conns[proc].in.readUTF();
+                if (!error.isEmpty()) {
+                    throw new IOException(String.format("The worker at %s failed: %s", workerAddresses.get(proc), error));
+                }
+            }
+        } catch (IOException e) {
+            for (int proc = 0; proc < numConnected; ++proc) {
+                conns[proc].close();
+            }
+            throw e;
+        }
+        panel = new double[2 * layout.blockSize * size];
+        // The panel's rows, and as many rows below it at most that its pivots swapped with them
+        trailing = new double[2 * 2 * layout.blockSize * (size + 1)];
+        pivots = new int[size];
+    }
+
+    /**
+     * Sends each row of the augmented matrix to the workers holding it, with the columns each of them holds
+     */
+    private void distribute() throws IOException {
+        double[] localRow = new double[2 * layout.numColsBefore(size + 1, 0)];
+        for (int row = 0; row < size; ++row) {
+            int procRow = layout.rowOwner(row);
+            for (int procCol = 0; procCol < layout.numProcCols; ++procCol) {
+                int numLocalCols = layout.numColsBefore(size + 1, procCol);
+                for (int localCol = 0; localCol < numLocalCols; ++localCol) {
+                    int col = layout.globalCol(localCol, procCol);
+                    int src = (col < size) ? coeffMat.index(row, col) : constMat.index(row, 0);
+                    double[] srcData = (col < size) ? coeffMat.data : constMat.data;
+                    localRow[2 * localCol] = srcData[src];
+                    localRow[2 * localCol + 1] = srcData[src + 1];
+                }
+                LUWorker.Connection conn = conn(procRow, procCol);
+                conn.out.writeInt(LUWorker.SET_ROW);
+                conn.out.writeInt(row);
+                conn.writeDoubles(localRow, 0, 2 * numLocalCols);
+            }
+        }
+        for (LUWorker.Connection conn : conns) {
+            conn.out.flush();
+        }
+    }
+
+    /**
+     * Factors the distributed matrix a panel at a time
+     * @return true if it was factored; false if a pivot was zero
+     */
+    private boolean factor() throws IOException {
+        int firstWidth = Math.min(layout.blockSize, size);
+        for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+            LUWorker.Connection conn = conn(procRow, layout.colOwner(0));
+            conn.out.writeInt(LUWorker.GET_PANEL);
+            conn.out.writeInt(0);
+            conn.out.writeInt(firstWidth);
+            conn.out.flush();
+        }
+        receivePanel(0, firstWidth);
+        for (int start = 0; start < size; start += layout.blockSize) {
+            int width = Math.min(layout.blockSize, size - start);
+            int end = start + width;
+            long computeStart = System.nanoTime();
+            boolean isFactored = factorPanel(start, width);
+            coordinatorComputeNanos += System.nanoTime() - computeStart;
+            if (!isFactored) {
+                return false;
+            }
+            List<Integer> swapped = swappedRows(start, end);
+            fetchRows(swapped, end);
+            computeStart = System.nanoTime();
+            applySwaps(swapped, start, end);
+            solveUpper(start, width);
+            coordinatorComputeNanos += System.nanoTime() - computeStart;
+            sendUpdate(start, width, swapped);
+            if (end < size) {
+                receivePanel(end, Math.min(layout.blockSize, size - end));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Receives a panel from the workers holding its columns, from its diagonal down, into 'panel'
+     * @param start the first column of the panel, and its first row (int)
+     * @param width # of columns of the panel (int)
+     */
+    private void receivePanel(int start, int width) throws IOException {
+        int procCol = layout.colOwner(start);
+        for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+            LUWorker.Connection conn = conn(procRow, procCol);
+            int numLocalRows = layout.numRowsBefore(size, procRow);
+            for (int localRow = layout.numRowsBefore(start, procRow); localRow < numLocalRows; ++localRow) {
+                int row = layout.globalRow(localRow, procRow);
+                conn.readDoubles(panel, 2 * width * (row - start), 2 * width);
+            }
+        }
+    }
+
+    /**
+     * Factors the panel in 'panel' with partial pivoting, like 'OutOfCoreLUSolver' does with its panels
+     * @param start the first column of the panel, and its first row (int)
+     * @param width # of columns of the panel (int)
+     * @return true if it was factored; false if a pivot was zero
+     */
+    private boolean factorPanel(int start, int width) {
+        int stride = 2 * width;
+        int numRows = size - start;
+        for (int k = 0; k < width; ++k) {
+            int pivotRow = k;
+            double maxModulus = -1.0;
+            for (int row = k; row < numRows; ++row) {
+                int ind = row * stride + 2 * k;
+                double modulus = Math.hypot(panel[ind], panel[ind + 1]);
+                if (modulus > maxModulus) {
+                    maxModulus = modulus;
+                    pivotRow = row;
+                }
+            }
+            pivots[start + k] = start + pivotRow;
+            swapRows(panel, stride, k, pivotRow);
+            int pivotInd = k * stride + 2 * k;
+            double pivotReal = panel[pivotInd];
+            double pivotImag = panel[pivotInd + 1];
+            if (Complex.isZero(pivotReal, pivotImag)) {
+                return false;
+            }
+            double denominator = pivotReal * pivotReal + pivotImag * pivotImag;
+            double invReal = pivotReal / denominator;
+            double invImag = -pivotImag / denominator;
+            for (int row = k + 1; row < numRows; ++row) {
+                int ind = row * stride + 2 * k;
+                double lReal = panel[ind] * invReal - panel[ind + 1] * invImag;
+                double lImag = panel[ind] * invImag + panel[ind + 1] * invReal;
+                panel[ind] = lReal;
+                panel[ind + 1] = lImag;
+                for (int offset = 2; offset < stride - 2 * k; offset += 2) {
+                    double uReal = panel[pivotInd + offset];
+                    double uImag = panel[pivotInd + offset + 1];
+                    panel[ind + offset] -= lReal * uReal - lImag * uImag;
+                    panel[ind + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the rows whose part right of the panel the workers have to replace: the rows of the
+     * panel, and the rows below it that its pivots swapped with them
+     */
+    private List<Integer> swappedRows(int start, int end) {
+        List<Integer> swapped = new ArrayList<>();
+        for (int row = start; row < end; ++row) {
+            swapped.add(row);
+        }
+        for (int row = start; row < end; ++row) {
+            if (pivots[row] >= end && !swapped.contains(pivots[row])) {
+                swapped.add(pivots[row]);
+            }
+        }
+        return swapped;
+    }
+
+    /**
+     * Gets the rows swapped by the panel, from the column after it on, into 'trailing'
+     * (as whole rows, in the order of 'swapped')
+     * @param swapped the rows ('List<Integer>')
+     * @param fromCol the column after the panel (int)
+     */
+    private void fetchRows(List<Integer> swapped, int fromCol) throws IOException {
+        for (LUWorker.Connection conn : conns) {
+            conn.out.writeInt(LUWorker.GET_ROWS);
+            conn.out.writeInt(fromCol);
+            conn.out.writeInt(swapped.size());
+            for (int row : swapped) {
+                conn.out.writeInt(row);
+            }
+            conn.out.flush();
+        }
+        int numCols = size + 1 - fromCol;
+        double[] localRow = new double[2 * layout.numColsBefore(size + 1, 0)];
+        for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+            for (int procCol = 0; procCol < layout.numProcCols; ++procCol) {
+                LUWorker.Connection conn = conn(procRow, procCol);
+                int firstLocalCol = layout.numColsBefore(fromCol, procCol);
+                int numLocalCols = layout.numColsBefore(size + 1, procCol) - firstLocalCol;
+                for (int ind = 0; ind < swapped.size(); ++ind) {
+                    if (layout.rowOwner(swapped.get(ind)) != procRow) {
+                        continue;
+                    }
+                    conn.readDoubles(localRow, 0, 2 * numLocalCols);
+                    for (int localCol = 0; localCol < numLocalCols; ++localCol) {
+                        int col = layout.globalCol(firstLocalCol + localCol, procCol) - fromCol;
+                        trailing[2 * (ind * numCols + col)] = localRow[2 * localCol];
+                        trailing[2 * (ind * numCols + col) + 1] = localRow[2 * localCol + 1];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the swaps of the panel's pivots to the rows in 'trailing', reordering them so that
+     * the row at each index of 'swapped' holds what ends up in that row of the matrix
+     */
+    private void applySwaps(List<Integer> swapped, int start, int end) {
+        int[] sources = new int[swapped.size()];
+        for (int ind = 0; ind < sources.length; ++ind) {
+            sources[ind] = ind;
+        }
+        for (int row = start; row < end; ++row) {
+            int other = swapped.indexOf(pivots[row]);
+            int ind = row - start;
+            int temp = sources[ind];
+            sources[ind] = sources[other];
+            sources[other] = temp;
+        }
+        int numCols = size + 1 - end;
+        double[] reordered = new double[2 * numCols * sources.length];
+        for (int ind = 0; ind < sources.length; ++ind) {
+            System.arraycopy(trailing, 2 * numCols * sources[ind], reordered, 2 * numCols * ind, 2 * numCols);
+        }
+        System.arraycopy(reordered, 0, trailing, 0, reordered.length);
+    }
+
+    /**
+     * Solves the panel's rows in 'trailing' with the panel's unit lower triangle, which makes them its rows of U (U12)
+     */
+    private void solveUpper(int start, int width) {
+        int numCols = size + 1 - (start + width);
+        RowKernels kernels = RowKernels.getCurrent();
+        for (int row = 1; row < width; ++row) {
+            for (int k = 0; k < row; ++k) {
+                double lReal = panel[2 * (row * width + k)];
+                double lImag = panel[2 * (row * width + k) + 1];
+                if (lReal != 0.0 || lImag != 0.0) {
+                    kernels.addScaled(trailing, 2 * numCols * row, trailing, 2 * numCols * k, numCols, -lReal, -lImag);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends each worker its part of the rows swapped by the panel (with U12), of the panel's diagonal
+     * block and of its multipliers (L21) and U12 to update its blocks with
+     */
+    private void sendUpdate(int start, int width, List<Integer> swapped) throws IOException {
+        int end = start + width;
+        int numCols = size + 1 - end;
+        double[] localRow = new double[2 * layout.numColsBefore(size + 1, 0)];
+        for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+            for (int procCol = 0; procCol < layout.numProcCols; ++procCol) {
+                LUWorker.Connection conn = conn(procRow, procCol);
+                int firstLocalCol = layout.numColsBefore(end, procCol);
+                int numTrailingCols = layout.numColsBefore(size + 1, procCol) - firstLocalCol;
+                conn.out.writeInt(LUWorker.UPDATE);
+                conn.out.writeInt(start);
+                conn.out.writeInt(width);
+                int numSwapped = 0;
+                for (int row : swapped) {
+                    if (layout.rowOwner(row) == procRow) {
+                        ++numSwapped;
+                    }
+                }
+                conn.out.writeInt(numSwapped);
+                for (int ind = 0; ind < swapped.size(); ++ind) {
+                    if (layout.rowOwner(swapped.get(ind)) == procRow) {
+                        conn.out.writeInt(swapped.get(ind));
+                        gatherLocal(trailing, 2 * numCols * ind, end, firstLocalCol, numTrailingCols, procCol, localRow);
+                        conn.writeDoubles(localRow, 0, 2 * numTrailingCols);
+                    }
+                }
+                boolean holdsDiagonal = layout.rowOwner(start) == procRow && layout.colOwner(start) == procCol;
+                conn.out.writeBoolean(holdsDiagonal);
+                if (holdsDiagonal) {
+                    conn.writeDoubles(panel, 0, 2 * width * width);
+                }
+                int firstLocalRow = layout.numRowsBefore(end, procRow);
+                int numLocalRows = layout.numRowsBefore(size, procRow);
+                if (numTrailingCols > 0 && firstLocalRow < numLocalRows) {
+                    // The multipliers of the rows held after the panel, as swapped by its pivots
+                    for (int localRowInd = firstLocalRow; localRowInd < numLocalRows; ++localRowInd) {
+                        int row = layout.globalRow(localRowInd, procRow);
+                        conn.writeDoubles(panel, 2 * width * (row - start), 2 * width);
+                    }
+                    for (int k = 0; k < width; ++k) {
+                        gatherLocal(trailing, 2 * numCols * k, end, firstLocalCol, numTrailingCols, procCol, localRow);
+                        conn.writeDoubles(localRow, 0, 2 * numTrailingCols);
+                    }
+                }
+                conn.out.flush();
+            }
+        }
+    }
+
+    /**
+     * Copies the columns a column of the grid holds from a row held whole (from a column on)
+     * @param src the array holding the row (double[])
+     * @param from the index of the row's first element in it (int)
+     * @param fromCol the column of the row's first element (int)
+     * @param firstLocalCol the first local column to copy (int)
+     * @param numLocalCols # of local columns to copy (int)
+     * @param procCol the column of the grid (int)
+     * @param dest the array to copy them to, from its start (double[])
+     */
+    private void gatherLocal(double[] src, int from, int fromCol, int firstLocalCol, int numLocalCols, int procCol, double[] dest) {
+        for (int localCol = 0; localCol < numLocalCols; ++localCol) {
+            int col = layout.globalCol(firstLocalCol + localCol, procCol) - fromCol;
+            dest[2 * localCol] = src[from + 2 * col];
+            dest[2 * localCol + 1] = src[from + 2 * col + 1];
+        }
+    }
+
+    /**
+     * Solves U * x = y, with y the constants as updated by the factorization, a block at a time from the last one
+     * @param x array for the solution (double[])
+     */
+    private void substitute(double[] x) throws IOException {
+        for (LUWorker.Connection conn : conns) {
+            conn.out.writeInt(LUWorker.GET_DIAGONAL);
+            conn.out.flush();
+        }
+        int numBlocks = (size + layout.blockSize - 1) / layout.blockSize;
+        double[][] diagonal = new double[numBlocks][];
+        for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+            for (int procCol = 0; procCol < layout.numProcCols; ++procCol) {
+                LUWorker.Connection conn = conn(procRow, procCol);
+                for (int start = 0; start < size; start += layout.blockSize) {
+                    if (layout.rowOwner(start) == procRow && layout.colOwner(start) == procCol) {
+                        int width = Math.min(layout.blockSize, size - start);
+                        diagonal[start / layout.blockSize] = new double[2 * width * width];
+                        conn.readDoubles(diagonal[start / layout.blockSize], 0, 2 * width * width);
+                    }
+                }
+                if (layout.colOwner(size) == procCol) {
+                    int numLocalRows = layout.numRowsBefore(size, procRow);
+                    for (int localRow = 0; localRow < numLocalRows; ++localRow) {
+                        conn.readDoubles(x, 2 * layout.globalRow(localRow, procRow), 2);
+                    }
+                }
+            }
+        }
+        double[] block = new double[2 * layout.blockSize];
+        double[] products = new double[2 * size];
+        for (int start = (size - 1) / layout.blockSize * layout.blockSize; start >= 0; start -= layout.blockSize) {
+            int width = Math.min(layout.blockSize, size - start);
+            double[] diag = diagonal[start / layout.blockSize];
+            long computeStart = System.nanoTime();
+            for (int k = width - 1; k >= 0; --k) {
+                int col = start + k;
+                double diagReal = diag[2 * (k * width + k)];
+                double diagImag = diag[2 * (k * width + k) + 1];
+                double denominator = diagReal * diagReal + diagImag * diagImag;
+                double real = (x[2 * col] * diagReal + x[2 * col + 1] * diagImag) / denominator;
+                double imag = (x[2 * col + 1] * diagReal - x[2 * col] * diagImag) / denominator;
+                x[2 * col] = real;
+                x[2 * col + 1] = imag;
+                for (int row = 0; row < k; ++row) {
+                    double uReal = diag[2 * (row * width + k)];
+                    double uImag = diag[2 * (row * width + k) + 1];
+                    x[2 * (start + row)] -= uReal * real - uImag * imag;
+                    x[2 * (start + row) + 1] -= uReal * imag + uImag * real;
+                }
+            }
+            coordinatorComputeNanos += System.nanoTime() - computeStart;
+            if (start == 0) {
+                break;
+            }
+            // The workers holding the block's columns multiply the rows above it with its part of the solution
+            System.arraycopy(x, 2 * start, block, 0, 2 * width);
+            int procCol = layout.colOwner(start);
+            for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+                LUWorker.Connection conn = conn(procRow, procCol);
+                conn.out.writeInt(LUWorker.BACK_SUBSTITUTE);
+                conn.out.writeInt(start);
+                conn.out.writeInt(width);
+                conn.writeDoubles(block, 0, 2 * width);
+                conn.out.flush();
+            }
+            for (int procRow = 0; procRow < layout.numProcRows; ++procRow) {
+                int numAbove = layout.numRowsBefore(start, procRow);
+                conn(procRow, procCol).readDoubles(products, 0, 2 * numAbove);
+                for (int localRow = 0; localRow < numAbove; ++localRow) {
+                    int row = layout.globalRow(localRow, procRow);
+                    x[2 * row] -= products[2 * localRow];
+                    x[2 * row + 1] -= products[2 * localRow + 1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells the workers the solve is over and collects the time each of them spent computing and communicating
+     */
+    private void finish() throws IOException {
+        for (LUWorker.Connection conn : conns) {
+            conn.out.writeInt(LUWorker.FINISH);
+            conn.out.flush();
+        }
+        workerComputeNanos = new long[conns.length];
+        workerCommNanos = new long[conns.length];
+        for (int proc = 0; proc < conns.length; ++proc) {
+            workerComputeNanos[proc] = conns[proc].in.readLong();
+            workerCommNanos[proc] = conns[proc].in.readLong();
+        }
+    }
+
+    private LUWorker.Connection conn(int procRow, int procCol) {
+        return conns[procRow * layout.numProcCols + procCol];
+    }
+
+    private static void swapRows(double[] data, int stride, int row1, int row2) {
+        if (row1 == row2) {
+            return;
+        }
+        for (int offset = 0; offset < stride; ++offset) {
+            double temp = data[row1 * stride + offset];
+            data[row1 * stride + offset] = data[row2 * stride + offset];
+            data[row2 * stride + offset] = temp;
+        }
+    }
+
+    /**
+     * Used when the coefficient matrix is singular or not square: the Gauss-Jordan elimination
+     * tells if the system has no solutions, infinitely many or (if overdetermined) an unique one
+     */
+    private void classifyWithoutUniqueSolution() {
+        LinearSystem linSys = LinearSystem.create(coeffMat, constMat);
+        linSys.setStepListener(stepListener);
+        linSys.solve();
+        hasUniqueSolution = linSys.hasUniqueSolution;
+        hasNoSolutions = linSys.hasNoSolutions;
+        hasInfiniteSolutions = linSys.hasInfiniteSolutions;
+        solArr = linSys.solArr;
+    }
+}
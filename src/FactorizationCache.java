@@ -0,0 +1,126 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+class FactorizationCache {
+    /*
+    Class keeping the LU factorizations of the most recently used matrices of coefficients,
+    so a system with the same coefficients as an earlier one (but other constants) is solved
+    with only forward and back substitution.
+    Entries are found by a hash of the contents of the matrix and then compared element by
+    element, so different matrices never share a factorization. When the factors and keys held
+    take more than the memory budget, the least recently used entries are evicted.
+    It can be shared by solvers running on several threads
+     */
+    private final long maxBytes;
+    private final LinkedHashMap<Key, LUFactorization> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long numBytes; // # of bytes held by the entries
+    private long numHits;
+    private long numMisses;
+    private long numEvictions;
+
+    /**
+     * Constructor for the class
+     * @param maxBytes the most memory the cached factorizations may take, in bytes (long)
+     */
+    FactorizationCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException(String.format("Invalid cache size: %d", maxBytes));
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Key of an entry: the kind of factorization and a copy of the matrix it factors
+     */
+    private static final class Key {
+        private final String kind;
+        private final int rows;
+        private final int cols;
+        private final double[] data;
+        private final int hash;
+
+        private Key(String kind, Matrix mat, double[] data) {
+            this.kind = kind;
+            this.rows = mat.rows;
+            this.cols = mat.cols;
+            this.data = data;
+            this.hash = 31 * (31 * kind.hashCode() + rows) + Arrays.hashCode(data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && rows == other.rows && cols == other.cols
+                    && kind.equals(other.kind) && Arrays.equals(data, other.data);
+        }
+    }
+
+    /**
+     * Returns the cached factorization of a matrix, or factors it and caches the result
+     * The lock is not held while factoring, so two threads missing on the same matrix may
+     * both factor it; the result is the same either way
+     * @param kind the kind of factorization, since different kinds can round differently (String)
+     * @param mat the matrix of coefficients ('Matrix' class)
+     * @param factorer factors the matrix on a miss ('Supplier')
+     * @return the factorization of the matrix ('LUFactorization')
+     */
+    LUFactorization get(String kind, Matrix mat, Supplier<LUFactorization> factorer) {
+        Key lookup = new Key(kind, mat, mat.data);
+        synchronized (this) {
+            LUFactorization factorization = entries.get(lookup);
+            if (factorization != null) {
+                ++numHits;
+                return factorization;
+            }
+            ++numMisses;
+        }
+        LUFactorization factorization = factorer.get();
+        // The key keeps its own copy, so later changes to the matrix can't corrupt the cache
+        Key key = new Key(kind, mat, mat.data.clone());
+        long size = sizeOf(key, factorization);
+        if (size > maxBytes) {
+            return factorization;
+        }
+        synchronized (this) {
+            LUFactorization previous = entries.put(key, factorization);
+            numBytes += size;
+            if (previous != null) {
+                numBytes -= sizeOf(key, previous);
+            }
+            Iterator<Map.Entry<Key, LUFactorization>> iter = entries.entrySet().iterator();
+            while (numBytes > maxBytes && iter.hasNext()) {
+                Map.Entry<Key, LUFactorization> eldest = iter.next();
+                numBytes -= sizeOf(eldest.getKey(), eldest.getValue());
+                iter.remove();
+                ++numEvictions;
+            }
+        }
+        return factorization;
+    }
+
+    private static long sizeOf(Key key, LUFactorization factorization) {
+        return 8L * (key.data.length + factorization.lu.data.length) + 4L * factorization.pivots.length;
+    }
+
+    /**
+     * Returns the statistics of the cache in one line, e.g. for the console
+     * @return the # of hits, misses, evictions and entries and the memory used (String)
+     */
+    synchronized String statsToString() {
+        return String.format("Factorization cache: %d hits, %d misses, %d evictions, %d entries, %d bytes",
+                numHits, numMisses, numEvictions, entries.size(), numBytes);
+    }
+}
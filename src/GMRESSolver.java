@@ -0,0 +1,154 @@
+package solver;
+
+import java.util.Arrays;
+
+class GMRESSolver extends IterativeSolver {
+    /*
+    Right-preconditioned GMRES method, restarted every 'restart' iterations
+    Works for general (non-Hermitian) matrices of coefficients. The Hessenberg matrix
+    built by the Arnoldi process is reduced with complex Givens rotations as it grows,
+    so the residual norm is known at every iteration without forming the solution
+     */
+    static final int DEFAULT_RESTART = 30;
+    int restart;
+
+    GMRESSolver(LinearOperator operator, Matrix constMat) {
+        super(operator, constMat);
+        this.restart = DEFAULT_RESTART;
+    }
+
+    void setRestart(int restart) {
+        if (restart < 1) {
+            throw new IllegalArgumentException(String.format("Invalid restart: %d", restart));
+        }
+        this.restart = restart;
+    }
+
+    @Override
+    int iterate(double[] b, double[] x) {
+        int len = b.length;
+        int m = Math.min(restart, len / 2);
+        double bNorm = Math.max(norm(b), Double.MIN_NORMAL);
+        double[][] basis = new double[m + 1][len];
+        double[][] hReal = new double[m + 1][m];
+        double[][] hImag = new double[m + 1][m];
+        double[] cos = new double[m];
+        double[] sinReal = new double[m];
+        double[] sinImag = new double[m];
+        double[] gReal = new double[m + 1];
+        double[] gImag = new double[m + 1];
+        double[] r = new double[len];
+        double[] z = new double[len];
+        int iter = 0;
+        while (iter < maxIterations) {
+            // r = b - A * x
+            operator.multiply(x, r);
+            for (int ind = 0; ind < len; ++ind) {
+                r[ind] = b[ind] - r[ind];
+            }
+            double beta = norm(r);
+            if (beta / bNorm <= tolerance) {
+                return iter;
+            }
+            for (int ind = 0; ind < len; ++ind) {
+                basis[0][ind] = r[ind] / beta;
+            }
+            Arrays.fill(gReal, 0.0);
+            Arrays.fill(gImag, 0.0);
+            gReal[0] = beta;
+            int cols = 0;
+            for (int j = 0; j < m && iter < maxIterations; ++j) {
+                ++iter;
+                // w = A * Inv(M) * v_j, orthogonalized against the basis (modified Gram-Schmidt)
+                preconditioner.apply(basis[j], z);
+                double[] w = basis[j + 1];
+                operator.multiply(z, w);
+                for (int i = 0; i <= j; ++i) {
+                    double[] h = dot(basis[i], w);
+                    hReal[i][j] = h[0];
+                    hImag[i][j] = h[1];
+                    axpy(-h[0], -h[1], basis[i], w);
+                }
+                double wNorm = norm(w);
+                hReal[j + 1][j] = wNorm;
+                hImag[j + 1][j] = 0.0;
+                if (wNorm != 0.0) {
+                    for (int ind = 0; ind < len; ++ind) {
+                        w[ind] /= wNorm;
+                    }
+                }
+                // Apply the previous rotations to the new column
+                for (int i = 0; i < j; ++i) {
+                    rotate(hReal[i], hImag[i], hReal[i + 1], hImag[i + 1], j, cos[i], sinReal[i], sinImag[i]);
+                }
+                // New rotation zeroing H(j + 1, j)
+                double aReal = hReal[j][j];
+                double aImag = hImag[j][j];
+                double bVal = hReal[j + 1][j];
+                double aMod = Math.hypot(aReal, aImag);
+                double rho = Math.hypot(aMod, bVal);
+                if (aMod == 0.0) {
+                    cos[j] = 0.0;
+                    sinReal[j] = 1.0;
+                    sinImag[j] = 0.0;
+                } else {
+                    cos[j] = aMod / rho;
+                    sinReal[j] = (aReal / aMod) * bVal / rho;
+                    sinImag[j] = (aImag / aMod) * bVal / rho;
+                }
+                rotate(hReal[j], hImag[j], hReal[j + 1], hImag[j + 1], j, cos[j], sinReal[j], sinImag[j]);
+                double[] gRow = {gReal[j]};
+                double[] gRowImag = {gImag[j]};
+                double[] gNext = {gReal[j + 1]};
+                double[] gNextImag = {gImag[j + 1]};
+                rotate(gRow, gRowImag, gNext, gNextImag, 0, cos[j], sinReal[j], sinImag[j]);
+                gReal[j] = gRow[0];
+                gImag[j] = gRowImag[0];
+                gReal[j + 1] = gNext[0];
+                gImag[j + 1] = gNextImag[0];
+                cols = j + 1;
+                if (Math.hypot(gReal[j + 1], gImag[j + 1]) / bNorm <= tolerance || wNorm == 0.0) {
+                    break;
+                }
+            }
+            // Solve the upper triangular system H * y = g and update x += Inv(M) * (V * y)
+            double[] yReal = new double[cols];
+            double[] yImag = new double[cols];
+            for (int i = cols - 1; i >= 0; --i) {
+                double real = gReal[i];
+                double imag = gImag[i];
+                for (int k = i + 1; k < cols; ++k) {
+                    real -= hReal[i][k] * yReal[k] - hImag[i][k] * yImag[k];
+                    imag -= hReal[i][k] * yImag[k] + hImag[i][k] * yReal[k];
+                }
+                double[] y = divide(real, imag, hReal[i][i], hImag[i][i]);
+                yReal[i] = y[0];
+                yImag[i] = y[1];
+            }
+            double[] update = new double[len];
+            for (int i = 0; i < cols; ++i) {
+                axpy(yReal[i], yImag[i], basis[i], update);
+            }
+            preconditioner.apply(update, z);
+            for (int ind = 0; ind < len; ++ind) {
+                x[ind] += z[ind];
+            }
+        }
+        return iter;
+    }
+
+    /**
+     * Applies a complex Givens rotation to element 'col' of two rows:
+     * (a, b) <- (c * a + s * b, -Conj(s) * a + c * b)
+     */
+    private static void rotate(double[] aReal, double[] aImag, double[] bReal, double[] bImag, int col, double c, double sReal, double sImag) {
+        double ar = aReal[col];
+        double ai = aImag[col];
+        double br = bReal[col];
+        double bi = bImag[col];
+        aReal[col] = c * ar + (sReal * br - sImag * bi);
+        aImag[col] = c * ai + (sReal * bi + sImag * br);
+        bReal[col] = -(sReal * ar + sImag * ai) + c * br;
+        bImag[col] = -(sReal * ai - sImag * ar) + c * bi;
+    }
+}
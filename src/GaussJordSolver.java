@@ -0,0 +1,688 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+class GaussJordSolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem and uses Gaussian-Jordan elimination
+    to solve a linear system of equation
+    The elimination works on the system matrix through the row/column operations
+    below, which subclasses can override to use a different storage for it
+    Rows and columns are never moved in the storage: swapping them swaps their entries in
+    'rowOrder' and 'colOrder', through which every element is looked up. Row operations work
+    on whole rows, which are stored with their columns in the same order, so only the row
+    has to be looked up for them
+     */
+    Matrix sysMat; // the system matrix (augmented matrix) being reduced
+    int sysRows; // # of rows of the system matrix
+    int sysCols; // # of columns of the system matrix
+    int[] rowOrder; // rowOrder[row] is the row of the storage holding row 'row' of the system matrix
+    int[] colOrder; // colOrder[col] is the column of the storage (the variable) holding column 'col'
+    // Row updates are split across this pool when there is enough work; null to always run sequentially
+    ForkJoinPool pool;
+    // Minimum # of matrix elements a parallel task should update; smaller work stays on a single thread
+    static final int MIN_ELEMS_PER_TASK = 1 << 14;
+    // The steps of the last elimination, when the accuracy is assessed; null otherwise
+    private EliminationRecord elimination;
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    GaussJordSolver(Matrix coeffMat, Matrix constMat) {
+        this.coeffMat = coeffMat;
+        this.constMat = constMat;
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[coeffMat.cols];
+    }
+
+    /**
+     * Sets the pool used to run the row updates of the elimination in parallel
+     * @param pool the pool to use, or null to run sequentially ('ForkJoinPool')
+     */
+    void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Creates the system matrix (augmented matrix) from the
+     * coefficient matrix and the vector of constants
+     */
+    void createSystemMatrix() {
+        sysRows = coeffMat.rows;
+        sysCols = coeffMat.cols + 1;
+        sysMat = Matrix.createMatrix(sysRows, sysCols);
+        for (int row = 0; row < sysRows; ++row) {
+            System.arraycopy(coeffMat.data, coeffMat.index(row, 0), sysMat.data, sysMat.index(row, 0), 2 * coeffMat.cols);
+            sysMat.set(row, sysCols - 1, constMat.getReal(row, 0), constMat.getImag(row, 0));
+        }
+    }
+
+    /**
+     * Returns an element of the system matrix as a new Complex instance
+     * @param row the row of the element (int)
+     * @param col the column of the element (int)
+     * @return SYSMAT(row, col) ('Complex')
+     */
+    Complex getElem(int row, int col) {
+        return sysMat.get(rowOrder[row], colOrder[col]);
+    }
+
+    double getReal(int row, int col) {
+        return sysMat.getReal(rowOrder[row], colOrder[col]);
+    }
+
+    double getImag(int row, int col) {
+        return sysMat.getImag(rowOrder[row], colOrder[col]);
+    }
+
+    /**
+     * Check if an element of the system matrix is equal to zero
+     * @param row the row of the element (int)
+     * @param col the column of the element (int)
+     * @return true if it's equal; false if not
+     */
+    boolean isZeroElem(int row, int col) {
+        int ind = sysMat.index(rowOrder[row], colOrder[col]);
+        return Complex.isZero(sysMat.data[ind], sysMat.data[ind + 1]);
+    }
+
+    /**
+     * Check if an element of the system matrix is equal to one
+     * @param row the row of the element (int)
+     * @param col the column of the element (int)
+     * @return true if it's equal; false if not
+     */
+    boolean isOneElem(int row, int col) {
+        int ind = sysMat.index(rowOrder[row], colOrder[col]);
+        return Complex.isOne(sysMat.data[ind], sysMat.data[ind + 1]);
+    }
+
+    /**
+     * Performs the elementary scaling of a row of the system matrix
+     * Works in place on the primitive storage so no objects are allocated, with the current 'RowKernels'
+     * @param row the row of the matrix to operate on (int)
+     * @param scaleReal the real part of the factor by which to scale the row (double)
+     * @param scaleImag the imaginary part of the factor by which to scale the row (double)
+     */
+    void scaleRow(int row, double scaleReal, double scaleImag) {
+        // If an invalid row number is given, throw an exception
+        if (row >= sysRows) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d with a matrix of %d rows", row, sysRows));
+        }
+        RowKernels.getCurrent().scale(sysMat.data, sysMat.index(rowOrder[row], 0), sysCols, scaleReal, scaleImag);
+    }
+
+    /**
+     * Performs the elemantary swapping of rows of the system matrix
+     * Only their entries in 'rowOrder' are swapped; the storage is left as it is
+     * @param row1 the first row to swap (int)
+     * @param row2 the second row to swap (int)
+     */
+    void swapRows(int row1, int row2) {
+        // If an invalid row number is given, throw an exception
+        if (row1 >= sysRows || row2 >= sysRows) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on rows %d and %d with a matrix of %d rows", row1, row2, sysRows));
+        }
+        int temp = rowOrder[row1];
+        rowOrder[row1] = rowOrder[row2];
+        rowOrder[row2] = temp;
+    }
+
+    /**
+     * Performs the elementary swapping of columns of the system matrix
+     * Only their entries in 'colOrder' are swapped; the storage is left as it is
+     * @param col1 the first column to swap (int)
+     * @param col2 the second column to swap (int)
+     */
+    void swapCols(int col1, int col2) {
+        // If an invalid column number is given, throw an exception
+        if (col1 >= sysCols || col2 >= sysCols) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on columns %d and %d with a matrix of %d columns", col1, col2, sysCols));
+        }
+        int temp = colOrder[col1];
+        colOrder[col1] = colOrder[col2];
+        colOrder[col2] = temp;
+    }
+
+    /**
+     * Performs the addition of a scaled row to another row of the system matrix
+     * Here we do row1 <- row1 + (scaleFactor * row2)
+     * Works in place on the primitive storage so no objects are allocated, with the current 'RowKernels'
+     * @param row1 the row to add to (int)
+     * @param row2 the row being added (int)
+     * @param scaleReal the real part of the factor by which to scale row2 before addition. (Does not affect row2) (double)
+     * @param scaleImag the imaginary part of the factor by which to scale row2 before addition (double)
+     */
+    void addScaledRowToRow(int row1, int row2, double scaleReal, double scaleImag) {
+        addScaledRowToRow(row1, sysMat.data, row2, scaleReal, scaleImag);
+    }
+
+    /**
+     * Performs the addition of a scaled row, taken from a copy of the system matrix, to a row of the system matrix
+     * Here we do row1 <- row1 + (scaleFactor * source.row2)
+     * @param row1 the row to add to (int)
+     * @param source the storage to take row2 from, laid out like the system matrix (double[])
+     * @param row2 the row being added (int)
+     * @param scaleReal the real part of the factor by which to scale row2 before addition. (Does not affect row2) (double)
+     * @param scaleImag the imaginary part of the factor by which to scale row2 before addition (double)
+     */
+    void addScaledRowToRow(int row1, double[] source, int row2, double scaleReal, double scaleImag) {
+        // If an invalid row number is given, throw an exception
+        if (row1 >= sysRows || row2 >= sysRows) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on rows %d and %d with a matrix of %d rows", row1, row2, sysRows));
+        }
+        RowKernels.getCurrent().addScaled(sysMat.data, sysMat.index(rowOrder[row1], 0), source, sysMat.index(rowOrder[row2], 0), sysCols, scaleReal, scaleImag);
+    }
+
+    /**
+     * Returns a copy of the storage of the system matrix
+     * @return the copy, laid out like the storage, with the rows and columns in the order of 'rowOrder' and 'colOrder' (double[])
+     */
+    double[] copySystemData() {
+        return sysMat.data.clone();
+    }
+
+    /**
+     * Finds the first non-zero element in the system matrix given a row and column
+     * It first checks non-zero elements in the same column below the row specified
+     * Then it checks towards right of the element in the row specified
+     * If still not found, it proceeds to the diagonally next element
+     * And repeats the above steps till it is found or not
+     * @param row the starting row to search from (int)
+     * @param col the starting column to search from (int)
+     * @return the index as an int[] of the first non-zero element starting from MAT(row, col)
+     * and proceeding bottom right.
+     */
+    private int[] findNonZeroElem(int row, int col) {
+        // If an invalid row number is given, throw an exception
+        if (row >= sysRows || col >= sysCols) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d and column %d with a matrix %dx%d", row, col, sysRows, sysCols));
+        }
+        boolean isFound = false;
+        int[] inds = null;
+        // The column of the constants is never a pivot
+        while (row < sysRows && col < sysCols - 1 && !isFound) {
+            // Adding 'row' as argument to ensure that we always search below the element
+            // So it is used as an offset basically
+            int rowInd = findNonZeroElemInCol(col, row);
+            if (rowInd == -1) {
+                // Adding 'col' as argument to ensure that we always search to the right of the element
+                // So it is used as an offset basically
+                int colInd = findNonZeroElemInRow(row, col);
+                // 'colInd == sysCols - 1' ensures that we're not using the
+                // column of the constant vector in the augmented matrix
+                if (colInd == -1 || colInd == sysCols - 1) {
+                    ++row;
+                    ++col;
+                } else {
+                    inds = new int[]{row, colInd};
+                    isFound = true;
+                }
+            } else {
+                inds = new int[]{rowInd, col};
+                isFound = true;
+            }
+        }
+        return inds;
+    }
+
+    /**
+     * Finds the first non-zero element in the row specified
+     * @param row the row of the matrix to search for (int)
+     * @return the index (int) of the first non-zero element
+     */
+    private int findNonZeroElemInRow(int row, int colOffset) {
+        // If an invalid row number is given, throw an exception
+        if (row >= sysRows || colOffset >= sysCols) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d and column %d with a matrix of %d x %d", row, colOffset, sysRows, sysCols));
+        }
+        for (int col = colOffset; col < sysCols; ++col) {
+            // using this criteria to determine if an element is zero or not due to rounding errors
+            // that can cause a number not to be zero exactly and thus give a false positive
+            if (!isZeroElem(row, col)) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first non-zero element in the column specified
+     * @param col the column of the matrix to search for (int)
+     * @return the index (int) of the first non-zero element
+     */
+    private int findNonZeroElemInCol(int col, int rowOffset) {
+        // If an invalid row number is given, throw an exception
+        if (col >= sysCols || rowOffset >= sysRows) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d and column %d with a matrix of %d x %d", rowOffset, col, sysRows, sysCols));
+        }
+        for (int row = rowOffset; row < sysRows; ++row) {
+            // using this criteria to determine if an element is zero or not due to rounding errors
+            // that can cause a number not to be zero exactly and thus give a false positive
+            if (!isZeroElem(row, col)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if updating the given # of rows is worth splitting across the pool
+     * @param numRows the # of rows to update (int)
+     * @return true if the rows should be updated in parallel; false if not
+     */
+    boolean isParallel(int numRows) {
+        return pool != null && pool.getParallelism() > 1 && (long) numRows * sysCols >= 2L * MIN_ELEMS_PER_TASK;
+    }
+
+    /**
+     * Zeroes out the column of a pivot in all the rows below it, by adding to each row the pivot row
+     * scaled by the negative of the row's element in the column. The pivot row must already have a 1 in the column.
+     * The rows are split into chunks updated in parallel on the pool; the steps are reported afterwards, in order
+     * @param pivot the pivot row, whose column is also the column to zero out (int)
+     */
+    private void eliminateBelowInParallel(int pivot) {
+        int numRows = sysRows - pivot - 1;
+        double[] factorReals = new double[numRows];
+        double[] factorImags = new double[numRows];
+        boolean[] isUpdated = new boolean[numRows];
+        pool.invoke(new RowRangeAction(pivot + 1, sysRows, minRowsPerTask(), otherRow -> {
+            if (!isZeroElem(otherRow, pivot)) {
+                double otherReal = -getReal(otherRow, pivot);
+                double otherImag = -getImag(otherRow, pivot);
+                addScaledRowToRow(otherRow, pivot, otherReal, otherImag);
+                factorReals[otherRow - pivot - 1] = otherReal;
+                factorImags[otherRow - pivot - 1] = otherImag;
+                isUpdated[otherRow - pivot - 1] = true;
+            }
+        }));
+        for (int otherRow = pivot + 1; otherRow < sysRows; ++otherRow) {
+            if (isUpdated[otherRow - pivot - 1]) {
+                stepListener.rowAdded(pivot, otherRow, factorReals[otherRow - pivot - 1], factorImags[otherRow - pivot - 1]);
+            }
+        }
+    }
+
+    /**
+     * Converts the upper triangular rows of the system matrix to reduced row echelon form in parallel
+     * Each row is reduced with the rows below it as they were before any reduction, exactly like the
+     * sequential version does, so the rows are read from a copy of the upper triangular matrix
+     * and can be reduced independently of each other. The steps are reported afterwards, in order;
+     * their factors are only kept when a listener is set
+     * @param numRows the # of rows to reduce (int)
+     */
+    private void reduceRowsInParallel(int numRows) {
+        double[] upper = copySystemData();
+        // factors[row] holds the factor of each column (interleaved real and imaginary parts), NaN where there was no step
+        double[][] factors = (stepListener != StepListener.NONE) ? new double[numRows][] : null;
+        pool.invoke(new RowRangeAction(0, numRows, minRowsPerTask(), row -> {
+            double[] rowFactors = null;
+            if (factors != null) {
+                rowFactors = new double[2 * sysCols];
+                Arrays.fill(rowFactors, Double.NaN);
+                factors[row] = rowFactors;
+            }
+            for (int col = row + 1; col < sysCols - 1; ++col) {
+                if (!isZeroElem(row, col)) {
+                    double real = -getReal(row, col);
+                    double imag = -getImag(row, col);
+                    addScaledRowToRow(row, upper, col, real, imag);
+                    if (rowFactors != null) {
+                        rowFactors[2 * col] = real;
+                        rowFactors[2 * col + 1] = imag;
+                    }
+                }
+            }
+        }));
+        if (factors == null) {
+            return;
+        }
+        for (int row = 0; row < numRows; ++row) {
+            for (int col = row + 1; col < sysCols - 1; ++col) {
+                if (!Double.isNaN(factors[row][2 * col])) {
+                    stepListener.rowReduced(col, row, factors[row][2 * col], factors[row][2 * col + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the # of rows a parallel task should update at least so that it has enough work
+     * @return the minimum # of rows per task (int)
+     */
+    private int minRowsPerTask() {
+        return Math.max(1, MIN_ELEMS_PER_TASK / sysCols);
+    }
+
+    /**
+     * Fork/join task running an action on each row of a range, splitting
+     * the range in halves until it is small enough to run on a single thread
+     */
+    private static class RowRangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int fromRow;
+        private final int toRow;
+        private final int minRows;
+        private final IntConsumer action;
+
+        RowRangeAction(int fromRow, int toRow, int minRows, IntConsumer action) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.minRows = minRows;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= minRows) {
+                for (int row = fromRow; row < toRow; ++row) {
+                    action.accept(row);
+                }
+            } else {
+                int mid = (fromRow + toRow) >>> 1;
+                invokeAll(new RowRangeAction(fromRow, mid, minRows, action), new RowRangeAction(mid, toRow, minRows, action));
+            }
+        }
+    }
+
+    /**
+     * Returns a printable representation of the system matrix
+     * @return the system matrix in the same layout as Matrix.toString()
+     */
+    String systemMatrixToString() {
+        StringBuilder strRep = new StringBuilder(String.format("MATRIX %dx%d\n", sysRows, sysCols));
+        for (int row = 0; row < sysRows; ++row) {
+            for (int col = 0; col < sysCols; ++col) {
+                strRep.append(String.format("%s\t", getElem(row, col).toString()));
+            }
+            strRep.append('\n');
+        }
+        return strRep.toString();
+    }
+
+    /**
+     * Returns the identity permutation
+     * @param size # of entries (int)
+     * @return 0, 1, ... size - 1 (int[])
+     */
+    private static int[] identityOrder(int size) {
+        int[] order = new int[size];
+        for (int ind = 0; ind < size; ++ind) {
+            order[ind] = ind;
+        }
+        return order;
+    }
+
+    @Override
+    void solve() {
+        if (!isAssessingAccuracy) {
+            eliminate();
+            return;
+        }
+        // The steps are recorded alongside those told to the listener set, as the factorization to estimate the condition number with
+        StepListener listener = stepListener;
+        elimination = new EliminationRecord(coeffMat.cols);
+        stepListener = StepListener.both(listener, elimination);
+        try {
+            eliminate();
+        } finally {
+            stepListener = listener;
+        }
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        return (elimination != null && hasUniqueSolution) ? elimination : null;
+    }
+
+    /**
+     * Does the actual elimination, reporting each step to 'stepListener'
+     */
+    private void eliminate() {
+
+        // Create the system matrix (augmented matrix)
+        stats.startPhase("augmentation");
+        createSystemMatrix();
+        rowOrder = identityOrder(sysRows);
+        colOrder = identityOrder(sysCols);
+        stats.endPhase();
+        stepListener.started(this);
+
+        stats.startPhase("forward elimination");
+        for (int row = 0; row < Math.min(coeffMat.cols, coeffMat.rows); ++row) {
+            // inds[0], inds[1] -> row #, col # of first non-zero element
+            int[] inds = findNonZeroElem(row, row);
+            // If inds is null, it means we couldn't find a non-zero element and can quit this stage of the algo
+            if (inds == null) {
+                break;
+            }
+            // If non-zero element was found in a different row, swap the rows
+            if (inds[0] != row) {
+                swapRows(inds[0], row);
+                stepListener.rowsSwapped(row, inds[0]);
+            }
+            // If non-zero element was found in a different column, swap the columns
+            if (inds[1] != row) {
+                swapCols(inds[1], row);
+                stepListener.colsSwapped(row, inds[1]);
+            }
+            // Scale non-zero element to 1; skip if it already is
+            if (!isOneElem(row, row)) {
+                Complex scaleFactor = ONE.divide(getElem(row, row));
+                scaleRow(row, scaleFactor.getReal(), scaleFactor.getImag());
+                stepListener.rowScaled(row, scaleFactor.getReal(), scaleFactor.getImag());
+            }
+            // Make each element in the same column below the row equal to zero; skip if already is
+            if (isParallel(sysRows - row - 1)) {
+                eliminateBelowInParallel(row);
+                continue;
+            }
+            for (int otherRow = row + 1; otherRow < sysRows; ++otherRow) {
+                if (!isZeroElem(otherRow, row)) {
+                    double otherReal = -getReal(otherRow, row);
+                    double otherImag = -getImag(otherRow, row);
+                    addScaledRowToRow(otherRow, row, otherReal, otherImag);
+                    stepListener.rowAdded(row, otherRow, otherReal, otherImag);
+                }
+            }
+        }
+        stats.endPhase();
+        // Now check for # of significant equations ( == # of rows with non-zero elements
+        stats.startPhase("rank classification");
+        int numSignificantVars = coeffMat.cols;
+        int numSignificantEqns = 0;
+        for (int row = 0; row < sysRows; ++row) {
+            int ind = findNonZeroElemInRow(row, 0);
+
+            // If we find that a non-zero element only exists in the last column of the
+            // augmented matrix there is a contradiction and the linear system has no solutions
+            if (ind == sysCols - 1) {
+                hasNoSolutions = true;
+                break;
+            // As long as there exists a non-zero element in the row, it is counted towards the # of significant equations
+            } else if (ind != -1) {
+                ++numSignificantEqns;
+            }
+        }
+
+        stats.endPhase();
+
+        if (hasNoSolutions) {
+            hasInfiniteSolutions = false;
+            hasUniqueSolution = false;
+        // Criteria for infinite solutions is as below
+        } else if (numSignificantEqns < numSignificantVars) {
+            hasInfiniteSolutions = true;
+            hasNoSolutions = false;
+            hasUniqueSolution = false;
+        // Here # of significant equations == # of significant variables
+        // So there is an unique solution
+        } else {
+            // Convert upper triangular matrix to reduced row echelon form
+            stats.startPhase("back substitution");
+            if (isParallel(numSignificantEqns)) {
+                reduceRowsInParallel(numSignificantEqns);
+            } else {
+                for (int row = 0; row < numSignificantEqns; ++row) {
+                    for (int col = row + 1; col < sysCols - 1; ++col) {
+                        if (!isZeroElem(row, col)) {
+                            double real = -getReal(row, col);
+                            double imag = -getImag(row, col);
+                            addScaledRowToRow(row, col, real, imag);
+                            stepListener.rowReduced(col, row, real, imag);
+                        }
+                    }
+                }
+            }
+
+            stats.endPhase();
+
+            // Now assign the right variable to the right value
+            // Each row has its leading 1 on the diagonal, in the column holding the variable colOrder[row]
+            stats.startPhase("solution extraction");
+            for (int row = 0; row < numSignificantVars; ++row) {
+                solArr[colOrder[row]] = getElem(row, sysCols - 1);
+            }
+            stats.endPhase();
+
+            hasUniqueSolution = true;
+            hasNoSolutions = false;
+            hasInfiniteSolutions = false;
+        }
+        stepListener.finished(this);
+    }
+
+    /**
+     * Records the steps of an elimination as it is done, which makes the elimination a factorization:
+     * the steps turn A * Q into the identity (Q being the column swaps), so applying them to b in
+     * order solves A * x = b, and applying their conjugate transposes to b in reverse order solves
+     * A^H * x = b. Each solve takes one pass over the steps, O(n^2) when the solution is unique.
+     * The steps are kept as primitives in arrays grown as needed, about 1.5 times the memory of the system matrix
+     */
+    private static class EliminationRecord implements StepListener, ConditionEstimator.Inverse {
+        private static final byte SWAP = 0;
+        private static final byte SCALE = 1;
+        private static final byte ADD = 2;
+        private final int size;
+        private final int[] colOrder; // colOrder[col] is the variable held in column 'col' once eliminated
+        private int numSteps;
+        private byte[] kinds = new byte[16];
+        private int[] rows = new int[32]; // the row the factor is taken from and the row changed, of each step
+        private double[] factors = new double[32]; // the factor of each step (interleaved real and imaginary parts)
+
+        /**
+         * Constructor for the class
+         * @param size # of variables (int)
+         */
+        EliminationRecord(int size) {
+            this.size = size;
+            this.colOrder = new int[size];
+            for (int col = 0; col < size; ++col) {
+                colOrder[col] = col;
+            }
+        }
+
+        private void add(byte kind, int fromRow, int toRow, double real, double imag) {
+            if (numSteps == kinds.length) {
+                kinds = Arrays.copyOf(kinds, 2 * numSteps);
+                rows = Arrays.copyOf(rows, 4 * numSteps);
+                factors = Arrays.copyOf(factors, 4 * numSteps);
+            }
+            kinds[numSteps] = kind;
+            rows[2 * numSteps] = fromRow;
+            rows[2 * numSteps + 1] = toRow;
+            factors[2 * numSteps] = real;
+            factors[2 * numSteps + 1] = imag;
+            ++numSteps;
+        }
+
+        @Override
+        public void rowsSwapped(int row1, int row2) {
+            add(SWAP, row1, row2, 0.0, 0.0);
+        }
+
+        @Override
+        public void colsSwapped(int col1, int col2) {
+            int temp = colOrder[col1];
+            colOrder[col1] = colOrder[col2];
+            colOrder[col2] = temp;
+        }
+
+        @Override
+        public void rowScaled(int row, double real, double imag) {
+            add(SCALE, row, row, real, imag);
+        }
+
+        @Override
+        public void rowAdded(int fromRow, int toRow, double real, double imag) {
+            add(ADD, fromRow, toRow, real, imag);
+        }
+
+        @Override
+        public void rowReduced(int fromRow, int toRow, double real, double imag) {
+            add(ADD, fromRow, toRow, real, imag);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void solveInPlace(double[] x) {
+            double[] y = x.clone();
+            for (int step = 0; step < numSteps; ++step) {
+                applyStep(y, step, rows[2 * step], rows[2 * step + 1], factors[2 * step], factors[2 * step + 1]);
+            }
+            // Row 'row' ends up holding the variable of column 'row'
+            for (int row = 0; row < size; ++row) {
+                x[2 * colOrder[row]] = y[2 * row];
+                x[2 * colOrder[row] + 1] = y[2 * row + 1];
+            }
+        }
+
+        @Override
+        public void solveConjugateTransposeInPlace(double[] x) {
+            double[] y = new double[x.length];
+            for (int row = 0; row < size; ++row) {
+                y[2 * row] = x[2 * colOrder[row]];
+                y[2 * row + 1] = x[2 * colOrder[row] + 1];
+            }
+            // The conjugate transpose of adding a multiple of a row to another adds the conjugate multiple the other way
+            for (int step = numSteps - 1; step >= 0; --step) {
+                applyStep(y, step, rows[2 * step + 1], rows[2 * step], factors[2 * step], -factors[2 * step + 1]);
+            }
+            System.arraycopy(y, 0, x, 0, x.length);
+        }
+
+        /**
+         * Applies a step to a vector: swaps or scales its elements, or adds real + imag * i times y[fromRow] to y[toRow]
+         */
+        private void applyStep(double[] y, int step, int fromRow, int toRow, double real, double imag) {
+            int from = 2 * fromRow;
+            int to = 2 * toRow;
+            if (kinds[step] == SWAP) {
+                double tempReal = y[from];
+                double tempImag = y[from + 1];
+                y[from] = y[to];
+                y[from + 1] = y[to + 1];
+                y[to] = tempReal;
+                y[to + 1] = tempImag;
+            } else if (kinds[step] == SCALE) {
+                double yReal = y[from];
+                y[from] = yReal * real - y[from + 1] * imag;
+                y[from + 1] = yReal * imag + y[from + 1] * real;
+            } else {
+                y[to] += real * y[from] - imag * y[from + 1];
+                y[to + 1] += real * y[from + 1] + imag * y[from];
+            }
+        }
+    }
+}
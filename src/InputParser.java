@@ -0,0 +1,458 @@
+package solver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+class InputParser {
+    /*
+    Class to read the values of an input file in a single pass over its characters
+    Whitespace-separated tokens are read into a reusable buffer and numbers of the form
+    [real]+[imag]i are parsed by hand into primitive doubles, which are written straight
+    into the storage of the matrices, so no String, array or 'Complex' is created per value.
+    Tokens that are not in the plain form (e.g. "+5" or "2i+3") are handed to
+    'Complex.parseComplex', so they are accepted or rejected exactly like before
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Max # of significant digits for which the digits form an integer exactly representable as a double
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferEnd;
+    private boolean isEndOfFile;
+    private char[] token = new char[64]; // characters of the last token read
+    private int tokenLen;
+    private int lineNum; // # of the line being read, counting from 1 at the first line given to the parser
+    private double real; // real part of the last number parsed
+    private double imag; // imaginary part of the last number parsed
+
+    /**
+     * Constructor for the class
+     * @param reader the reader positioned where the values start ('Reader')
+     */
+    InputParser(Reader reader) {
+        this.reader = reader;
+        this.lineNum = 1;
+    }
+
+    /**
+     * Reads a linear system from a text input: a first line with the # of variables, the # of
+     * equations and optionally the # of columns of constants, followed by the values in the dense
+     * or the sparse format
+     * @param reader the reader positioned at the start of the input ('BufferedReader')
+     * @param isSparse whether the values are in the sparse format (boolean)
+     * @return the system read ('SystemData')
+     * @throws IOException if the input can't be read
+     */
+    static SystemData readSystem(BufferedReader reader, boolean isSparse) throws IOException {
+        int[] size = readSize(reader);
+        int numVars = size[0];
+        int numEqns = size[1];
+        int numConsts = size[2];
+        SystemData system = new SystemData();
+        system.constMat = Matrix.createMatrix(numEqns, numConsts);
+        InputParser parser = new InputParser(reader);
+        if (isSparse) {
+            system.sparseCoeffMat = parser.readSparse(numVars, numEqns, system.constMat);
+        } else {
+            system.coeffMat = Matrix.createMatrix(numEqns, numVars);
+            parser.readDense(system.coeffMat, system.constMat);
+        }
+        return system;
+    }
+
+    /**
+     * Reads the first line of a text input
+     * @param reader the reader positioned at the start of the input ('BufferedReader')
+     * @return the # of variables, the # of equations and the # of columns of constants (int[])
+     * @throws IOException if the input can't be read
+     */
+    static int[] readSize(BufferedReader reader) throws IOException {
+        // size[0], size[1] -> # of variables, # of equations
+        // size[2] (optional) -> # of columns of constants, each one being solved for
+        int[] size = Arrays.stream(reader.readLine().split("\\s+")).mapToInt(Integer::parseInt).toArray();
+        return new int[] {size[0], size[1], size.length > 2 ? size[2] : 1};
+    }
+
+    /**
+     * Interface to receive the rows of a dense system one at a time, as they are read
+     */
+    interface RowHandler {
+        /**
+         * @param row the # of the equation, from 0 (int)
+         * @param values its coefficients followed by its constants, with interleaved real and
+         *               imaginary parts; the array is reused for the next row (double[])
+         */
+        void handle(int row, double[] values) throws IOException;
+    }
+
+    /**
+     * Reads the rows of a dense input file: each line holds the coefficients of an equation
+     * followed by its constants. Blank lines are skipped and values after the constants are ignored;
+     * missing equations are an error
+     * @param coeffMat the matrix to store the coefficients in ('Matrix' class)
+     * @param constMat the matrix to store the constants in ('Matrix' class)
+     * @throws IOException if the file can't be read
+     */
+    void readDense(Matrix coeffMat, Matrix constMat) throws IOException {
+        int numVars = coeffMat.cols;
+        readDenseRows(coeffMat.rows, numVars + constMat.cols, (row, values) -> {
+            System.arraycopy(values, 0, coeffMat.data, coeffMat.index(row, 0), 2 * numVars);
+            System.arraycopy(values, 2 * numVars, constMat.data, constMat.index(row, 0), 2 * constMat.cols);
+        });
+    }
+
+    /**
+     * Reads the rows of a dense input file like readDense(), handing each one over as soon as
+     * it is read instead of storing it, so systems larger than the memory can be read
+     * @param numEqns # of equations of the system (int)
+     * @param numVals # of values of each equation: coefficients and constants (int)
+     * @param handler receives each row ('RowHandler')
+     * @throws IOException if the file can't be read
+     */
+    void readDenseRows(int numEqns, int numVals, RowHandler handler) throws IOException {
+        double[] values = new double[2 * numVals];
+        int row = 0;
+        while (!isEndOfFile) {
+            int col = 0;
+            while (nextToken()) {
+                if (col == 0 && row >= numEqns) {
+                    throw new IllegalArgumentException(String.format("Found more than %d equations in the input file", numEqns));
+                }
+                if (col < numVals) {
+                    parseComplex();
+                    values[2 * col] = real;
+                    values[2 * col + 1] = imag;
+                }
+                ++col;
+            }
+            if (col == 0) {
+                continue;
+            }
+            if (col < numVals) {
+                throw new IllegalArgumentException(String.format("Expected %d values in equation %d but found %d", numVals, row + 1, col));
+            }
+            handler.handle(row, values);
+            ++row;
+        }
+        if (row < numEqns) {
+            throw new IllegalArgumentException(String.format("Expected %d equations but found %d", numEqns, row));
+        }
+    }
+
+    /**
+     * Reads the rest of an input file in the sparse format, where each line holds the row, the column
+     * and the value of a non-zero element (rows and columns start from 1). Columns after the
+     * last variable are the columns of constants, which are stored in 'constMat'
+     * @param numVars # of variables of the system (int)
+     * @param numEqns # of equations of the system (int)
+     * @param constMat the matrix to store the constants in ('Matrix' class)
+     * @return the sparse matrix of coefficients ('SparseMatrix' class)
+     * @throws IOException if the file can't be read
+     */
+    SparseMatrix readSparse(int numVars, int numEqns, Matrix constMat) throws IOException {
+        int count = 0;
+        int[] rowInds = new int[1024];
+        int[] colInds = new int[1024];
+        double[] vals = new double[2048];
+        StringBuilder lineText = new StringBuilder(); // tokens of the line, only used for error messages
+        while (!isEndOfFile) {
+            int row = -1;
+            int col = -1;
+            int numTokens = 0;
+            lineText.setLength(0);
+            while (nextToken()) {
+                lineText.append(numTokens == 0 ? "" : " ").append(token, 0, tokenLen);
+                if (numTokens == 0) {
+                    row = parseInt() - 1;
+                } else if (numTokens == 1) {
+                    col = parseInt() - 1;
+                } else if (numTokens == 2) {
+                    parseComplex();
+                }
+                ++numTokens;
+            }
+            if (numTokens == 0) {
+                continue;
+            }
+            if (numTokens != 3) {
+                throw new IllegalArgumentException(String.format("Expected <row> <column> <value> but found: %s", lineText));
+            }
+            if (row < 0 || row >= numEqns || col < 0 || col >= numVars + constMat.cols) {
+                throw new IllegalArgumentException(String.format("Element (%d, %d) is outside of a system of %d equations and %d variables", row + 1, col + 1, numEqns, numVars));
+            }
+            if (col >= numVars) {
+                // Like the coefficients, values given twice are added up
+                int constCol = col - numVars;
+                constMat.set(row, constCol, constMat.getReal(row, constCol) + real, constMat.getImag(row, constCol) + imag);
+                continue;
+            }
+            if (count == rowInds.length) {
+                rowInds = Arrays.copyOf(rowInds, 2 * count);
+                colInds = Arrays.copyOf(colInds, 2 * count);
+                vals = Arrays.copyOf(vals, 4 * count);
+            }
+            rowInds[count] = row;
+            colInds[count] = col;
+            vals[2 * count] = real;
+            vals[2 * count + 1] = imag;
+            ++count;
+        }
+        return SparseMatrix.createMatrix(numEqns, numVars, rowInds, colInds, vals, count);
+    }
+
+    /**
+     * Reads the next token of the current line into 'token'
+     * Whitespace before it is skipped; when the end of the line is reached instead, it is consumed
+     * @return true if a token was read; false at the end of the line or of the file
+     * @throws IOException if the file can't be read
+     */
+    private boolean nextToken() throws IOException {
+        char ch;
+        // Skip the whitespace before the token
+        while (true) {
+            if (bufferPos == bufferEnd && !fillBuffer()) {
+                return false;
+            }
+            ch = buffer[bufferPos++];
+            if (ch == '\n') {
+                ++lineNum;
+                return false;
+            }
+            if (!Character.isWhitespace(ch)) {
+                break;
+            }
+        }
+        tokenLen = 0;
+        while (true) {
+            if (tokenLen == token.length) {
+                token = Arrays.copyOf(token, 2 * tokenLen);
+            }
+            token[tokenLen++] = ch;
+            if (bufferPos == bufferEnd && !fillBuffer()) {
+                return true;
+            }
+            ch = buffer[bufferPos];
+            if (Character.isWhitespace(ch)) {
+                return true;
+            }
+            ++bufferPos;
+        }
+    }
+
+    /**
+     * Reads the next characters of the file into the buffer
+     * @return true if characters were read; false at the end of the file
+     * @throws IOException if the file can't be read
+     */
+    private boolean fillBuffer() throws IOException {
+        if (isEndOfFile) {
+            return false;
+        }
+        int numRead = reader.read(buffer, 0, buffer.length);
+        if (numRead <= 0) {
+            isEndOfFile = true;
+            return false;
+        }
+        bufferPos = 0;
+        bufferEnd = numRead;
+        return true;
+    }
+
+    /**
+     * Parses the current token as an int, the same way as Integer.parseInt()
+     * @return the value of the token (int)
+     */
+    private int parseInt() {
+        // Up to 9 digits can't overflow; anything longer or unusual is left to Integer.parseInt()
+        if (tokenLen <= 9) {
+            int value = 0;
+            int ind = 0;
+            for (; ind < tokenLen; ++ind) {
+                char ch = token[ind];
+                if (ch < '0' || ch > '9') {
+                    break;
+                }
+                value = 10 * value + (ch - '0');
+            }
+            if (ind == tokenLen) {
+                return value;
+            }
+        }
+        return Integer.parseInt(new String(token, 0, tokenLen));
+    }
+
+    /**
+     * Parses the current token as a complex number into 'real' and 'imag'
+     * Tokens of the form [-]x, [-]xi, [-]x+yi, [-]x-yi, where x and y are decimal numbers
+     * (y can be omitted), are parsed here; any other token goes through Complex.parseComplex()
+     */
+    private void parseComplex() {
+        int end = tokenLen;
+        int pos = 0;
+        boolean isNegative = token[pos] == '-';
+        if (isNegative) {
+            ++pos;
+        }
+        int numEnd = scanDecimal(pos, end);
+        if (numEnd == end && numEnd > pos) {
+            // [-]x
+            real = parseDecimal(pos, numEnd, isNegative);
+            imag = 0.0;
+            return;
+        }
+        if (numEnd == end - 1 && token[numEnd] == 'i') {
+            // [-]xi or [-]i
+            real = 0.0;
+            imag = (numEnd == pos) ? (isNegative ? -1.0 : 1.0) : parseDecimal(pos, numEnd, isNegative);
+            return;
+        }
+        if (numEnd > pos && numEnd < end - 1 && (token[numEnd] == '+' || token[numEnd] == '-') && token[end - 1] == 'i') {
+            // [-]x+yi or [-]x-yi
+            int imagStart = numEnd + 1;
+            int imagEnd = scanDecimal(imagStart, end);
+            if (imagEnd == end - 1) {
+                boolean isImagNegative = token[numEnd] == '-';
+                real = parseDecimal(pos, numEnd, isNegative);
+                imag = (imagEnd == imagStart) ? (isImagNegative ? -1.0 : 1.0) : parseDecimal(imagStart, imagEnd, isImagNegative);
+                return;
+            }
+        }
+        Complex val = Complex.parseComplex(new String(token, 0, tokenLen));
+        real = val.getReal();
+        imag = val.getImag();
+    }
+
+    /**
+     * Finds the end of a decimal number of the form digits[.digits] or .digits in the token
+     * @param start the position the number starts at (int)
+     * @param end the end of the token (int)
+     * @return the position after the number; 'start' if there is no number there (int)
+     */
+    private int scanDecimal(int start, int end) {
+        int pos = start;
+        boolean hasDigits = false;
+        boolean hasPoint = false;
+        while (pos < end) {
+            char ch = token[pos];
+            if (ch >= '0' && ch <= '9') {
+                hasDigits = true;
+            } else if (ch == '.' && !hasPoint) {
+                hasPoint = true;
+            } else {
+                break;
+            }
+            ++pos;
+        }
+        return hasDigits ? pos : start;
+    }
+
+    /**
+     * Converts a decimal number found by scanDecimal() to a double
+     * Gives the same, correctly rounded, value as Double.parseDouble(): when the digits fit
+     * in a double exactly and there are at most 22 decimal places, the value is the digits
+     * divided by an exact power of ten, which is a single correctly rounded operation.
+     * Longer numbers are left to Double.parseDouble()
+     * @param start the position the number starts at (int)
+     * @param end the position after the number (int)
+     * @param isNegative whether the number has a '-' sign before it (boolean)
+     * @return the value of the number (double)
+     */
+    private double parseDecimal(int start, int end, boolean isNegative) {
+        long digits = 0;
+        int numSignificant = 0;
+        int numDecimals = 0;
+        boolean isAfterPoint = false;
+        for (int pos = start; pos < end; ++pos) {
+            char ch = token[pos];
+            if (ch == '.') {
+                isAfterPoint = true;
+                continue;
+            }
+            if (digits != 0 || ch != '0') {
+                ++numSignificant;
+            }
+            digits = 10 * digits + (ch - '0');
+            if (isAfterPoint) {
+                ++numDecimals;
+            }
+            if (numSignificant > MAX_EXACT_DIGITS || numDecimals >= POWERS_OF_TEN.length) {
+                double value = Double.parseDouble(new String(token, start, end - start));
+                return isNegative ? -value : value;
+            }
+        }
+        double value = digits / POWERS_OF_TEN[numDecimals];
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Benchmark of reading a dense n x n system with this parser against
+     * reading it with String.split() and Complex.parseComplex() per value, like before
+     * @param args the size of the system (default: 1000) and the # of repetitions (default: 5)
+     * @throws IOException never, the input is in memory
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int numReps = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        java.util.Random random = new java.util.Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < size; ++row) {
+            for (int col = 0; col <= size; ++col) {
+                String real = String.format("%.4f", 200.0 * random.nextDouble() - 100.0);
+                String imag = String.format("%.3f", 20.0 * random.nextDouble() - 10.0);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        text.append(real);
+                        break;
+                    case 1:
+                        text.append(imag).append('i');
+                        break;
+                    default:
+                        text.append(real).append(imag.startsWith("-") ? "" : "+").append(imag).append('i');
+                        break;
+                }
+                text.append(col == size ? '\n' : ' ');
+            }
+        }
+        String input = text.toString();
+        System.out.printf("Parsing a %dx%d system (%d characters)\n", size, size, input.length());
+
+        long oldBest = Long.MAX_VALUE;
+        long newBest = Long.MAX_VALUE;
+        Matrix oldCoeffs = null;
+        Matrix newCoeffs = null;
+        for (int rep = 0; rep < numReps; ++rep) {
+            long start = System.nanoTime();
+            oldCoeffs = Matrix.createMatrix(size, size);
+            Matrix oldConsts = Matrix.createMatrix(size, 1);
+            java.io.BufferedReader lineReader = new java.io.BufferedReader(new StringReader(input));
+            for (int row = 0; row < size; ++row) {
+                Complex[] vals = Arrays.stream(lineReader.readLine().split("\\s+")).map(Complex::parseComplex).toArray(Complex[]::new);
+                oldConsts.set(row, 0, vals[size]);
+                for (int col = 0; col < size; ++col) {
+                    oldCoeffs.set(row, col, vals[col]);
+                }
+            }
+            oldBest = Math.min(oldBest, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            newCoeffs = Matrix.createMatrix(size, size);
+            Matrix newConsts = Matrix.createMatrix(size, 1);
+            new InputParser(new StringReader(input)).readDense(newCoeffs, newConsts);
+            newBest = Math.min(newBest, System.nanoTime() - start);
+        }
+        System.out.printf("split + parseComplex: %.1f ms\n", oldBest / 1e6);
+        System.out.printf("InputParser:          %.1f ms\n", newBest / 1e6);
+        System.out.printf("Speedup: %.1fx\n", (double) oldBest / newBest);
+        System.out.printf("Same values: %b\n", Arrays.equals(oldCoeffs.data, newCoeffs.data));
+    }
+}
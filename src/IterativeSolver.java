@@ -0,0 +1,161 @@
+package solver;
+
+abstract class IterativeSolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem for the iterative (Krylov subspace) solvers
+    They only need products of the matrix of coefficients with vectors, so they work
+    on both dense and sparse matrices, and stop once the relative residual
+    ||b - A * x|| / ||b|| is below the tolerance or the iteration cap is reached.
+    Vectors are stored with the real and imaginary parts interleaved, like in 'Matrix'
+     */
+    static final double DEFAULT_TOLERANCE = 1e-10;
+    static final int DEFAULT_MAX_ITERATIONS = 1000;
+    LinearOperator operator; // the matrix of coefficients
+    Preconditioner preconditioner;
+    double tolerance;
+    int maxIterations;
+    int numIterations; // # of iterations done by the last call to solve()
+    double residualNorm; // relative residual of the solution found by the last call to solve()
+    boolean hasConverged;
+
+    /**
+     * Constructor for the class
+     * @param operator the matrix of coefficients in the linear equation system ('Matrix' or 'SparseMatrix')
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    IterativeSolver(LinearOperator operator, Matrix constMat) {
+        if (operator instanceof Matrix) {
+            this.coeffMat = (Matrix) operator;
+        }
+        int n = operator.size();
+        if (constMat.rows != n || constMat.cols != 1) {
+            throw new IllegalArgumentException("Iterative solvers need a square system with a single column of constants!");
+        }
+        this.operator = operator;
+        this.constMat = constMat;
+        this.preconditioner = Preconditioner.create("none", operator);
+        this.tolerance = DEFAULT_TOLERANCE;
+        this.maxIterations = DEFAULT_MAX_ITERATIONS;
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[n];
+    }
+
+    void setPreconditioner(Preconditioner preconditioner) {
+        this.preconditioner = preconditioner;
+    }
+
+    void setTolerance(double tolerance) {
+        if (!(tolerance > 0.0)) {
+            throw new IllegalArgumentException(String.format("Invalid tolerance: %s", tolerance));
+        }
+        this.tolerance = tolerance;
+    }
+
+    void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException(String.format("Invalid # of iterations: %d", maxIterations));
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Runs the iterations of the method, starting from the initial guess in x
+     * @param b the vector of constants (double[])
+     * @param x the initial guess, updated in place with the solution (double[])
+     * @return the # of iterations done (int)
+     */
+    abstract int iterate(double[] b, double[] x);
+
+    @Override
+    void solve() {
+        int n = operator.size();
+        double[] b = new double[2 * n];
+        for (int row = 0; row < n; ++row) {
+            b[2 * row] = constMat.getReal(row, 0);
+            b[2 * row + 1] = constMat.getImag(row, 0);
+        }
+        double[] x = new double[2 * n];
+        numIterations = iterate(b, x);
+
+        // Report the true residual rather than the one updated by the recurrences
+        double[] r = new double[2 * n];
+        operator.multiply(x, r);
+        for (int ind = 0; ind < r.length; ++ind) {
+            r[ind] = b[ind] - r[ind];
+        }
+        double bNorm = norm(b);
+        residualNorm = (bNorm == 0.0) ? norm(r) : norm(r) / bNorm;
+        hasConverged = residualNorm <= tolerance;
+
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+        hasUniqueSolution = hasConverged;
+        for (int row = 0; row < n; ++row) {
+            solArr[row] = Complex.valueOf(x[2 * row], x[2 * row + 1]);
+        }
+    }
+
+    @Override
+    SparseMatrix getSparseCoeffMat() {
+        return (operator instanceof SparseMatrix) ? (SparseMatrix) operator : null;
+    }
+
+    @Override
+    Status getStatus() {
+        return hasConverged ? Status.UNIQUE : Status.NOT_CONVERGED;
+    }
+
+    /**
+     * Returns the Euclidean norm of a vector
+     * @param x the vector (double[])
+     * @return ||x|| (double)
+     */
+    static double norm(double[] x) {
+        double sum = 0.0;
+        for (double val : x) {
+            sum += val * val;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Returns the inner product of two vectors, conjugating the first one: sum of Conj(x_i) * y_i
+     * @param x the first vector (double[])
+     * @param y the second vector (double[])
+     * @return the inner product as {real, imag} (double[])
+     */
+    static double[] dot(double[] x, double[] y) {
+        double real = 0.0;
+        double imag = 0.0;
+        for (int ind = 0; ind < x.length; ind += 2) {
+            real += x[ind] * y[ind] + x[ind + 1] * y[ind + 1];
+            imag += x[ind] * y[ind + 1] - x[ind + 1] * y[ind];
+        }
+        return new double[]{real, imag};
+    }
+
+    /**
+     * Computes y <- y + a * x
+     * @param aReal the real part of the factor (double)
+     * @param aImag the imaginary part of the factor (double)
+     * @param x the vector to add (double[])
+     * @param y the vector added to (double[])
+     */
+    static void axpy(double aReal, double aImag, double[] x, double[] y) {
+        for (int ind = 0; ind < x.length; ind += 2) {
+            y[ind] += aReal * x[ind] - aImag * x[ind + 1];
+            y[ind + 1] += aReal * x[ind + 1] + aImag * x[ind];
+        }
+    }
+
+    /**
+     * Divides two complex numbers given by their parts
+     * @return the quotient as {real, imag} (double[])
+     */
+    static double[] divide(double real1, double imag1, double real2, double imag2) {
+        double denominator = real2 * real2 + imag2 * imag2;
+        return new double[]{(real1 * real2 + imag1 * imag2) / denominator, (imag1 * real2 - real1 * imag2) / denominator};
+    }
+}
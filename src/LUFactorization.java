@@ -0,0 +1,374 @@
+package solver;
+
+class LUFactorization implements ConditionEstimator.Inverse {
+    /*
+    Class holding the LU factorization of a square matrix with partial pivoting,
+    such that P * A = L * U where L is unit lower triangular and U is upper triangular.
+    Both factors are stored together in 'lu' (the unit diagonal of L is not stored)
+    Once factored, any number of right-hand sides can be solved in O(n^2) each, also with
+    the conjugate transpose of the matrix, which estimating its condition number needs
+     */
+    int size; // # of rows (and columns) of the factored matrix
+    Matrix lu; // L below the diagonal, U on and above it
+    int[] pivots; // at step k, row k was swapped with row pivots[k]
+    boolean isSingular; // true if a pivot was found to be zero
+    // # of bytes of the block of U that the trailing update of the blocked factorization tries to keep in cache
+    private static final int CACHE_TILE_BYTES = 128 * 1024;
+
+    /**
+     * Constructor for the class
+     * @param lu the matrix holding the factors ('Matrix' class)
+     * @param pivots the row swaps done at each step (int[])
+     * @param isSingular whether a zero pivot was found (boolean)
+     */
+    LUFactorization(Matrix lu, int[] pivots, boolean isSingular) {
+        this.size = lu.rows;
+        this.lu = lu;
+        this.pivots = pivots;
+        this.isSingular = isSingular;
+    }
+
+    /**
+     * Factors a square matrix with partial pivoting (the pivot of each column is
+     * the element of largest modulus on or below the diagonal)
+     * The given matrix is not modified
+     * @param mat the matrix to factor ('Matrix' class)
+     * @return the factorization ('LUFactorization')
+     */
+    static LUFactorization factor(Matrix mat) {
+        if (mat.rows != mat.cols) {
+            throw new IllegalArgumentException(String.format("Cannot factor a non-square matrix of %dx%d", mat.rows, mat.cols));
+        }
+        Matrix lu = Matrix.createMatrix(mat.rows, mat.cols);
+        System.arraycopy(mat.data, 0, lu.data, 0, mat.data.length);
+        int[] pivots = new int[mat.rows];
+        boolean isSingular = factorColumns(lu, pivots, 0, lu.cols);
+        return new LUFactorization(lu, pivots, isSingular);
+    }
+
+    /**
+     * Factors a square matrix with partial pivoting, a block of columns at a time (right-looking blocked LU)
+     * For each block: the panel of 'blockSize' columns is factored, the rows of U to the right of it are
+     * solved for, and the trailing matrix is updated by a single matrix-matrix product. That update does most
+     * of the work and is tiled so that the block of U it reads stays in cache while every row is updated
+     * Gives the same factors as factor(), up to rounding
+     * @param mat the matrix to factor ('Matrix' class)
+     * @param blockSize the # of columns in each block (int)
+     * @return the factorization ('LUFactorization')
+     */
+    static LUFactorization factorBlocked(Matrix mat, int blockSize) {
+        if (mat.rows != mat.cols) {
+            throw new IllegalArgumentException(String.format("Cannot factor a non-square matrix of %dx%d", mat.rows, mat.cols));
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException(String.format("Invalid block size: %d", blockSize));
+        }
+        Matrix lu = Matrix.createMatrix(mat.rows, mat.cols);
+        System.arraycopy(mat.data, 0, lu.data, 0, mat.data.length);
+        int n = lu.rows;
+        int[] pivots = new int[n];
+        boolean isSingular = false;
+        for (int fromCol = 0; fromCol < n; fromCol += blockSize) {
+            int toCol = Math.min(fromCol + blockSize, n);
+            // Factor the panel; the row swaps are applied to the entire rows
+            isSingular |= factorColumns(lu, pivots, fromCol, toCol);
+            if (toCol == n) {
+                break;
+            }
+            // U12 <- Inv(L11) * A12
+            solveUnitLower(lu, fromCol, toCol, toCol, n);
+            // A22 <- A22 - L21 * U12
+            subtractProduct(lu, toCol, n, fromCol, toCol, toCol, n);
+        }
+        return new LUFactorization(lu, pivots, isSingular);
+    }
+
+    /**
+     * Solves the rows [fromRow, toRow) of the columns [fromCol, toCol) in place against the unit lower
+     * triangular block of L that is on the diagonal at rows and columns [fromRow, toRow)
+     * @param lu the matrix being factored ('Matrix' class)
+     * @param fromRow the first row of the diagonal block (int)
+     * @param toRow one past the last row of the diagonal block (int)
+     * @param fromCol the first column to solve (int)
+     * @param toCol one past the last column to solve (int)
+     */
+    private static void solveUnitLower(Matrix lu, int fromRow, int toRow, int fromCol, int toCol) {
+        double[] data = lu.data;
+        int len = 2 * (toCol - fromCol);
+        for (int row = fromRow + 1; row < toRow; ++row) {
+            int dst = lu.index(row, fromCol);
+            for (int k = fromRow; k < row; ++k) {
+                int ind = lu.index(row, k);
+                double lReal = data[ind];
+                double lImag = data[ind + 1];
+                if (lReal == 0.0 && lImag == 0.0) {
+                    continue;
+                }
+                int src = lu.index(k, fromCol);
+                for (int offset = 0; offset < len; offset += 2) {
+                    double uReal = data[src + offset];
+                    double uImag = data[src + offset + 1];
+                    data[dst + offset] -= lReal * uReal - lImag * uImag;
+                    data[dst + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates a block of the matrix with the product of a block of L and a block of U:
+     * A[rows, cols] <- A[rows, cols] - A[rows, ks] * A[ks, cols]
+     * The columns are processed in tiles so that A[ks, tile] is read from cache for every row
+     * @param lu the matrix being factored ('Matrix' class)
+     * @param fromRow the first row to update (int)
+     * @param toRow one past the last row to update (int)
+     * @param fromK the first column of L (and row of U) in the product (int)
+     * @param toK one past the last column of L (and row of U) in the product (int)
+     * @param fromCol the first column to update (int)
+     * @param toCol one past the last column to update (int)
+     */
+    static void subtractProduct(Matrix lu, int fromRow, int toRow, int fromK, int toK, int fromCol, int toCol) {
+        double[] data = lu.data;
+        int tileCols = Math.max(8, CACHE_TILE_BYTES / (16 * Math.max(1, toK - fromK)));
+        for (int tileFrom = fromCol; tileFrom < toCol; tileFrom += tileCols) {
+            int len = 2 * (Math.min(tileFrom + tileCols, toCol) - tileFrom);
+            for (int row = fromRow; row < toRow; ++row) {
+                int dst = lu.index(row, tileFrom);
+                for (int k = fromK; k < toK; ++k) {
+                    int ind = lu.index(row, k);
+                    double lReal = data[ind];
+                    double lImag = data[ind + 1];
+                    if (lReal == 0.0 && lImag == 0.0) {
+                        continue;
+                    }
+                    int src = lu.index(k, tileFrom);
+                    for (int offset = 0; offset < len; offset += 2) {
+                        double uReal = data[src + offset];
+                        double uImag = data[src + offset + 1];
+                        data[dst + offset] -= lReal * uReal - lImag * uImag;
+                        data[dst + offset + 1] -= lReal * uImag + lImag * uReal;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs the right-looking elimination of the columns [fromCol, toCol) of a matrix
+     * Row swaps are applied to entire rows, but the elimination only updates
+     * columns up to 'toCol' so that it can also be used to factor a panel of columns
+     * @param lu the matrix being factored in place ('Matrix' class)
+     * @param pivots the array in which to record the row swaps (int[])
+     * @param fromCol the first column to eliminate (int)
+     * @param toCol one past the last column to eliminate and update (int)
+     * @return true if a zero pivot was found; false if not
+     */
+    static boolean factorColumns(Matrix lu, int[] pivots, int fromCol, int toCol) {
+        double[] data = lu.data;
+        int n = lu.rows;
+        boolean isSingular = false;
+        for (int k = fromCol; k < toCol; ++k) {
+            // Find the element of largest modulus in the column, on or below the diagonal
+            int pivotRow = k;
+            double maxModulus = -1.0;
+            for (int row = k; row < n; ++row) {
+                int ind = lu.index(row, k);
+                double modulus = data[ind] * data[ind] + data[ind + 1] * data[ind + 1];
+                if (modulus > maxModulus) {
+                    maxModulus = modulus;
+                    pivotRow = row;
+                }
+            }
+            pivots[k] = pivotRow;
+            if (pivotRow != k) {
+                swapRows(lu, k, pivotRow);
+            }
+            int pivotInd = lu.index(k, k);
+            double pivotReal = data[pivotInd];
+            double pivotImag = data[pivotInd + 1];
+            // A zero pivot means the whole column below the diagonal is zero; nothing to eliminate
+            if (Complex.isZero(pivotReal, pivotImag)) {
+                isSingular = true;
+                continue;
+            }
+            // 1 / pivot = Conj(pivot) / |pivot|^2
+            double denominator = pivotReal * pivotReal + pivotImag * pivotImag;
+            double invReal = pivotReal / denominator;
+            double invImag = -pivotImag / denominator;
+            for (int row = k + 1; row < n; ++row) {
+                int ind = lu.index(row, k);
+                double real = data[ind];
+                double imag = data[ind + 1];
+                // Multiplier l = a(row, k) / pivot, stored in place of the eliminated element
+                double lReal = real * invReal - imag * invImag;
+                double lImag = real * invImag + imag * invReal;
+                data[ind] = lReal;
+                data[ind + 1] = lImag;
+                if (lReal == 0.0 && lImag == 0.0) {
+                    continue;
+                }
+                // row <- row - l * pivot row, only over the columns to the right of k
+                int dst = lu.index(row, k + 1);
+                int src = lu.index(k, k + 1);
+                int len = 2 * (toCol - k - 1);
+                for (int offset = 0; offset < len; offset += 2) {
+                    double uReal = data[src + offset];
+                    double uImag = data[src + offset + 1];
+                    data[dst + offset] -= lReal * uReal - lImag * uImag;
+                    data[dst + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+        return isSingular;
+    }
+
+    /**
+     * Swaps two entire rows of a matrix
+     * @param mat the matrix to operate on ('Matrix' class)
+     * @param row1 the first row to swap (int)
+     * @param row2 the second row to swap (int)
+     */
+    static void swapRows(Matrix mat, int row1, int row2) {
+        double[] data = mat.data;
+        int ind1 = mat.index(row1, 0);
+        int ind2 = mat.index(row2, 0);
+        for (int offset = 0; offset < 2 * mat.cols; ++offset) {
+            double temp = data[ind1 + offset];
+            data[ind1 + offset] = data[ind2 + offset];
+            data[ind2 + offset] = temp;
+        }
+    }
+
+    /**
+     * Solves A * X = B for every column of B using forward and back substitution
+     * All the columns are processed together, one row of B at a time
+     * @param rhs the right-hand sides B, with as many rows as A ('Matrix' class)
+     * @return the solutions X, one column per column of B ('Matrix' class)
+     */
+    Matrix solve(Matrix rhs) {
+        if (rhs.rows != size) {
+            throw new IllegalArgumentException(String.format("Cannot solve for constants of %d rows with a factorization of %d rows", rhs.rows, size));
+        }
+        if (isSingular) {
+            throw new ArithmeticException("Cannot solve with the factorization of a singular matrix!");
+        }
+        Matrix sol = Matrix.createMatrix(rhs.rows, rhs.cols);
+        System.arraycopy(rhs.data, 0, sol.data, 0, rhs.data.length);
+        double[] x = sol.data;
+        double[] data = lu.data;
+        int width = 2 * sol.cols;
+
+        // Apply the row swaps in the order they were made
+        for (int k = 0; k < size; ++k) {
+            if (pivots[k] != k) {
+                swapRows(sol, k, pivots[k]);
+            }
+        }
+        // Forward substitution with the unit lower triangular L
+        for (int row = 1; row < size; ++row) {
+            int dst = sol.index(row, 0);
+            for (int k = 0; k < row; ++k) {
+                int ind = lu.index(row, k);
+                double lReal = data[ind];
+                double lImag = data[ind + 1];
+                if (lReal == 0.0 && lImag == 0.0) {
+                    continue;
+                }
+                int src = sol.index(k, 0);
+                for (int offset = 0; offset < width; offset += 2) {
+                    x[dst + offset] -= lReal * x[src + offset] - lImag * x[src + offset + 1];
+                    x[dst + offset + 1] -= lReal * x[src + offset + 1] + lImag * x[src + offset];
+                }
+            }
+        }
+        // Back substitution with U
+        for (int row = size - 1; row >= 0; --row) {
+            int dst = sol.index(row, 0);
+            for (int k = row + 1; k < size; ++k) {
+                int ind = lu.index(row, k);
+                double uReal = data[ind];
+                double uImag = data[ind + 1];
+                if (uReal == 0.0 && uImag == 0.0) {
+                    continue;
+                }
+                int src = sol.index(k, 0);
+                for (int offset = 0; offset < width; offset += 2) {
+                    x[dst + offset] -= uReal * x[src + offset] - uImag * x[src + offset + 1];
+                    x[dst + offset + 1] -= uReal * x[src + offset + 1] + uImag * x[src + offset];
+                }
+            }
+            int diag = lu.index(row, row);
+            double denominator = data[diag] * data[diag] + data[diag + 1] * data[diag + 1];
+            double invReal = data[diag] / denominator;
+            double invImag = -data[diag + 1] / denominator;
+            for (int offset = 0; offset < width; offset += 2) {
+                double real = x[dst + offset];
+                double imag = x[dst + offset + 1];
+                x[dst + offset] = real * invReal - imag * invImag;
+                x[dst + offset + 1] = real * invImag + imag * invReal;
+            }
+        }
+        return sol;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void solveInPlace(double[] x) {
+        Matrix rhs = Matrix.createMatrix(size, 1);
+        rhs.data = x;
+        System.arraycopy(solve(rhs).data, 0, x, 0, x.length);
+    }
+
+    /**
+     * Solves A^H * x = b in place, with A^H = U^H * L^H * P: forward substitution with U^H,
+     * back substitution with the unit upper triangular L^H and the row swaps undone in reverse order
+     * @param x the constants b, replaced by the solution (double[] of length 2 * size)
+     */
+    @Override
+    public void solveConjugateTransposeInPlace(double[] x) {
+        if (isSingular) {
+            throw new ArithmeticException("Cannot solve with the factorization of a singular matrix!");
+        }
+        double[] data = lu.data;
+        for (int row = 0; row < size; ++row) {
+            double real = x[2 * row];
+            double imag = x[2 * row + 1];
+            for (int k = 0; k < row; ++k) {
+                int ind = lu.index(k, row);
+                real -= data[ind] * x[2 * k] + data[ind + 1] * x[2 * k + 1];
+                imag -= data[ind] * x[2 * k + 1] - data[ind + 1] * x[2 * k];
+            }
+            int diag = lu.index(row, row);
+            double denominator = data[diag] * data[diag] + data[diag + 1] * data[diag + 1];
+            // Divided by the conjugate of the diagonal element
+            x[2 * row] = (real * data[diag] - imag * data[diag + 1]) / denominator;
+            x[2 * row + 1] = (imag * data[diag] + real * data[diag + 1]) / denominator;
+        }
+        for (int row = size - 1; row >= 0; --row) {
+            double real = x[2 * row];
+            double imag = x[2 * row + 1];
+            for (int k = row + 1; k < size; ++k) {
+                int ind = lu.index(k, row);
+                real -= data[ind] * x[2 * k] + data[ind + 1] * x[2 * k + 1];
+                imag -= data[ind] * x[2 * k + 1] - data[ind + 1] * x[2 * k];
+            }
+            x[2 * row] = real;
+            x[2 * row + 1] = imag;
+        }
+        for (int k = size - 1; k >= 0; --k) {
+            int other = pivots[k];
+            if (other != k) {
+                double real = x[2 * k];
+                double imag = x[2 * k + 1];
+                x[2 * k] = x[2 * other];
+                x[2 * k + 1] = x[2 * other + 1];
+                x[2 * other] = real;
+                x[2 * other + 1] = imag;
+            }
+        }
+    }
+}
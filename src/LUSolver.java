@@ -0,0 +1,135 @@
+package solver;
+
+class LUSolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem and solves the system through an LU
+    factorization of the coefficient matrix with partial pivoting.
+    The factorization is done once and kept, so further vectors of constants
+    can be solved against the same coefficients with only forward and back substitution.
+    The vector of constants may have several columns, which are all solved in one pass
+    With a 'FactorizationCache', the factorization is also shared with other solvers of the same coefficients
+     */
+    LUFactorization factorization; // the factorization of 'coeffMat'; null until solve() is called
+    Matrix solMat; // the solutions, one column per column of 'constMat'
+    private FactorizationCache cache; // null if factorizations are not cached
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the constants in the linear equation system, one column per system ('Matrix' class)
+     */
+    LUSolver(Matrix coeffMat, Matrix constMat) {
+        this.coeffMat = coeffMat;
+        this.constMat = constMat;
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[coeffMat.cols];
+    }
+
+    void setCache(FactorizationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Factors the coefficient matrix if it has not been factored yet (or takes its factorization from the cache)
+     * @return the factorization of the coefficient matrix ('LUFactorization')
+     */
+    LUFactorization getFactorization() {
+        if (factorization == null) {
+            factorization = (cache == null) ? factor() : cache.get(factorizationKind(), coeffMat, this::factor);
+        }
+        return factorization;
+    }
+
+    /**
+     * Names how factor() factors the matrix, so factorizations that may round differently are cached apart
+     * @return the name of the kind of factorization (String)
+     */
+    String factorizationKind() {
+        return "lu";
+    }
+
+    /**
+     * Does the actual factorization of the coefficient matrix
+     * Subclasses can override this to factor it differently
+     * @return the factorization of the coefficient matrix ('LUFactorization')
+     */
+    LUFactorization factor() {
+        return LUFactorization.factor(coeffMat);
+    }
+
+    @Override
+    void solve() {
+        // A non-square system can't be factored, so let the Gauss-Jordan elimination work out if it has solutions
+        if (coeffMat.rows != coeffMat.cols || getFactorization().isSingular) {
+            classifyWithoutUniqueSolution();
+            return;
+        }
+        solMat = factorization.solve(constMat);
+        for (int col = 0; col < solArr.length; ++col) {
+            solArr[col] = solMat.get(col, 0);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        return (factorization != null && !factorization.isSingular) ? factorization : null;
+    }
+
+    /**
+     * Solves the system again for a new set of constants, reusing the factorization
+     * @param newConstMat the new constants, one column per system ('Matrix' class)
+     * @return the solutions, one column per column of 'newConstMat' ('Matrix' class)
+     */
+    Matrix solve(Matrix newConstMat) {
+        this.constMat = newConstMat;
+        solve();
+        return solMat;
+    }
+
+    /**
+     * Used when the coefficient matrix is singular or not square, so it can't be factored.
+     * Each column of constants is then solved with Gauss-Jordan elimination instead, which tells
+     * if it has no solutions, infinitely many or (for an overdetermined system) an unique one.
+     * The system is reported as having no solutions if any column has none, and as having
+     * infinitely many if any other column has infinitely many
+     */
+    private void classifyWithoutUniqueSolution() {
+        solMat = Matrix.createMatrix(coeffMat.cols, constMat.cols);
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+        for (int col = 0; col < constMat.cols; ++col) {
+            Matrix colMat = Matrix.createMatrix(constMat.rows, 1);
+            for (int row = 0; row < constMat.rows; ++row) {
+                colMat.set(row, 0, constMat.getReal(row, col), constMat.getImag(row, col));
+            }
+            LinearSystem colSys = LinearSystem.create(coeffMat, colMat);
+            colSys.setStepListener(stepListener);
+            colSys.solve();
+            if (colSys.hasNoSolutions) {
+                hasNoSolutions = true;
+            } else if (colSys.hasInfiniteSolutions) {
+                hasInfiniteSolutions = true;
+            } else {
+                for (int row = 0; row < solMat.rows; ++row) {
+                    solMat.set(row, col, colSys.solArr[row]);
+                }
+            }
+        }
+        if (hasNoSolutions) {
+            hasInfiniteSolutions = false;
+        }
+        hasUniqueSolution = !hasNoSolutions && !hasInfiniteSolutions;
+        if (hasUniqueSolution) {
+            for (int row = 0; row < solArr.length; ++row) {
+                solArr[row] = solMat.get(row, 0);
+            }
+        } else {
+            solMat = null;
+        }
+    }
+}
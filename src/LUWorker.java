@@ -0,0 +1,341 @@
+package solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+class LUWorker {
+    /*
+    Class for a worker of the distributed LU factorization ('DistributedLUSolver'), which holds
+    its blocks of the matrix in a 2D block-cyclic layout ('BlockCyclicLayout') and does the
+    updates of the trailing matrix on them. It waits for a coordinator to connect and then
+    runs its commands until it finishes, one coordinator at a time, until the JVM exits.
+    Workers only talk to the coordinator, which relays the pivots and the panels between them.
+    Each command is an int followed by its arguments; all values are doubles (the real and
+    imaginary parts of each element), big-endian, and only some commands are replied to:
+        INIT        the place of the worker in the grid and the sizes; replied with an error
+                    message, empty if the blocks were allocated
+        SET_ROW     a row of the matrix, for the columns the worker holds
+        GET_PANEL   the columns of a panel from its first row down, for the rows the worker holds
+        GET_ROWS    some rows of the matrix from a column on
+        UPDATE      the rows swapped by a factored panel, the panel's rows of U, its multipliers
+                    and the rows of U to its right, to update the trailing matrix with; replied
+                    with the next panel by the workers holding it
+        GET_DIAGONAL the diagonal blocks of U and the column of constants held
+        BACK_SUBSTITUTE a part of the solution, replied with the products of the rows above it in
+                    U with it
+        FINISH      replied with the time spent computing and the rest of the time, in nanoseconds
+    The matrix holds the constants as its last column, so the factorization also does the
+    forward substitution
+     */
+    static final int INIT = 1;
+    static final int SET_ROW = 2;
+    static final int GET_PANEL = 3;
+    static final int GET_ROWS = 4;
+    static final int UPDATE = 5;
+    static final int GET_DIAGONAL = 6;
+    static final int BACK_SUBSTITUTE = 7;
+    static final int FINISH = 8;
+
+    private BlockCyclicLayout layout;
+    private int procRow;
+    private int procCol;
+    private int numRows; // # of rows of the matrix (the # of variables)
+    private int numCols; // # of columns of the matrix, with the one of constants
+    private int numLocalRows;
+    private int numLocalCols;
+    private double[] data; // the blocks held, as a matrix of the local rows and columns (interleaved real and imaginary parts)
+    private long computeNanos;
+
+    /**
+     * Waits for coordinators on an address and runs their commands, one coordinator at a time; never returns
+     * @param address the address to listen on ('InetSocketAddress')
+     * @throws IOException if the address can't be listened on
+     */
+    void serve(InetSocketAddress address) throws IOException {
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(address);
+            System.out.printf("Worker listening on %s:%d\n", server.getInetAddress().getHostAddress(), server.getLocalPort());
+            while (true) {
+                try (Connection conn = new Connection(server.accept())) {
+                    run(conn);
+                } catch (EOFException e) {
+                    System.out.println("The coordinator disconnected");
+                } catch (IOException | RuntimeException e) {
+                    System.out.printf("Solve aborted: %s\n", e);
+                }
+                data = null;
+            }
+        }
+    }
+
+    /**
+     * Runs the commands of a coordinator until it finishes
+     * @param conn the connection to the coordinator ('Connection')
+     * @throws IOException if the connection fails
+     */
+    private void run(Connection conn) throws IOException {
+        long start = System.nanoTime();
+        computeNanos = 0;
+        while (true) {
+            int command = conn.in.readInt();
+            switch (command) {
+                case INIT:
+                    init(conn);
+                    break;
+                case SET_ROW:
+                    setRow(conn);
+                    break;
+                case GET_PANEL:
+                    getPanel(conn);
+                    break;
+                case GET_ROWS:
+                    getRows(conn);
+                    break;
+                case UPDATE:
+                    update(conn);
+                    break;
+                case GET_DIAGONAL:
+                    getDiagonal(conn);
+                    break;
+                case BACK_SUBSTITUTE:
+                    backSubstitute(conn);
+                    break;
+                case FINISH:
+                    conn.out.writeLong(computeNanos);
+                    conn.out.writeLong(System.nanoTime() - start - computeNanos);
+                    conn.out.flush();
+                    return;
+                default:
+                    throw new IOException(String.format("Unknown command: %d", command));
+            }
+        }
+    }
+
+    private void init(Connection conn) throws IOException {
+        procRow = conn.in.readInt();
+        procCol = conn.in.readInt();
+        int numProcRows = conn.in.readInt();
+        int numProcCols = conn.in.readInt();
+        int blockSize = conn.in.readInt();
+        numRows = conn.in.readInt();
+        numCols = conn.in.readInt();
+        String error = "";
+        try {
+            layout = new BlockCyclicLayout(blockSize, numProcRows, numProcCols);
+            numLocalRows = layout.numRowsBefore(numRows, procRow);
+            numLocalCols = layout.numColsBefore(numCols, procCol);
+            long length = 2L * numLocalRows * numLocalCols;
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException(String.format("%dx%d blocks are too many for one worker", numLocalRows, numLocalCols));
+            }
+            data = new double[(int) length];
+        } catch (IllegalArgumentException | OutOfMemoryError e) {
+            error = (e.getMessage() != null) ? e.getMessage() : e.toString();
+        }
+        conn.out.writeUTF(error);
+        conn.out.flush();
+    }
+
+    private void setRow(Connection conn) throws IOException {
+        int row = conn.in.readInt();
+        conn.readDoubles(data, 2 * layout.localRow(row) * numLocalCols, 2 * numLocalCols);
+    }
+
+    private void getPanel(Connection conn) throws IOException {
+        int start = conn.in.readInt();
+        int width = conn.in.readInt();
+        int localCol = layout.localCol(start);
+        for (int localRow = layout.numRowsBefore(start, procRow); localRow < numLocalRows; ++localRow) {
+            conn.writeDoubles(data, 2 * (localRow * numLocalCols + localCol), 2 * width);
+        }
+        conn.out.flush();
+    }
+
+    private void getRows(Connection conn) throws IOException {
+        int fromCol = conn.in.readInt();
+        int numRowsAsked = conn.in.readInt();
+        int firstLocalCol = layout.numColsBefore(fromCol, procCol);
+        for (int ind = 0; ind < numRowsAsked; ++ind) {
+            int row = conn.in.readInt();
+            if (layout.rowOwner(row) == procRow) {
+                conn.writeDoubles(data, 2 * (layout.localRow(row) * numLocalCols + firstLocalCol), 2 * (numLocalCols - firstLocalCol));
+            }
+        }
+        conn.out.flush();
+    }
+
+    /**
+     * Takes the rows swapped by a factored panel and the panel's multipliers and rows of U, and
+     * subtracts L21 * U12 from the trailing matrix, where L21 are the multipliers of the rows
+     * after the panel and U12 the rows of U of the panel, right of it
+     */
+    private void update(Connection conn) throws IOException {
+        int start = conn.in.readInt();
+        int width = conn.in.readInt();
+        int end = start + width;
+        int firstLocalRow = layout.numRowsBefore(end, procRow);
+        int firstLocalCol = layout.numColsBefore(end, procCol);
+        int numTrailingCols = numLocalCols - firstLocalCol;
+        // The rows swapped, with the rows of the panel already replaced by U12
+        int numSwapped = conn.in.readInt();
+        for (int ind = 0; ind < numSwapped; ++ind) {
+            int row = conn.in.readInt();
+            conn.readDoubles(data, 2 * (layout.localRow(row) * numLocalCols + firstLocalCol), 2 * numTrailingCols);
+        }
+        // The diagonal block of the factored panel, if held here
+        if (conn.in.readBoolean()) {
+            int firstRow = layout.localRow(start);
+            int localCol = layout.localCol(start);
+            for (int offset = 0; offset < width; ++offset) {
+                conn.readDoubles(data, 2 * ((firstRow + offset) * numLocalCols + localCol), 2 * width);
+            }
+        }
+        if (numTrailingCols > 0 && firstLocalRow < numLocalRows) {
+            double[] multipliers = new double[2 * width * (numLocalRows - firstLocalRow)];
+            conn.readDoubles(multipliers, 0, multipliers.length);
+            double[] upper = new double[2 * width * numTrailingCols];
+            conn.readDoubles(upper, 0, upper.length);
+            long computeStart = System.nanoTime();
+            RowKernels kernels = RowKernels.getCurrent();
+            for (int localRow = firstLocalRow; localRow < numLocalRows; ++localRow) {
+                int rowStart = 2 * (localRow * numLocalCols + firstLocalCol);
+                int multStart = 2 * width * (localRow - firstLocalRow);
+                for (int k = 0; k < width; ++k) {
+                    double lReal = multipliers[multStart + 2 * k];
+                    double lImag = multipliers[multStart + 2 * k + 1];
+                    if (lReal != 0.0 || lImag != 0.0) {
+                        kernels.addScaled(data, rowStart, upper, 2 * k * numTrailingCols, numTrailingCols, -lReal, -lImag);
+                    }
+                }
+            }
+            computeNanos += System.nanoTime() - computeStart;
+        }
+        // The workers holding the next panel send it, as updated
+        if (end < numRows && layout.colOwner(end) == procCol) {
+            int nextWidth = Math.min(layout.blockSize, numRows - end);
+            int localCol = layout.localCol(end);
+            for (int localRow = firstLocalRow; localRow < numLocalRows; ++localRow) {
+                conn.writeDoubles(data, 2 * (localRow * numLocalCols + localCol), 2 * nextWidth);
+            }
+            conn.out.flush();
+        }
+    }
+
+    private void getDiagonal(Connection conn) throws IOException {
+        for (int start = 0; start < numRows; start += layout.blockSize) {
+            if (layout.rowOwner(start) == procRow && layout.colOwner(start) == procCol) {
+                int width = Math.min(layout.blockSize, numRows - start);
+                int firstRow = layout.localRow(start);
+                int localCol = layout.localCol(start);
+                for (int offset = 0; offset < width; ++offset) {
+                    conn.writeDoubles(data, 2 * ((firstRow + offset) * numLocalCols + localCol), 2 * width);
+                }
+            }
+        }
+        // The constants, which the factorization turned into those of the upper triangular system
+        if (layout.colOwner(numRows) == procCol) {
+            int localCol = layout.localCol(numRows);
+            for (int localRow = 0; localRow < numLocalRows; ++localRow) {
+                conn.writeDoubles(data, 2 * (localRow * numLocalCols + localCol), 2);
+            }
+        }
+        conn.out.flush();
+    }
+
+    private void backSubstitute(Connection conn) throws IOException {
+        int start = conn.in.readInt();
+        int width = conn.in.readInt();
+        double[] x = new double[2 * width];
+        conn.readDoubles(x, 0, x.length);
+        long computeStart = System.nanoTime();
+        int numAbove = layout.numRowsBefore(start, procRow);
+        int localCol = layout.localCol(start);
+        double[] products = new double[2 * numAbove];
+        for (int localRow = 0; localRow < numAbove; ++localRow) {
+            int rowStart = 2 * (localRow * numLocalCols + localCol);
+            double real = 0.0;
+            double imag = 0.0;
+            for (int k = 0; k < width; ++k) {
+                double uReal = data[rowStart + 2 * k];
+                double uImag = data[rowStart + 2 * k + 1];
+                real += uReal * x[2 * k] - uImag * x[2 * k + 1];
+                imag += uReal * x[2 * k + 1] + uImag * x[2 * k];
+            }
+            products[2 * localRow] = real;
+            products[2 * localRow + 1] = imag;
+        }
+        computeNanos += System.nanoTime() - computeStart;
+        conn.writeDoubles(products, 0, products.length);
+        conn.out.flush();
+    }
+
+    /**
+     * Connection between the coordinator and a worker, with buffered streams and
+     * the copying of arrays of doubles to and from them in bulk
+     */
+    static class Connection implements Closeable {
+        private static final int BUFFER_SIZE = 1 << 16;
+        final DataInputStream in;
+        final DataOutputStream out;
+        private final Socket socket;
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        }
+
+        /**
+         * Reads doubles into an array
+         * @param dest the array (double[])
+         * @param from the index of the first double to read (int)
+         * @param count # of doubles (int)
+         * @throws IOException if the connection fails
+         */
+        void readDoubles(double[] dest, int from, int count) throws IOException {
+            int done = 0;
+            while (done < count) {
+                int chunk = Math.min(count - done, BUFFER_SIZE / Double.BYTES);
+                in.readFully(bytes, 0, chunk * Double.BYTES);
+                buffer.clear();
+                buffer.asDoubleBuffer().get(dest, from + done, chunk);
+                done += chunk;
+            }
+        }
+
+        /**
+         * Writes doubles from an array; they are only sent when the stream is flushed or its buffer is full
+         * @param src the array (double[])
+         * @param from the index of the first double to write (int)
+         * @param count # of doubles (int)
+         * @throws IOException if the connection fails
+         */
+        void writeDoubles(double[] src, int from, int count) throws IOException {
+            int done = 0;
+            while (done < count) {
+                int chunk = Math.min(count - done, BUFFER_SIZE / Double.BYTES);
+                buffer.clear();
+                buffer.asDoubleBuffer().put(src, from + done, chunk);
+                out.write(bytes, 0, chunk * Double.BYTES);
+                done += chunk;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package solver;
+
+interface LinearOperator {
+    /*
+    Interface for square matrices that can be multiplied with a vector,
+    which is all the iterative solvers need from the matrix of coefficients.
+    Vectors are stored with the real and imaginary parts interleaved, like in 'Matrix'
+     */
+
+    /**
+     * Returns the # of rows (and columns) of the operator
+     * @return the size of the operator (int)
+     */
+    int size();
+
+    /**
+     * Computes y = A * x
+     * @param x the vector to multiply (double[] of length 2 * size())
+     * @param y the vector to store the product in (double[] of length 2 * size())
+     */
+    void multiply(double[] x, double[] y);
+}
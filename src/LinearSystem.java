@@ -1,7 +1,5 @@
 package solver;
 
-import java.util.Arrays;
-
 abstract class LinearSystem {
 
     static final Complex ONE = Complex.valueOf(1.0, 0.0);
@@ -12,301 +10,255 @@ abstract class LinearSystem {
     Matrix coeffMat;
     Matrix constMat;
     Complex[] solArr;
+    StepListener stepListener = StepListener.NONE; // told about each step of the elimination, if the solver does one
+    SolverStats stats = SolverStats.NONE; // times the phases of the elimination, if the solver does one
+    boolean isAssessingAccuracy; // whether solve() keeps what assessAccuracy() needs from the factorization
+    double conditionEstimate = Double.NaN; // estimate of the condition number of 'coeffMat' in the 1-norm; NaN if not estimated
+    double residual = Double.NaN; // ||b - A * x||_inf for the unique solution; NaN if not computed
+    double backwardError = Double.NaN; // ||b - A * x||_inf / (||A||_inf * ||x||_inf + ||b||_inf); NaN if not computed
 
     /**
      * Solve the linear system of equations represented by
      * the coefficient matrix ('coeffMat') and the vector of constants ('constMat')
      */
     abstract void solve();
-}
 
-class GaussJordSolver extends LinearSystem {
-    /*
-    Class that extends LinearSystem and uses Gaussian-Jordan elimination
-    to solve a linear system of equation
+    void setStepListener(StepListener stepListener) {
+        this.stepListener = stepListener;
+    }
+
+    void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    void setAssessingAccuracy(boolean isAssessingAccuracy) {
+        this.isAssessingAccuracy = isAssessingAccuracy;
+    }
+
+    /**
+     * Returns the inverse of 'coeffMat' through the factorization of the last solve, to estimate its condition number with
+     * Solvers that keep a factorization override this
+     * @return the inverse ('ConditionEstimator.Inverse'); null if there is none
      */
+    ConditionEstimator.Inverse getInverse() {
+        return null;
+    }
 
     /**
-     * Constructor for the class
-     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
-     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     * Returns the coefficients in the sparse format, for the solvers that leave 'coeffMat' null
+     * Solvers that keep a 'SparseMatrix' override this
+     * @return the sparse matrix of coefficients ('SparseMatrix'); null if there is none
      */
-    GaussJordSolver(Matrix coeffMat, Matrix constMat) {
-        this.coeffMat = coeffMat;
-        this.constMat = constMat;
-        this.hasInfiniteSolutions = false;
-        this.hasUniqueSolution = false;
-        this.hasNoSolutions = false;
-        this.solArr = new Complex[coeffMat.cols];
+    SparseMatrix getSparseCoeffMat() {
+        return null;
     }
 
     /**
-     * Performs the elementary scaling of a matrix's row
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param row the row of the matrix to operate on (int)
-     * @param scaleFactor the factor by which to scale the row ('Complex')
+     * After solve(), computes the residual and the normwise backward error of the unique solution
+     * against the original coefficients ('coeffMat', or the sparse matrix of the solvers that have
+     * one instead) and (first column of) 'constMat', and estimates the condition number of the
+     * coefficients from the factorization if the solver has one, all in O(n^2) (O(nnz) for the
+     * residual of a sparse matrix).
+     * The backward error is the smallest relative change of A and b of which the solution is the
+     * exact solution; the relative error of the solution is at most about it times the condition number
      */
-    private static void scaleRow(Matrix mat, int row, Complex scaleFactor) {
-        // If an invalid row number is given, throw an exception
-        if (row >= mat.rows) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d with a matrix of %d rows", row, mat.rows));
+    void assessAccuracy() {
+        SparseMatrix sparseCoeffMat = (coeffMat == null) ? getSparseCoeffMat() : null;
+        if (!hasUniqueSolution || (coeffMat == null && sparseCoeffMat == null)) {
+            return;
         }
-        for (int elem = 0; elem < mat.cols; ++elem) {
-            mat.data[row][elem] = mat.data[row][elem].multiply(scaleFactor);
+        int rows = (coeffMat != null) ? coeffMat.rows : sparseCoeffMat.rows;
+        double[] r = new double[2 * rows];
+        if (coeffMat != null) {
+            for (int row = 0; row < coeffMat.rows; ++row) {
+                int start = coeffMat.index(row, 0);
+                double real = constMat.getReal(row, 0);
+                double imag = constMat.getImag(row, 0);
+                for (int col = 0; col < coeffMat.cols; ++col) {
+                    double aReal = coeffMat.data[start + 2 * col];
+                    double aImag = coeffMat.data[start + 2 * col + 1];
+                    double xReal = solArr[col].getReal();
+                    double xImag = solArr[col].getImag();
+                    real -= aReal * xReal - aImag * xImag;
+                    imag -= aReal * xImag + aImag * xReal;
+                }
+                r[2 * row] = real;
+                r[2 * row + 1] = imag;
+            }
+            setResidual(r, ConditionEstimator.normInf(coeffMat));
+        } else {
+            double[] x = new double[2 * solArr.length];
+            for (int col = 0; col < solArr.length; ++col) {
+                x[2 * col] = solArr[col].getReal();
+                x[2 * col + 1] = solArr[col].getImag();
+            }
+            sparseCoeffMat.multiply(x, r);
+            for (int row = 0; row < rows; ++row) {
+                r[2 * row] = constMat.getReal(row, 0) - r[2 * row];
+                r[2 * row + 1] = constMat.getImag(row, 0) - r[2 * row + 1];
+            }
+            setResidual(r, ConditionEstimator.normInf(sparseCoeffMat));
+        }
+        ConditionEstimator.Inverse inverse = getInverse();
+        if (inverse != null && coeffMat != null && coeffMat.rows == coeffMat.cols) {
+            conditionEstimate = ConditionEstimator.estimate(coeffMat, inverse);
+        } else if (inverse != null && sparseCoeffMat != null && sparseCoeffMat.rows == sparseCoeffMat.cols) {
+            conditionEstimate = ConditionEstimator.estimate(sparseCoeffMat, inverse);
         }
     }
 
     /**
-     * Performs the elemantary swapping of rows of a matrix
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param row1 the first row to swap (int)
-     * @param row2 the second row to swap (int)
+     * Sets 'residual' and 'backwardError' from the residual of the unique solution
+     * @param r the residual b - A * x, with interleaved real and imaginary parts (double[])
+     * @param coeffNormInf ||A||_inf (double)
      */
-    private static void swapRows(Matrix mat, int row1, int row2) {
-        // If an invalid row number is given, throw an exception
-        if (row1 >= mat.rows || row2 >= mat.rows) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on rows %d and %d with a matrix of %d rows", row1, row2, mat.rows));
+    void setResidual(double[] r, double coeffNormInf) {
+        double residualNorm = 0.0;
+        for (int ind = 0; ind < r.length; ind += 2) {
+            residualNorm = Math.max(residualNorm, Math.hypot(r[ind], r[ind + 1]));
+        }
+        double constNorm = 0.0;
+        for (int row = 0; row < constMat.rows; ++row) {
+            constNorm = Math.max(constNorm, Math.hypot(constMat.getReal(row, 0), constMat.getImag(row, 0)));
+        }
+        double solNorm = 0.0;
+        for (Complex value : solArr) {
+            solNorm = Math.max(solNorm, Math.hypot(value.getReal(), value.getImag()));
         }
-        Complex[] tempStore = mat.data[row1];
-        mat.data[row1] = mat.data[row2];
-        mat.data[row2] = tempStore;
+        residual = residualNorm;
+        double scale = coeffNormInf * solNorm + constNorm;
+        backwardError = (scale == 0.0) ? 0.0 : residualNorm / scale;
     }
 
     /**
-     * Performs the elementary swapping of columns of a matrix
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param col1 the first column to swap (int)
-     * @param col2 the second column to swap (int)
+     * Status of a system after solve(), as reported for each system by the batch and server modes
      */
-    private static void swapCols(Matrix mat, int col1, int col2) {
-        // If an invalid column number is given, throw an exception
-        if (col1 >= mat.cols || col2 >= mat.cols) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on columns %d and %d with a matrix of %d columns", col1, col2, mat.cols));
-        }
-        for (int row = 0; row < mat.rows; ++row) {
-            Complex temp = mat.data[row][col1];
-            mat.data[row][col1] = mat.data[row][col2];
-            mat.data[row][col2] = temp;
+    enum Status {
+        UNIQUE("unique"), INFINITE("infinite"), NONE("none"), NOT_CONVERGED("not-converged"), ERROR("error");
+
+        final String name;
+
+        Status(String name) {
+            this.name = name;
         }
     }
 
     /**
-     * Performs the addition of a scaled row to another row
-     * Here we do row1 <- row1 + (scaleFactor * row2)
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param row1 the row to add to (int)
-     * @param row2 the row being added (int)
-     * @param scaleFactor the factor by which to scale row2 before addition. (Does not affect row2) ('Complex')
+     * Returns the status of the system from its solution flags
+     * @return the status ('Status'); ERROR if none of the flags is set
      */
-    private static void addScaledRowToRow(Matrix mat, int row1, int row2, Complex scaleFactor) {
-        // If an invalid row number is given, throw an exception
-        if (row1 >= mat.rows || row2 >= mat.rows) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on rows %d and %d with a matrix of %d rows", row1, row2, mat.rows));
-        }
-        for (int elem = 0; elem < mat.cols; ++elem) {
-            mat.data[row1][elem] = mat.data[row1][elem].add(mat.data[row2][elem].multiply(scaleFactor));
+    Status getStatus() {
+        if (hasUniqueSolution) {
+            return Status.UNIQUE;
+        } else if (hasInfiniteSolutions) {
+            return Status.INFINITE;
+        } else if (hasNoSolutions) {
+            return Status.NONE;
         }
+        return Status.ERROR;
     }
 
     /**
-     * Finds the first non-zero element in the matrix given a row and column
-     * It first checks non-zero elements in the same column below the row specified
-     * Then it checks towards right of the element in the row specified
-     * If still not found, it proceeds to the diagonally next element
-     * And repeats the above steps till it is found or not
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param row the starting row to search from (int)
-     * @param col the starting column to search from (int)
-     * @return the index as an int[] of the first non-zero element starting from MAT(row, col)
-     * and proceeding bottom right.
+     * Creates the solver to use for the linear system given
+     * If no coefficient or constant has an imaginary part, the real-valued
+     * solver is used so that the elimination only does real arithmetic
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     * @return the solver for the system ('LinearSystem')
      */
-    private int[] findNonZeroElem(Matrix mat, int row, int col) {
-        // If an invalid row number is given, throw an exception
-        if (row >= mat.rows || col >= mat.cols) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d and column %d with a matrix %dx%d", row, col, mat.rows, mat.cols));
+    static LinearSystem create(Matrix coeffMat, Matrix constMat) {
+        if (coeffMat.isReal() && constMat.isReal()) {
+            return new RealGaussJordSolver(coeffMat, constMat);
         }
-        boolean isFound = false;
-        int[] inds = null;
-        while (row < mat.rows && col < mat.cols && !isFound) {
-            // Adding 'row' as argument to ensure that we always search below the element
-            // So it is used as an offset basically
-            int rowInd = findNonZeroElemInCol(mat, col, row);
-            if (rowInd == -1) {
-                // Adding 'col' as argument to ensure that we always search to the right of the element
-                // So it is used as an offset basically
-                int colInd = findNonZeroElemInRow(mat, row, col);
-                // 'colInd == mat.cols - 1' ensures that we're not using the
-                // column of the constant vector in the augmented matrix
-                if (colInd == -1 || colInd == mat.cols - 1) {
-                    ++row;
-                    ++col;
-                } else {
-                    inds = new int[]{row, colInd};
-                    isFound = true;
-                }
-            } else {
-                inds = new int[]{rowInd, col};
-                isFound = true;
-            }
-        }
-        return inds;
+        return new GaussJordSolver(coeffMat, constMat);
     }
 
     /**
-     * Finds the first non-zero element in the row specified
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param row the row of the matrix to search for (int)
-     * @return the index (int) of the first non-zero element
+     * Creates the solver to use for the linear system given, by the name of the method
+     * "gauss" is the Gauss-Jordan elimination (picking the real-valued solver when possible)
+     * "lu" is the LU factorization, which can also solve several columns of constants at once
+     * "blocked" is the same LU factorization done a block of columns at a time, for large dense systems
+     * "mixed" is the LU factorization in single precision, refined to double precision (see 'MixedPrecisionLUSolver')
+     * "cholesky" is the Cholesky factorization for Hermitian positive definite systems (see 'CholeskySolver')
+     * "banded" only stores and factors the band of non-zero coefficients around the diagonal (see 'BandedSolver')
+     * "sparse" is the sparse LU factorization, on the non-zero coefficients of the matrix (see 'SparseLUSolver')
+     * "cg", "bicgstab" and "gmres" are the iterative solvers (see 'IterativeSolver')
+     * @param method the name of the method to solve the system with (String)
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the constants in the linear equation system ('Matrix' class)
+     * @return the solver for the system ('LinearSystem')
      */
-    private int findNonZeroElemInRow(Matrix mat, int row, int colOffset) {
-        // If an invalid row number is given, throw an exception
-        if (row >= mat.rows || colOffset >= mat.cols) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d and column %d with a matrix of %d x %d", row, colOffset, mat.rows, mat.cols));
-        }
-        for (int col = colOffset; col < mat.cols; ++col) {
-            // using this criteria to determine if an element is zero or not due to rounding errors
-            // that can cause a number not to be zero exactly and thus give a false positive
-            if (!mat.data[row][col].isZero()) {
-                return col;
-            }
+    static LinearSystem create(String method, Matrix coeffMat, Matrix constMat) {
+        switch (method) {
+            case "gauss":
+                if (constMat.cols > 1) {
+                    throw new IllegalArgumentException("Multiple columns of constants can only be solved with the lu solver!");
+                }
+                return create(coeffMat, constMat);
+            case "lu":
+                return new LUSolver(coeffMat, constMat);
+            case "blocked":
+                return new BlockedLUSolver(coeffMat, constMat);
+            case "banded":
+                return new BandedSolver(coeffMat, constMat);
+            case "cholesky":
+                return new CholeskySolver(coeffMat, constMat);
+            case "mixed":
+                return new MixedPrecisionLUSolver(coeffMat, constMat);
+            case "sparse":
+                return create(method, SparseMatrix.createMatrix(coeffMat), constMat);
+            case "cg":
+            case "bicgstab":
+            case "gmres":
+                return createIterative(method, coeffMat, constMat);
+            default:
+                throw new IllegalArgumentException(String.format("Unknown solver: %s", method));
         }
-        return -1;
     }
 
     /**
-     * Finds the first non-zero element in the column specified
-     * @param mat the matrix to operate on ('Matrix' class)
-     * @param col the column of the matrix to search for (int)
-     * @return the index (int) of the first non-zero element
+     * Creates the solver to use for a linear system with a sparse matrix of coefficients
+     * "sparse" is the sparse LU factorization, and "banded" and the iterative solvers work on the sparse matrix directly;
+     * any other method works on the dense matrix
+     * @param method the name of the method to solve the system with (String)
+     * @param coeffMat the sparse matrix of coefficients in the linear equation system ('SparseMatrix' class)
+     * @param constMat the constants in the linear equation system ('Matrix' class)
+     * @return the solver for the system ('LinearSystem')
      */
-    private int findNonZeroElemInCol(Matrix mat, int col, int rowOffset) {
-        // If an invalid row number is given, throw an exception
-        if (col >= mat.cols || rowOffset >= mat.rows) {
-            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d and column %d with a matrix of %d x %d", rowOffset, col, mat.rows, mat.cols));
-        }
-        for (int row = rowOffset; row < mat.rows; ++row) {
-            // using this criteria to determine if an element is zero or not due to rounding errors
-            // that can cause a number not to be zero exactly and thus give a false positive
-            if (!mat.data[row][col].isZero()) {
-                return row;
+    static LinearSystem create(String method, SparseMatrix coeffMat, Matrix constMat) {
+        if ("sparse".equals(method)) {
+            if (constMat.cols > 1) {
+                throw new IllegalArgumentException("Multiple columns of constants can only be solved with the lu solver!");
             }
+            return new SparseLUSolver(coeffMat, constMat);
         }
-        return -1;
-    }
-
-    @Override
-    void solve() {
-
-        // Create the system matrix (augmented matrix)
-        Matrix sysMat = Matrix.createMatrix(coeffMat.rows, coeffMat.cols + 1);
-        for (int row = 0; row < sysMat.rows; ++row) {
-            System.arraycopy(coeffMat.data[row], 0, sysMat.data[row], 0, coeffMat.cols);
-            sysMat.data[row][sysMat.cols - 1] = constMat.data[row][0];
+        if ("banded".equals(method)) {
+            return new BandedSolver(coeffMat, constMat);
         }
-        System.out.println(sysMat);
-
-        // Create an array to keep track of column swaps
-        // The array has a size equal to the # of columns in the coefficient matrix
-        // When two columns C1 & C2 are swapped, we track it like colSwapHistory[max(C1, C2)] = min(C1, C2)
-        // Then when we have to undo the swaps, we traverse from the end of array and unswap the columns
-        // This works because column swapping is only done between columns to the right of a particular element
-        // So when we traverse from the end, we are undoing the latest swaps to the earliest ones
-        int[] colSwapHistory = new int[coeffMat.cols];
-        Arrays.fill(colSwapHistory, -1);
-
-        for (int row = 0; row < Math.min(coeffMat.cols, coeffMat.rows); ++row) {
-            // inds[0], inds[1] -> row #, col # of first non-zero element
-            int[] inds = findNonZeroElem(sysMat, row, row);
-            // If inds is null, it means we couldn't find a non-zero element and can quit this stage of the algo
-            if (inds == null) {
-                break;
-            }
-            // If non-zero element was found in a different row, swap the rows
-            if (inds[0] != row) {
-                swapRows(sysMat, inds[0], row);
-                System.out.printf("R%d <-> R%d\n", row + 1, inds[0] + 1);
-            }
-            // If non-zero element was found in a different column, swap the columns
-            if (inds[1] != row) {
-                swapCols(sysMat, inds[1], row);
-                System.out.printf("C%d <-> C%d\n", row + 1, inds[1] + 1);
-                colSwapHistory[Math.max(inds[1], row)] = Math.min(inds[1], row); // Look at comment above 'colSwapHistory' declaration for more
-            }
-            // Scale non-zero element to 1; skip if it already is
-            if (!sysMat.data[row][row].equals(ONE)) {
-                Complex scaleFactor = ONE.divide(sysMat.data[row][row]);
-                scaleRow(sysMat, row, scaleFactor);
-                System.out.printf("%s * R%d -> R%d\n", scaleFactor.toString(), row + 1, row + 1);
-            }
-            // Make each element in the same column below the row equal to zero; skip if already is
-            for (int otherRow = row + 1; otherRow < sysMat.rows; ++otherRow) {
-                if (!sysMat.data[otherRow][row].isZero()) {
-                    Complex otherScaleFactor = NEGATIVE_ONE.multiply(sysMat.data[otherRow][row]);
-                    addScaledRowToRow(sysMat, otherRow, row, otherScaleFactor);
-                    System.out.printf("%s * R%d + R%d -> R%d\n", otherScaleFactor.toString(), row + 1, otherRow + 1, otherRow + 1);
-                }
-            }
+        if ("cg".equals(method) || "bicgstab".equals(method) || "gmres".equals(method)) {
+            return createIterative(method, coeffMat, constMat);
         }
-        // Now check for # of significant equations ( == # of rows with non-zero elements
-        int numSignificantVars = coeffMat.cols;
-        int numSignificantEqns = 0;
-        for (int row = 0; row < sysMat.rows; ++row) {
-            int ind = findNonZeroElemInRow(sysMat, row, 0);
+        return create(method, coeffMat.toDense(), constMat);
+    }
 
-            // If we find that a non-zero element only exists in the last column of the
-            // augmented matrix there is a contradiction and the linear system has no solutions
-            if (ind == sysMat.cols - 1) {
-                hasNoSolutions = true;
-                break;
-            // As long as there exists a non-zero element in the row, it is counted towards the # of significant equations
-            } else if (ind != -1) {
-                ++numSignificantEqns;
-            }
+    /**
+     * Creates an iterative solver by the name of the method
+     * @param method "cg", "bicgstab" or "gmres" (String)
+     * @param operator the matrix of coefficients ('Matrix' or 'SparseMatrix')
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     * @return the solver for the system ('IterativeSolver')
+     */
+    private static IterativeSolver createIterative(String method, LinearOperator operator, Matrix constMat) {
+        if (constMat.cols > 1) {
+            throw new IllegalArgumentException("Multiple columns of constants can only be solved with the lu solver!");
         }
-
-        if (hasNoSolutions) {
-            hasInfiniteSolutions = false;
-            hasUniqueSolution = false;
-        // Criteria for infinite solutions is as below
-        } else if (numSignificantEqns < numSignificantVars) {
-            hasInfiniteSolutions = true;
-            hasNoSolutions = false;
-            hasUniqueSolution = false;
-        // Here # of significant equations == # of significant variables
-        // So there is an unique solution
-        } else {
-            // Convert upper triangular matrix to reduced row echelon form
-            for (int row = 0; row < numSignificantEqns; ++row) {
-                for (int col = row + 1; col < sysMat.cols - 1; ++col) {
-                    if (!sysMat.data[row][col].isZero()) {
-                        Complex scaleFactor = NEGATIVE_ONE.multiply(sysMat.data[row][col]);
-                        addScaledRowToRow(sysMat, row, col, scaleFactor);
-                        System.out.printf("%s * R%d -> R%d\n", scaleFactor.toString(), col + 1, row + 1);
-                    }
-                }
-            }
-
-            // Undo the swaps made to the columns so that the right
-            // variables in the system are assigned to the right values
-            for (int col = colSwapHistory.length - 1; col >= 0; --col) {
-                if (colSwapHistory[col] != -1) {
-                    swapCols(sysMat, col, colSwapHistory[col]);
-                }
-            }
-
-            // Now assign the right variable to the right value
-            for (int row = 0; row < numSignificantVars; ++row) {
-                // We can't just start from MAT(0, 0) because the column swapping
-                // might have shifted the position of the 1 (the leading entry)
-                // So we find the position of the 1 and use that to index solArr
-                int ind = findNonZeroElemInRow(sysMat, row, 0);
-                solArr[ind] = sysMat.data[row][sysMat.cols - 1];
-            }
-
-            hasUniqueSolution = true;
-            hasNoSolutions = false;
-            hasInfiniteSolutions = false;
+        switch (method) {
+            case "cg":
+                return new CGSolver(operator, constMat);
+            case "bicgstab":
+                return new BiCGStabSolver(operator, constMat);
+            default:
+                return new GMRESSolver(operator, constMat);
         }
     }
 }
-
@@ -1,103 +1,315 @@
 package solver;
 
 import java.io.*;
-import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
     public static void main(String[] args) throws IOException {
         File inFile = null;
         File outFile = null;
+        SolverOptions options = new SolverOptions();
+        boolean isSparse = false;
+        int numThreads = 0;
+        File batchInput = null;
+        File convertFile = null;
+        String traceName = "human";
+        File traceFile = null;
+        int servePort = -1;
+        int maxBytes = SolveServer.DEFAULT_MAX_BYTES;
+        long cacheMegabytes = 0;
+        long memoryMegabytes = 0;
+        String kernelsName = null;
+        boolean isBinaryOutput = false;
+        boolean printStats = false;
+        File statsFile = null;
+        String workerAddress = null;
 
         for (int ind = 0; ind < args.length; ++ind) {
             if ("-in".equals(args[ind])) {
                 inFile = new File(args[ind + 1]);
             } else if ("-out".equals(args[ind])) {
                 outFile = new File(args[ind + 1]);
+            } else if ("-solver".equals(args[ind])) {
+                options.method = args[ind + 1];
+            } else if ("-threads".equals(args[ind])) {
+                numThreads = Integer.parseInt(args[ind + 1]);
+            } else if ("-format".equals(args[ind])) {
+                isSparse = "sparse".equals(args[ind + 1]);
+            } else if ("-block".equals(args[ind])) {
+                options.blockSize = Integer.parseInt(args[ind + 1]);
+            } else if ("-tol".equals(args[ind])) {
+                options.tolerance = Double.parseDouble(args[ind + 1]);
+            } else if ("-maxiter".equals(args[ind])) {
+                options.maxIterations = Integer.parseInt(args[ind + 1]);
+            } else if ("-restart".equals(args[ind])) {
+                options.restart = Integer.parseInt(args[ind + 1]);
+            } else if ("-precond".equals(args[ind])) {
+                options.precondName = args[ind + 1];
+            } else if ("-convert".equals(args[ind])) {
+                convertFile = new File(args[ind + 1]);
+            } else if ("-trace".equals(args[ind])) {
+                traceName = args[ind + 1];
+            } else if ("-tracefile".equals(args[ind])) {
+                traceFile = new File(args[ind + 1]);
+            } else if ("-batch".equals(args[ind])) {
+                batchInput = new File(args[ind + 1]);
+            } else if ("-serve".equals(args[ind])) {
+                servePort = Integer.parseInt(args[ind + 1]);
+            } else if ("-maxbytes".equals(args[ind])) {
+                maxBytes = Integer.parseInt(args[ind + 1]);
+            } else if ("-cache".equals(args[ind])) {
+                cacheMegabytes = Long.parseLong(args[ind + 1]);
+            } else if ("-outformat".equals(args[ind])) {
+                isBinaryOutput = "binary".equals(args[ind + 1]);
+            } else if ("-kernels".equals(args[ind])) {
+                kernelsName = args[ind + 1];
+            } else if ("-stats".equals(args[ind])) {
+                printStats = true;
+            } else if ("-statsfile".equals(args[ind])) {
+                statsFile = new File(args[ind + 1]);
+            } else if ("-cond".equals(args[ind])) {
+                options.isAssessingAccuracy = true;
+            } else if ("-worker".equals(args[ind])) {
+                workerAddress = args[ind + 1];
+            } else if ("-workers".equals(args[ind])) {
+                options.workers = DistributedLUSolver.parseAddresses(args[ind + 1]);
+            } else if ("-memory".equals(args[ind])) {
+                memoryMegabytes = Long.parseLong(args[ind + 1]);
             }
         }
 
+        if (kernelsName != null) {
+            try {
+                RowKernels.setCurrent(RowKernels.create(kernelsName));
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+        }
+
+        if (cacheMegabytes > 0) {
+            options.cache = new FactorizationCache(cacheMegabytes << 20);
+        }
+
+        if (workerAddress != null) {
+            new LUWorker().serve(DistributedLUSolver.parseAddress(workerAddress));
+            return;
+        }
+
+        if (servePort >= 0) {
+            try {
+                new SolveServer(options, isSparse, numThreads, maxBytes).start(servePort);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+
+        if (batchInput != null) {
+            if (outFile == null) {
+                System.out.println("No output file specified!");
+                return;
+            }
+            new BatchSolver(options, isSparse, numThreads).run(batchInput, outFile);
+            return;
+        }
+
         if (inFile == null) {
             System.out.println("No input file specified!");
             return;
         }
-        if (outFile == null) {
+        if (outFile == null && convertFile == null) {
             System.out.println("No output file specified!");
             return;
         }
 
-        Matrix coeffMat = null;
-        Matrix constMat = null;
-        boolean gotData = false;
+        SystemData system = null;
+        // Too large for the heap: the coefficients go to tiles on disk as they are read
+        OutOfCoreLUSolver outOfCoreSolver = null;
+        // Times each phase of the run; the steps are only counted when the statistics are wanted
+        SolverStats stats = new SolverStats(true);
+        boolean isCountingSteps = printStats || statsFile != null || SolverStats.isRecording();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(inFile))) {
-            try {
-                // size[0], size[1] -> # of variables, # of equations
-                int[] size = Arrays.stream(reader.readLine().split("\\s+")).mapToInt(Integer::parseInt).toArray();
-                int numVars = size[0];
-                int numEqns = size[1];
-                coeffMat = Matrix.createMatrix(numEqns, numVars);
-                constMat = Matrix.createMatrix(numEqns, 1);
-                int row = 0;
-                while (reader.ready()) {
-                    // Friendly note: use the argument in toArray() to cast to a user class array instead of explicit class casting
-                    Complex[] vals = Arrays.stream(reader.readLine().split("\\s+")).map(Complex::parseComplex).toArray(Complex[]::new);
-                    constMat.data[row][0] = vals[numVars];
-                    System.arraycopy(vals, 0, coeffMat.data[row], 0, numVars);
-                    ++row;
+        stats.startPhase("parse");
+        try {
+            if (memoryMegabytes > 0 && convertFile == null) {
+                File tileDir = outFile.getAbsoluteFile().getParentFile();
+                try {
+                    outOfCoreSolver = OutOfCoreLUSolver.create(inFile, isSparse, memoryMegabytes << 20, tileDir);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid data found in input file. Unable to parse!");
+                    System.out.printf("[DETAILS]\n%s", e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+            } else if (BinaryFormat.isBinary(inFile)) {
+                try {
+                    system = BinaryFormat.read(inFile);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+            } else {
+                try (BufferedReader reader = new BufferedReader(new FileReader(inFile))) {
+                    try {
+                        system = InputParser.readSystem(reader, isSparse);
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid data found in input file. Unable to parse!");
+                        System.out.printf("[DETAILS]\n%s", e.getMessage());
+                    } catch (IllegalArgumentException e) {
+                        System.out.println(e.getMessage());
+                    }
                 }
-                gotData = true;
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid data found in input file. Unable to parse!");
-                System.out.printf("[DETAILS]\n%s", e.getMessage());
-            } catch (IllegalArgumentException e) {
-                System.out.println(e.getMessage());
             }
         } catch (FileNotFoundException e) {
             System.out.printf("Could not find input file: %s", inFile.getAbsolutePath());
         } catch (IOException e) {
             e.printStackTrace();
         }
+        stats.endPhase();
+
+        if (system == null && outOfCoreSolver == null) {
+            return;
+        }
+        if (convertFile != null) {
+            if (system.isSparse()) {
+                BinaryFormat.write(convertFile, system.sparseCoeffMat, system.constMat);
+            } else {
+                BinaryFormat.write(convertFile, system.coeffMat, system.constMat);
+            }
+            System.out.printf("Converted to %s\n", convertFile.getName());
+            return;
+        }
 
-        if (!gotData) {
+        // The steps are printed through a buffer, to the console unless a file is given
+        PrintWriter traceSink = (traceFile == null)
+                ? new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)))
+                : new PrintWriter(new BufferedWriter(new FileWriter(traceFile)));
+        LinearSystem linSys;
+        try {
+            linSys = (outOfCoreSolver != null) ? outOfCoreSolver : options.createSolver(system);
+            linSys.setStepListener(StepListener.both(StepListener.create(traceName, traceSink), isCountingSteps ? stats : StepListener.NONE));
+            linSys.setStats(stats);
+            linSys.setAssessingAccuracy(options.isAssessingAccuracy);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
             return;
         }
 
+        ForkJoinPool pool = null;
+        if (numThreads > 1 && linSys instanceof GaussJordSolver) {
+            pool = new ForkJoinPool(numThreads);
+            ((GaussJordSolver) linSys).setPool(pool);
+        }
+
         System.out.println("Start solving the equation.\n");
 
-        LinearSystem linSys = new GaussJordSolver(coeffMat, constMat);
-        linSys.solve();
-        if (linSys.hasInfiniteSolutions) {
-            System.out.println("\nInfinitely many solutions");
-        } else if (linSys.hasNoSolutions) {
-            System.out.println("\nNo solutions");
-        } else if (linSys.hasUniqueSolution){
-            System.out.print("\nThe solution is: (");
-            for (int elem = 0; elem < linSys.solArr.length; ++elem) {
-                System.out.printf("%s%s", linSys.solArr[elem].toString(), (elem == linSys.solArr.length - 1) ? ")\n" : ", ");
-            }
+        stats.startPhase("solve");
+        long solveStart = System.nanoTime();
+        // Only the solvers working over files or sockets fail this way, e.g. when a worker can't be reached
+        IOException solveError = null;
+        try {
+            linSys.solve();
+        } catch (UncheckedIOException e) {
+            solveError = e.getCause();
+        }
+        stats.recordSolve(linSys, System.nanoTime() - solveStart);
+        stats.endPhase();
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (outOfCoreSolver != null) {
+            outOfCoreSolver.close();
+        }
+        if (traceFile == null) {
+            traceSink.flush();
         } else {
-            System.out.println("\nError determining solution");
+            traceSink.close();
+        }
+        if (solveError != null) {
+            System.out.println(solveError.getMessage());
+            return;
+        }
+        if (linSys instanceof BandedSolver) {
+            BandedSolver bandedSolver = (BandedSolver) linSys;
+            System.out.printf("Solved as a banded system (%d diagonals below, %d above) with %s\n", bandedSolver.lower,
+                    bandedSolver.upper, bandedSolver.path.description);
+        }
+        if (linSys instanceof MixedPrecisionLUSolver) {
+            MixedPrecisionLUSolver mixedSolver = (MixedPrecisionLUSolver) linSys;
+            System.out.println(mixedSolver.usedDoubleFactorization ? "Refinement did not converge, solved with a double precision factorization"
+                    : String.format("Refined the single precision solution in %d iterations", mixedSolver.numRefinements));
+        }
+        if (linSys instanceof CholeskySolver) {
+            System.out.printf("Solved with %s\n", ((CholeskySolver) linSys).path.description);
+        }
+        if (linSys instanceof OutOfCoreLUSolver) {
+            OutOfCoreLUSolver tiledSolver = (OutOfCoreLUSolver) linSys;
+            System.out.printf("Solved out of core in panels of %d columns\n", tiledSolver.panelWidth);
+            if (tiledSolver.isSingular) {
+                System.out.println("The matrix of coefficients is singular, so there is no unique solution");
+            }
         }
+        if (linSys instanceof DistributedLUSolver) {
+            DistributedLUSolver distSolver = (DistributedLUSolver) linSys;
+            System.out.printf("Solved across %d workers, compute / communication time (ms):\n", distSolver.workerAddresses.size());
+            System.out.printf("  coordinator: %.1f / %.1f\n", distSolver.coordinatorComputeNanos / 1e6, distSolver.coordinatorCommNanos / 1e6);
+            if (distSolver.workerComputeNanos != null) {
+                for (int proc = 0; proc < distSolver.workerComputeNanos.length; ++proc) {
+                    System.out.printf("  %s: %.1f / %.1f\n", distSolver.workerAddresses.get(proc),
+                            distSolver.workerComputeNanos[proc] / 1e6, distSolver.workerCommNanos[proc] / 1e6);
+                }
+            }
+        }
+        if (options.isAssessingAccuracy) {
+            linSys.assessAccuracy();
+            if (!Double.isNaN(linSys.residual)) {
+                System.out.printf("Residual ||b - Ax||: %.3e, backward error: %.3e\n", linSys.residual, linSys.backwardError);
+            } else {
+                System.out.println("No residual: the system has no unique solution");
+            }
+            if (!Double.isNaN(linSys.conditionEstimate)) {
+                System.out.printf("Condition number estimate (1-norm): %.3e\n", linSys.conditionEstimate);
+            }
+        }
+        if (linSys instanceof IterativeSolver) {
+            IterativeSolver iterSolver = (IterativeSolver) linSys;
+            System.out.printf("%s after %d iterations, relative residual: %.3e\n",
+                    iterSolver.hasConverged ? "Converged" : "Did not converge", iterSolver.numIterations, iterSolver.residualNorm);
+        }
+        stats.startPhase("output");
+        Writer console = new OutputStreamWriter(System.out);
+        SolutionWriter.writeSummary(console, linSys);
+        console.flush();
 
         if (!outFile.exists() && !outFile.createNewFile()) {
                 System.out.printf("Could not create output file: %s\n", outFile.getAbsolutePath());
         } else {
-            try (PrintWriter writer = new PrintWriter(outFile)) {
-                if (linSys.hasInfiniteSolutions) {
-                    writer.println("Infinitely many solutions");
-                } else if (linSys.hasNoSolutions) {
-                    writer.println("No solutions");
-                } else if (linSys.hasUniqueSolution) {
-                    for (Complex val : linSys.solArr) {
-                        writer.println(val);
-                    }
+            try {
+                if (isBinaryOutput) {
+                    BinaryFormat.writeSolution(outFile, linSys);
                 } else {
-                    writer.println("Error determining solution");
+                    try (Writer writer = new BufferedWriter(new FileWriter(outFile))) {
+                        SolutionWriter.write(writer, linSys);
+                    }
                 }
                 System.out.printf("\nSaved to %s\n", outFile.getName());
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
+        stats.endPhase();
+
+        if (printStats) {
+            System.out.printf("\n%s", stats.toSummary());
+            if (statsFile == null) {
+                System.out.println(stats.toJson(linSys));
+            }
+        }
+        if (statsFile != null) {
+            try (Writer writer = new BufferedWriter(new FileWriter(statsFile))) {
+                writer.write(stats.toJson(linSys));
+                writer.write(System.lineSeparator());
+            }
+        }
     }
 }
@@ -1,20 +1,24 @@
 package solver;
 
-class Matrix {
+class Matrix implements LinearOperator {
     /*
     Class to create and perform operations on matrices
+    The elements are stored in a single flat array of primitive doubles, row-major,
+    with the real and imaginary parts interleaved: element (row, col) has its
+    real part at data[2 * (row * cols + col)] and its imaginary part right after it.
+    This lets the solvers operate on the matrix without allocating a 'Complex' per operation
      */
     int rows; // # of rows of matrix
     int cols; // # of columns of matrix
-    Complex[][] data; // actual data of the matrix
+    double[] data; // actual data of the matrix (interleaved real and imaginary parts)
 
     /**
      * Constructor for the Matrix class
      * @param rows # of rows of matrix (int)
      * @param cols # of columns of matrix (int)
-     * @param data data of the matrix (Complex[][])
+     * @param data data of the matrix (double[] of length 2 * rows * cols)
      */
-    private Matrix(int rows, int cols, Complex[][] data) {
+    private Matrix(int rows, int cols, double[] data) {
         this.rows = rows;
         this.cols = cols;
         this.data = data;
@@ -33,14 +37,128 @@ class Matrix {
                 throw new IllegalArgumentException("2-D array given does not have uniform size!");
             }
         }
-        return new Matrix(rows, cols, data);
+        Matrix mat = createMatrix(rows, cols);
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                mat.set(row, col, data[row][col]);
+            }
+        }
+        return mat;
     }
 
     static Matrix createMatrix(int rows, int cols) {
         if ((rows < 1) || (cols < 1)) {
             throw new IllegalArgumentException(String.format("Invalid dimensions for matrix: %dx%d", rows, cols));
         }
-        return new Matrix(rows, cols, new Complex[rows][cols]);
+        if ((long) rows * cols * 2 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format("Matrix of %dx%d is too large to store", rows, cols));
+        }
+        return new Matrix(rows, cols, new double[2 * rows * cols]);
+    }
+
+    /**
+     * Returns the position of the real part of an element in 'data'
+     * The imaginary part is stored at the position right after it
+     * @param row the row of the element (int)
+     * @param col the column of the element (int)
+     * @return the index (int) of the real part of MAT(row, col) in 'data'
+     */
+    int index(int row, int col) {
+        return 2 * (row * cols + col);
+    }
+
+    double getReal(int row, int col) {
+        return data[index(row, col)];
+    }
+
+    double getImag(int row, int col) {
+        return data[index(row, col) + 1];
+    }
+
+    /**
+     * Returns an element of the matrix as a new Complex instance
+     * Meant for input/output; the solvers work on 'data' directly
+     * @param row the row of the element (int)
+     * @param col the column of the element (int)
+     * @return MAT(row, col) ('Complex')
+     */
+    Complex get(int row, int col) {
+        int ind = index(row, col);
+        return Complex.valueOf(data[ind], data[ind + 1]);
+    }
+
+    void set(int row, int col, Complex val) {
+        set(row, col, val.getReal(), val.getImag());
+    }
+
+    void set(int row, int col, double real, double imag) {
+        int ind = index(row, col);
+        data[ind] = real;
+        data[ind + 1] = imag;
+    }
+
+    @Override
+    public int size() {
+        if (rows != cols) {
+            throw new IllegalArgumentException(String.format("A matrix of %dx%d is not square", rows, cols));
+        }
+        return rows;
+    }
+
+    @Override
+    public void multiply(double[] x, double[] y) {
+        for (int row = 0; row < rows; ++row) {
+            double real = 0.0;
+            double imag = 0.0;
+            int start = index(row, 0);
+            for (int col = 0; col < cols; ++col) {
+                double aReal = data[start + 2 * col];
+                double aImag = data[start + 2 * col + 1];
+                real += aReal * x[2 * col] - aImag * x[2 * col + 1];
+                imag += aReal * x[2 * col + 1] + aImag * x[2 * col];
+            }
+            y[2 * row] = real;
+            y[2 * row + 1] = imag;
+        }
+    }
+
+    /**
+     * Returns the lower and upper bandwidths of the matrix: the largest distance below and above
+     * the diagonal of an element that is not exactly zero (0 for a diagonal matrix)
+     * @return {lower, upper} (int[])
+     */
+    int[] bandwidths() {
+        int lower = 0;
+        int upper = 0;
+        for (int row = 0; row < rows; ++row) {
+            // Only the elements outside the band found so far need to be looked at
+            for (int col = 0; col < row - lower; ++col) {
+                if (data[index(row, col)] != 0.0 || data[index(row, col) + 1] != 0.0) {
+                    lower = row - col;
+                    break;
+                }
+            }
+            for (int col = cols - 1; col > row + upper; --col) {
+                if (data[index(row, col)] != 0.0 || data[index(row, col) + 1] != 0.0) {
+                    upper = col - row;
+                    break;
+                }
+            }
+        }
+        return new int[]{lower, upper};
+    }
+
+    /**
+     * Check if every element of the matrix has an imaginary part of exactly zero
+     * @return true if the matrix is purely real; false if not
+     */
+    boolean isReal() {
+        for (int ind = 1; ind < data.length; ind += 2) {
+            if (data[ind] != 0.0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -48,7 +166,7 @@ class Matrix {
         StringBuilder strRep = new StringBuilder(String.format("MATRIX %dx%d\n", this.rows, this.cols));
         for (int row = 0; row < this.rows; ++row) {
             for (int col = 0; col < this.cols; ++col) {
-                strRep.append(String.format("%s\t", this.data[row][col].toString()));
+                strRep.append(String.format("%s\t", this.get(row, col).toString()));
             }
             strRep.append('\n');
         }
@@ -0,0 +1,330 @@
+package solver;
+
+class MixedPrecisionLUSolver extends LUSolver {
+    /*
+    Class that extends LUSolver and factors the coefficient matrix in single precision (floats
+    for the real and imaginary parts), which halves the memory the factorization goes through,
+    and then recovers double precision with iterative refinement:
+        r = b - A * x (in double precision, with the original matrix), x <- x + Inv(LU) * r
+    Refinement stops once the residual is as small as a double precision factorization would
+    leave it (||r|| <= ||A|| * ||x|| * eps * sqrt(n), in the infinity norm, like LAPACK's dsgesv).
+    If it stalls or takes too many iterations, if the matrix does not fit in single precision or
+    if a pivot is zero, the system is solved by LUSolver with a double precision factorization
+     */
+    static final int MAX_REFINEMENTS = 30;
+    // Refinement has stalled if an iteration doesn't at least halve the residual
+    private static final double MIN_RESIDUAL_REDUCTION = 0.5;
+    int numRefinements; // # of refinement iterations done by the last call to solve(), over all columns of constants
+    boolean usedDoubleFactorization; // whether the last call to solve() had to fall back to a double precision factorization
+    // The single precision factors and row swaps, kept for the condition estimate when assessing the accuracy
+    private float[] singleFactors;
+    private int[] singlePivots;
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the constants in the linear equation system, one column per system ('Matrix' class)
+     */
+    MixedPrecisionLUSolver(Matrix coeffMat, Matrix constMat) {
+        super(coeffMat, constMat);
+    }
+
+    @Override
+    void solve() {
+        numRefinements = 0;
+        usedDoubleFactorization = false;
+        singleFactors = null;
+        singlePivots = null;
+        int n = coeffMat.rows;
+        float[] lu = (n == coeffMat.cols) ? toFloats(coeffMat.data) : null;
+        int[] pivots = new int[n];
+        if (lu == null || !factor(lu, pivots, n)) {
+            solveInDouble();
+            return;
+        }
+        double matNorm = normInf(coeffMat);
+        double threshold = matNorm * Math.ulp(1.0) * Math.sqrt(n);
+        Matrix sol = Matrix.createMatrix(n, constMat.cols);
+        double[] b = new double[2 * n];
+        double[] x = new double[2 * n];
+        double[] r = new double[2 * n];
+        for (int col = 0; col < constMat.cols; ++col) {
+            for (int row = 0; row < n; ++row) {
+                b[2 * row] = constMat.getReal(row, col);
+                b[2 * row + 1] = constMat.getImag(row, col);
+            }
+            System.arraycopy(b, 0, x, 0, x.length);
+            substitute(lu, pivots, n, x);
+            if (!refine(lu, pivots, n, b, x, r, threshold)) {
+                solveInDouble();
+                return;
+            }
+            for (int row = 0; row < n; ++row) {
+                sol.set(row, col, x[2 * row], x[2 * row + 1]);
+            }
+        }
+        solMat = sol;
+        if (isAssessingAccuracy) {
+            singleFactors = lu;
+            singlePivots = pivots;
+        }
+        for (int row = 0; row < solArr.length; ++row) {
+            solArr[row] = solMat.get(row, 0);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    private void solveInDouble() {
+        usedDoubleFactorization = true;
+        super.solve();
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        if (usedDoubleFactorization) {
+            return super.getInverse();
+        }
+        return (singleFactors == null) ? null : new SingleInverse();
+    }
+
+    /**
+     * The inverse through the single precision factors, which is close enough to estimate the condition number with
+     */
+    private class SingleInverse implements ConditionEstimator.Inverse {
+        @Override
+        public int size() {
+            return coeffMat.rows;
+        }
+
+        @Override
+        public void solveInPlace(double[] x) {
+            substitute(singleFactors, singlePivots, coeffMat.rows, x);
+        }
+
+        @Override
+        public void solveConjugateTransposeInPlace(double[] x) {
+            substituteConjugateTranspose(singleFactors, singlePivots, coeffMat.rows, x);
+        }
+    }
+
+    /**
+     * Refines a solution until its residual is below the threshold
+     * @param b the constants (double[])
+     * @param x the solution to refine, updated in place (double[])
+     * @param r work array for the residual (double[])
+     * @param threshold the largest acceptable residual, relative to ||x|| (double)
+     * @return true if the residual got below the threshold; false if refinement stalled
+     */
+    private boolean refine(float[] lu, int[] pivots, int n, double[] b, double[] x, double[] r, double threshold) {
+        double prevResidual = Double.POSITIVE_INFINITY;
+        for (int iter = 0; iter <= MAX_REFINEMENTS; ++iter) {
+            coeffMat.multiply(x, r);
+            double residual = 0.0;
+            double solNorm = 0.0;
+            for (int ind = 0; ind < r.length; ind += 2) {
+                r[ind] = b[ind] - r[ind];
+                r[ind + 1] = b[ind + 1] - r[ind + 1];
+                residual = Math.max(residual, Math.hypot(r[ind], r[ind + 1]));
+                solNorm = Math.max(solNorm, Math.hypot(x[ind], x[ind + 1]));
+            }
+            if (residual <= threshold * solNorm) {
+                return true;
+            }
+            if (iter == MAX_REFINEMENTS || !(residual <= MIN_RESIDUAL_REDUCTION * prevResidual)) {
+                return false;
+            }
+            prevResidual = residual;
+            substitute(lu, pivots, n, r);
+            for (int ind = 0; ind < x.length; ++ind) {
+                x[ind] += r[ind];
+            }
+            ++numRefinements;
+        }
+        return false;
+    }
+
+    /**
+     * Converts the elements of a matrix to single precision
+     * @param data the interleaved elements (double[])
+     * @return the elements as floats; null if any is too large for a float (float[])
+     */
+    private static float[] toFloats(double[] data) {
+        float[] floats = new float[data.length];
+        for (int ind = 0; ind < data.length; ++ind) {
+            floats[ind] = (float) data[ind];
+            if (Float.isInfinite(floats[ind])) {
+                return null;
+            }
+        }
+        return floats;
+    }
+
+    private static double normInf(Matrix mat) {
+        double norm = 0.0;
+        for (int row = 0; row < mat.rows; ++row) {
+            double sum = 0.0;
+            for (int col = 0; col < mat.cols; ++col) {
+                sum += Math.hypot(mat.getReal(row, col), mat.getImag(row, col));
+            }
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+
+    /**
+     * Factors a square matrix in place in single precision with partial pivoting, like LUFactorization.factor()
+     * @param lu the interleaved elements of the matrix, replaced by L and U (float[])
+     * @param pivots the array in which to record the row swaps (int[])
+     * @param n # of rows (and columns) of the matrix (int)
+     * @return true if it was factored; false if a pivot was zero or the factors overflowed
+     */
+    private static boolean factor(float[] lu, int[] pivots, int n) {
+        for (int k = 0; k < n; ++k) {
+            int pivotRow = k;
+            float maxModulus = -1.0f;
+            for (int row = k; row < n; ++row) {
+                int ind = 2 * (row * n + k);
+                float modulus = lu[ind] * lu[ind] + lu[ind + 1] * lu[ind + 1];
+                if (modulus > maxModulus) {
+                    maxModulus = modulus;
+                    pivotRow = row;
+                }
+            }
+            pivots[k] = pivotRow;
+            if (pivotRow != k) {
+                for (int offset = 0; offset < 2 * n; ++offset) {
+                    float temp = lu[2 * k * n + offset];
+                    lu[2 * k * n + offset] = lu[2 * pivotRow * n + offset];
+                    lu[2 * pivotRow * n + offset] = temp;
+                }
+            }
+            int pivotInd = 2 * (k * n + k);
+            float pivotReal = lu[pivotInd];
+            float pivotImag = lu[pivotInd + 1];
+            if (Complex.isZero(pivotReal, pivotImag) || !Float.isFinite(maxModulus)) {
+                return false;
+            }
+            float denominator = pivotReal * pivotReal + pivotImag * pivotImag;
+            float invReal = pivotReal / denominator;
+            float invImag = -pivotImag / denominator;
+            for (int row = k + 1; row < n; ++row) {
+                int ind = 2 * (row * n + k);
+                float lReal = lu[ind] * invReal - lu[ind + 1] * invImag;
+                float lImag = lu[ind] * invImag + lu[ind + 1] * invReal;
+                lu[ind] = lReal;
+                lu[ind + 1] = lImag;
+                if (lReal == 0.0f && lImag == 0.0f) {
+                    continue;
+                }
+                int dst = ind + 2;
+                int src = pivotInd + 2;
+                int len = 2 * (n - k - 1);
+                for (int offset = 0; offset < len; offset += 2) {
+                    float uReal = lu[src + offset];
+                    float uImag = lu[src + offset + 1];
+                    lu[dst + offset] -= lReal * uReal - lImag * uImag;
+                    lu[dst + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves L * U * y = P * v with the single precision factors, accumulating in double precision
+     * @param v the vector, replaced by y (double[])
+     */
+    private static void substitute(float[] lu, int[] pivots, int n, double[] v) {
+        for (int k = 0; k < n; ++k) {
+            if (pivots[k] != k) {
+                int p = pivots[k];
+                double temp = v[2 * k];
+                v[2 * k] = v[2 * p];
+                v[2 * p] = temp;
+                temp = v[2 * k + 1];
+                v[2 * k + 1] = v[2 * p + 1];
+                v[2 * p + 1] = temp;
+            }
+        }
+        for (int row = 1; row < n; ++row) {
+            double real = v[2 * row];
+            double imag = v[2 * row + 1];
+            int start = 2 * row * n;
+            for (int k = 0; k < row; ++k) {
+                double lReal = lu[start + 2 * k];
+                double lImag = lu[start + 2 * k + 1];
+                real -= lReal * v[2 * k] - lImag * v[2 * k + 1];
+                imag -= lReal * v[2 * k + 1] + lImag * v[2 * k];
+            }
+            v[2 * row] = real;
+            v[2 * row + 1] = imag;
+        }
+        for (int row = n - 1; row >= 0; --row) {
+            double real = v[2 * row];
+            double imag = v[2 * row + 1];
+            int start = 2 * row * n;
+            for (int k = row + 1; k < n; ++k) {
+                double uReal = lu[start + 2 * k];
+                double uImag = lu[start + 2 * k + 1];
+                real -= uReal * v[2 * k] - uImag * v[2 * k + 1];
+                imag -= uReal * v[2 * k + 1] + uImag * v[2 * k];
+            }
+            double diagReal = lu[start + 2 * row];
+            double diagImag = lu[start + 2 * row + 1];
+            double denominator = diagReal * diagReal + diagImag * diagImag;
+            v[2 * row] = (real * diagReal + imag * diagImag) / denominator;
+            v[2 * row + 1] = (imag * diagReal - real * diagImag) / denominator;
+        }
+    }
+
+    /**
+     * Solves (P^T * L * U)^H * y = v with the single precision factors, accumulating in double precision:
+     * forward substitution with U^H, back substitution with L^H, then the row swaps undone in reverse order
+     * @param v the vector, replaced by y (double[])
+     */
+    private static void substituteConjugateTranspose(float[] lu, int[] pivots, int n, double[] v) {
+        for (int row = 0; row < n; ++row) {
+            double real = v[2 * row];
+            double imag = v[2 * row + 1];
+            for (int k = 0; k < row; ++k) {
+                int ind = 2 * (k * n + row);
+                double uReal = lu[ind];
+                double uImag = -lu[ind + 1];
+                real -= uReal * v[2 * k] - uImag * v[2 * k + 1];
+                imag -= uReal * v[2 * k + 1] + uImag * v[2 * k];
+            }
+            int diag = 2 * (row * n + row);
+            double diagReal = lu[diag];
+            double diagImag = -lu[diag + 1];
+            double denominator = diagReal * diagReal + diagImag * diagImag;
+            v[2 * row] = (real * diagReal + imag * diagImag) / denominator;
+            v[2 * row + 1] = (imag * diagReal - real * diagImag) / denominator;
+        }
+        for (int row = n - 2; row >= 0; --row) {
+            double real = v[2 * row];
+            double imag = v[2 * row + 1];
+            for (int k = row + 1; k < n; ++k) {
+                int ind = 2 * (k * n + row);
+                double lReal = lu[ind];
+                double lImag = -lu[ind + 1];
+                real -= lReal * v[2 * k] - lImag * v[2 * k + 1];
+                imag -= lReal * v[2 * k + 1] + lImag * v[2 * k];
+            }
+            v[2 * row] = real;
+            v[2 * row + 1] = imag;
+        }
+        for (int k = n - 1; k >= 0; --k) {
+            if (pivots[k] != k) {
+                int p = pivots[k];
+                double temp = v[2 * k];
+                v[2 * k] = v[2 * p];
+                v[2 * p] = temp;
+                temp = v[2 * k + 1];
+                v[2 * k + 1] = v[2 * p + 1];
+                v[2 * p + 1] = temp;
+            }
+        }
+    }
+}
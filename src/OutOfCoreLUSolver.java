@@ -0,0 +1,474 @@
+package solver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+class OutOfCoreLUSolver extends LinearSystem implements AutoCloseable {
+    /*
+    Class that extends LinearSystem and solves square systems whose matrix of coefficients does
+    not fit in the heap, with the LU factorization kept in a file on disk.
+    The matrix is stored in tiles that are panels of whole columns: panel j holds columns
+    j * width to (j + 1) * width - 1, row after row, so the rows below any row of a panel are
+    contiguous in the file. Only two panels are in memory at a time, which is what the memory
+    budget is split into. The factorization is right-looking, a panel at a time:
+        1. the panel is read and factored with partial pivoting, like 'LUFactorization' does
+           with the whole matrix, and written back
+        2. each panel to its right is read, has the row swaps of the factored panel applied and
+           is updated by it (a triangular solve for its part of U, then the product for the rest)
+    The panels to the left are not swapped again, so the forward substitution applies the swaps
+    and the columns of L a panel at a time in the same order as the factorization did.
+    The input is read one equation at a time and never held in memory as a whole, and the tiles
+    are written to a temporary file next to the output file, which close() deletes. The
+    residual is found by reading the input again, an equation at a time, for the same reason.
+    A zero pivot leaves the system singular; unlike the in-memory solvers, this one does not
+    tell whether it has no solutions or infinitely many
+     */
+    private static final int BYTES_PER_ELEMENT = 16;
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+    int size; // # of variables (and equations)
+    int panelWidth; // # of columns of each panel (the last one may have fewer)
+    boolean isSingular; // whether the factorization found a zero pivot
+    private File inFile; // the input file, read again for the residual
+    private final File tileFile;
+    private final FileChannel channel;
+    private final ByteBuffer ioBuffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    private final int[] pivots; // row swapped with each row by the factorization, as global row #s
+    private final double[] panel; // the panel being factored or substituted with
+    private final double[] otherPanel; // the panel being updated
+
+    /**
+     * Constructor for the class
+     * @param size # of variables (and equations) (int)
+     * @param memoryBytes the memory for the tiles held in memory at once, in bytes (long)
+     * @param tileDir the directory in which to create the file of tiles ('File')
+     * @throws IOException if the file of tiles can't be created
+     */
+    private OutOfCoreLUSolver(int size, long memoryBytes, File tileDir) throws IOException {
+        long minBytes = 2L * size * BYTES_PER_ELEMENT;
+        if (memoryBytes < minBytes) {
+            throw new IllegalArgumentException(String.format("A memory budget of %d bytes is too small for %d variables (at least %d bytes needed)",
+                    memoryBytes, size, minBytes));
+        }
+        this.size = size;
+        this.panelWidth = (int) Math.min(size, Math.min(memoryBytes / minBytes, Integer.MAX_VALUE / 2 / size));
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[size];
+        this.pivots = new int[size];
+        this.panel = new double[2 * size * panelWidth];
+        this.otherPanel = new double[2 * size * panelWidth];
+        this.constMat = Matrix.createMatrix(size, 1);
+        this.tileFile = File.createTempFile("solver", ".tiles", tileDir);
+        this.tileFile.deleteOnExit();
+        this.channel = FileChannel.open(tileFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Creates the solver for a system in an input file (text or binary) with dense coefficients,
+     * storing its coefficients in tiles on disk as they are read
+     * @param inFile the input file ('File')
+     * @param isSparse whether a text input is in the sparse format, which is not supported (boolean)
+     * @param memoryBytes the memory for the tiles held in memory at once, in bytes (long)
+     * @param tileDir the directory in which to create the file of tiles ('File')
+     * @return the solver ('OutOfCoreLUSolver')
+     * @throws IOException if a file can't be read or written
+     */
+    static OutOfCoreLUSolver create(File inFile, boolean isSparse, long memoryBytes, File tileDir) throws IOException {
+        if (BinaryFormat.isBinary(inFile)) {
+            BinaryFormat.Header header = BinaryFormat.readHeader(inFile);
+            OutOfCoreLUSolver solver = createFor(header.numVars, header.numEqns, header.numConsts, memoryBytes, tileDir);
+            solver.inFile = inFile;
+            try {
+                RowWriter rowWriter = solver.new RowWriter();
+                BinaryFormat.readDenseRows(inFile, rowWriter);
+                rowWriter.checkComplete();
+            } catch (IOException | RuntimeException e) {
+                solver.close();
+                throw e;
+            }
+            return solver;
+        }
+        if (isSparse) {
+            throw new IllegalArgumentException("The out-of-core solver needs the dense format");
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(inFile))) {
+            int[] size = InputParser.readSize(reader);
+            OutOfCoreLUSolver solver = createFor(size[0], size[1], size[2], memoryBytes, tileDir);
+            solver.inFile = inFile;
+            try {
+                RowWriter rowWriter = solver.new RowWriter();
+                new InputParser(reader).readDenseRows(size[1], size[0] + 1, rowWriter);
+                rowWriter.checkComplete();
+            } catch (IOException | RuntimeException e) {
+                solver.close();
+                throw e;
+            }
+            return solver;
+        }
+    }
+
+    private static OutOfCoreLUSolver createFor(int numVars, int numEqns, int numConsts, long memoryBytes, File tileDir) throws IOException {
+        if (numVars != numEqns) {
+            throw new IllegalArgumentException(String.format("The out-of-core solver needs a square system, not %dx%d", numEqns, numVars));
+        }
+        if (numConsts != 1) {
+            throw new IllegalArgumentException("Multiple columns of constants can only be solved with the lu solver!");
+        }
+        return new OutOfCoreLUSolver(numVars, memoryBytes, tileDir);
+    }
+
+    /**
+     * Collects the equations read into 'panel' (as many whole rows as it holds) and writes them
+     * out a panel at a time when it is full or the last one has been read
+     */
+    private class RowWriter implements InputParser.RowHandler {
+        private final int rowsPerChunk = panelWidth;
+        private int numRead;
+
+        @Override
+        public void handle(int row, double[] values) throws IOException {
+            System.arraycopy(values, 0, panel, 2 * size * (row % rowsPerChunk), 2 * size);
+            constMat.set(row, 0, values[2 * size], values[2 * size + 1]);
+            ++numRead;
+            if (numRead % rowsPerChunk == 0 || numRead == size) {
+                writeChunk(numRead - 1 - (numRead - 1) % rowsPerChunk, numRead);
+            }
+        }
+
+        /**
+         * Checks that all the equations were read, since the file of tiles only holds the ones written
+         */
+        void checkComplete() {
+            if (numRead != size) {
+                throw new IllegalArgumentException(String.format("Expected %d equations in the input file but found %d", size, numRead));
+            }
+        }
+
+        /**
+         * Writes the rows held, from 'start' to 'end' - 1, to each panel
+         */
+        private void writeChunk(int start, int end) throws IOException {
+            for (int panelStart = 0; panelStart < size; panelStart += panelWidth) {
+                int width = Math.min(panelWidth, size - panelStart);
+                for (int row = start; row < end; ++row) {
+                    System.arraycopy(panel, 2 * (size * (row - start) + panelStart), otherPanel, 2 * width * (row - start), 2 * width);
+                }
+                write(otherPanel, position(panelStart, start), 2 * width * (end - start));
+            }
+        }
+    }
+
+    @Override
+    void solve() {
+        try {
+            if (!factor()) {
+                isSingular = true;
+                return;
+            }
+            double[] x = new double[2 * size];
+            System.arraycopy(constMat.data, 0, x, 0, x.length);
+            substitute(x);
+            for (int row = 0; row < size; ++row) {
+                solArr[row] = Complex.valueOf(x[2 * row], x[2 * row + 1]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    /**
+     * Computes the residual and the backward error like the in-memory solvers do, with the
+     * coefficients read from the input file again, since neither the tiles (overwritten by the
+     * factors) nor the heap hold them. The condition number is not estimated
+     */
+    @Override
+    void assessAccuracy() {
+        if (!hasUniqueSolution) {
+            return;
+        }
+        ResidualReader residualReader = new ResidualReader();
+        try {
+            if (BinaryFormat.isBinary(inFile)) {
+                BinaryFormat.readDenseRows(inFile, residualReader);
+            } else {
+                try (BufferedReader reader = new BufferedReader(new FileReader(inFile))) {
+                    InputParser.readSize(reader);
+                    new InputParser(reader).readDenseRows(size, size + 1, residualReader);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        setResidual(residualReader.r, residualReader.coeffNormInf);
+    }
+
+    /**
+     * Computes each element of the residual b - A * x and ||A||_inf from the equations read
+     */
+    private class ResidualReader implements InputParser.RowHandler {
+        private final double[] r = new double[2 * size];
+        private double coeffNormInf;
+
+        @Override
+        public void handle(int row, double[] values) {
+            double real = values[2 * size];
+            double imag = values[2 * size + 1];
+            double sum = 0.0;
+            for (int col = 0; col < size; ++col) {
+                double aReal = values[2 * col];
+                double aImag = values[2 * col + 1];
+                double xReal = solArr[col].getReal();
+                double xImag = solArr[col].getImag();
+                real -= aReal * xReal - aImag * xImag;
+                imag -= aReal * xImag + aImag * xReal;
+                sum += Math.hypot(aReal, aImag);
+            }
+            r[2 * row] = real;
+            r[2 * row + 1] = imag;
+            coeffNormInf = Math.max(coeffNormInf, sum);
+        }
+    }
+
+    /**
+     * Factors the matrix in the file of tiles in place, a panel at a time
+     * @return true if it was factored; false if a pivot was zero
+     * @throws IOException if the file can't be read or written
+     */
+    private boolean factor() throws IOException {
+        for (int start = 0; start < size; start += panelWidth) {
+            int width = Math.min(panelWidth, size - start);
+            int numRows = size - start;
+            read(panel, position(start, start), 2 * width * numRows);
+            if (!factorPanel(start, width, numRows)) {
+                return false;
+            }
+            write(panel, position(start, start), 2 * width * numRows);
+            for (int otherStart = start + width; otherStart < size; otherStart += panelWidth) {
+                int otherWidth = Math.min(panelWidth, size - otherStart);
+                read(otherPanel, position(otherStart, start), 2 * otherWidth * numRows);
+                updatePanel(start, width, numRows, otherWidth);
+                write(otherPanel, position(otherStart, start), 2 * otherWidth * numRows);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Factors the rows of a panel from its diagonal down, held in 'panel'
+     * @param start the first column of the panel, and the first row held (int)
+     * @param width # of columns of the panel (int)
+     * @param numRows # of rows held (int)
+     * @return true if it was factored; false if a pivot was zero
+     */
+    private boolean factorPanel(int start, int width, int numRows) {
+        int stride = 2 * width;
+        for (int k = 0; k < width; ++k) {
+            int pivotRow = k;
+            double maxModulus = -1.0;
+            for (int row = k; row < numRows; ++row) {
+                int ind = row * stride + 2 * k;
+                double modulus = Math.hypot(panel[ind], panel[ind + 1]);
+                if (modulus > maxModulus) {
+                    maxModulus = modulus;
+                    pivotRow = row;
+                }
+            }
+            pivots[start + k] = start + pivotRow;
+            swapRows(panel, stride, k, pivotRow);
+            int pivotInd = k * stride + 2 * k;
+            double pivotReal = panel[pivotInd];
+            double pivotImag = panel[pivotInd + 1];
+            if (Complex.isZero(pivotReal, pivotImag)) {
+                return false;
+            }
+            double denominator = pivotReal * pivotReal + pivotImag * pivotImag;
+            double invReal = pivotReal / denominator;
+            double invImag = -pivotImag / denominator;
+            for (int row = k + 1; row < numRows; ++row) {
+                int ind = row * stride + 2 * k;
+                double lReal = panel[ind] * invReal - panel[ind + 1] * invImag;
+                double lImag = panel[ind] * invImag + panel[ind + 1] * invReal;
+                panel[ind] = lReal;
+                panel[ind + 1] = lImag;
+                for (int offset = 2; offset < stride - 2 * k; offset += 2) {
+                    double uReal = panel[pivotInd + offset];
+                    double uImag = panel[pivotInd + offset + 1];
+                    panel[ind + offset] -= lReal * uReal - lImag * uImag;
+                    panel[ind + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies the row swaps and the multipliers of the factored panel (in 'panel') to the rows of
+     * a panel to its right from the same row down (in 'otherPanel')
+     * @param start the first column of the factored panel, and the first row held (int)
+     * @param width # of columns of the factored panel (int)
+     * @param numRows # of rows held (int)
+     * @param otherWidth # of columns of the panel updated (int)
+     */
+    private void updatePanel(int start, int width, int numRows, int otherWidth) {
+        int stride = 2 * width;
+        int otherStride = 2 * otherWidth;
+        for (int k = 0; k < width; ++k) {
+            swapRows(otherPanel, otherStride, k, pivots[start + k] - start);
+        }
+        for (int row = 1; row < numRows; ++row) {
+            int dst = row * otherStride;
+            for (int k = 0; k < Math.min(row, width); ++k) {
+                double lReal = panel[row * stride + 2 * k];
+                double lImag = panel[row * stride + 2 * k + 1];
+                if (lReal == 0.0 && lImag == 0.0) {
+                    continue;
+                }
+                int src = k * otherStride;
+                for (int offset = 0; offset < otherStride; offset += 2) {
+                    double uReal = otherPanel[src + offset];
+                    double uImag = otherPanel[src + offset + 1];
+                    otherPanel[dst + offset] -= lReal * uReal - lImag * uImag;
+                    otherPanel[dst + offset + 1] -= lReal * uImag + lImag * uReal;
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves L * U * x = P * b with the factors in the file of tiles, a panel at a time
+     * @param x the constants, replaced by the solution (double[])
+     * @throws IOException if the file can't be read
+     */
+    private void substitute(double[] x) throws IOException {
+        // Forward substitution with the unit lower triangle, a column at a time
+        for (int start = 0; start < size; start += panelWidth) {
+            int width = Math.min(panelWidth, size - start);
+            int numRows = size - start;
+            read(panel, position(start, start), 2 * width * numRows);
+            for (int k = 0; k < width; ++k) {
+                swapRows(x, 2, start + k, pivots[start + k]);
+            }
+            for (int k = 0; k < width; ++k) {
+                double real = x[2 * (start + k)];
+                double imag = x[2 * (start + k) + 1];
+                for (int row = k + 1; row < numRows; ++row) {
+                    double lReal = panel[2 * (row * width + k)];
+                    double lImag = panel[2 * (row * width + k) + 1];
+                    x[2 * (start + row)] -= lReal * real - lImag * imag;
+                    x[2 * (start + row) + 1] -= lReal * imag + lImag * real;
+                }
+            }
+        }
+        // Back substitution with the upper triangle, a column at a time from the last one
+        int lastStart = (size - 1) / panelWidth * panelWidth;
+        for (int start = lastStart; start >= 0; start -= panelWidth) {
+            int width = Math.min(panelWidth, size - start);
+            int numRows = start + width;
+            read(panel, position(start, 0), 2 * width * numRows);
+            for (int k = width - 1; k >= 0; --k) {
+                int col = start + k;
+                double diagReal = panel[2 * (col * width + k)];
+                double diagImag = panel[2 * (col * width + k) + 1];
+                double denominator = diagReal * diagReal + diagImag * diagImag;
+                double real = (x[2 * col] * diagReal + x[2 * col + 1] * diagImag) / denominator;
+                double imag = (x[2 * col + 1] * diagReal - x[2 * col] * diagImag) / denominator;
+                x[2 * col] = real;
+                x[2 * col + 1] = imag;
+                for (int row = 0; row < col; ++row) {
+                    double uReal = panel[2 * (row * width + k)];
+                    double uImag = panel[2 * (row * width + k) + 1];
+                    x[2 * row] -= uReal * real - uImag * imag;
+                    x[2 * row + 1] -= uReal * imag + uImag * real;
+                }
+            }
+        }
+    }
+
+    private static void swapRows(double[] data, int stride, int row1, int row2) {
+        if (row1 == row2) {
+            return;
+        }
+        for (int offset = 0; offset < stride; ++offset) {
+            double temp = data[row1 * stride + offset];
+            data[row1 * stride + offset] = data[row2 * stride + offset];
+            data[row2 * stride + offset] = temp;
+        }
+    }
+
+    /**
+     * Returns where an element of the first column of a panel is in the file of tiles
+     * @param panelStart the first column of the panel (int)
+     * @param row the row of the element (int)
+     * @return the position in the file, in bytes (long)
+     */
+    private long position(int panelStart, int row) {
+        int width = Math.min(panelWidth, size - panelStart);
+        return ((long) panelStart * size + (long) row * width) * BYTES_PER_ELEMENT;
+    }
+
+    /**
+     * Reads consecutive doubles from the file of tiles
+     * @param dest the array to read into, from its start (double[])
+     * @param position where to read from in the file, in bytes (long)
+     * @param count # of doubles to read (int)
+     * @throws IOException if the file can't be read
+     */
+    private void read(double[] dest, long position, int count) throws IOException {
+        int done = 0;
+        while (done < count) {
+            int chunk = Math.min(count - done, IO_BUFFER_SIZE / Double.BYTES);
+            ioBuffer.clear().limit(chunk * Double.BYTES);
+            while (ioBuffer.hasRemaining()) {
+                if (channel.read(ioBuffer, position + (long) done * Double.BYTES + ioBuffer.position()) < 0) {
+                    throw new IOException(String.format("Unexpected end of %s", tileFile.getName()));
+                }
+            }
+            ioBuffer.flip();
+            ioBuffer.asDoubleBuffer().get(dest, done, chunk);
+            done += chunk;
+        }
+    }
+
+    /**
+     * Writes consecutive doubles to the file of tiles
+     * @param src the array to write, from its start (double[])
+     * @param position where to write to in the file, in bytes (long)
+     * @param count # of doubles to write (int)
+     * @throws IOException if the file can't be written
+     */
+    private void write(double[] src, long position, int count) throws IOException {
+        int done = 0;
+        while (done < count) {
+            int chunk = Math.min(count - done, IO_BUFFER_SIZE / Double.BYTES);
+            ioBuffer.clear();
+            ioBuffer.asDoubleBuffer().put(src, done, chunk);
+            ioBuffer.limit(chunk * Double.BYTES);
+            while (ioBuffer.hasRemaining()) {
+                channel.write(ioBuffer, position + (long) done * Double.BYTES + ioBuffer.position());
+            }
+            done += chunk;
+        }
+    }
+
+    /**
+     * Closes and deletes the file of tiles
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (!tileFile.delete()) {
+            tileFile.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package solver;
+
+import java.util.Arrays;
+
+interface Preconditioner {
+    /*
+    Interface for the preconditioners of the iterative solvers: an approximation M of
+    the matrix of coefficients that is cheap to solve with, so that the solvers work on
+    a better conditioned system. Vectors are stored with interleaved real and imaginary parts
+     */
+
+    /**
+     * Computes z = Inv(M) * r
+     * @param r the vector to apply the preconditioner to (double[])
+     * @param z the vector to store the result in (double[])
+     */
+    void apply(double[] r, double[] z);
+
+    /**
+     * Creates a preconditioner by its name
+     * "none" does nothing, "jacobi" divides by the diagonal and "ilu0" is the
+     * incomplete LU factorization keeping the pattern of non-zero elements of the matrix
+     * @param name the name of the preconditioner (String)
+     * @param operator the matrix of coefficients ('Matrix' or 'SparseMatrix')
+     * @return the preconditioner ('Preconditioner')
+     */
+    static Preconditioner create(String name, LinearOperator operator) {
+        switch (name) {
+            case "none":
+                return (r, z) -> System.arraycopy(r, 0, z, 0, r.length);
+            case "jacobi":
+                return new JacobiPreconditioner(toSparse(operator));
+            case "ilu0":
+                return new ILU0Preconditioner(toSparse(operator));
+            default:
+                throw new IllegalArgumentException(String.format("Unknown preconditioner: %s", name));
+        }
+    }
+
+    /**
+     * Returns the matrix of an operator in sparse format, converting it if needed
+     * @param operator the matrix of coefficients ('Matrix' or 'SparseMatrix')
+     * @return the matrix as a 'SparseMatrix'
+     */
+    static SparseMatrix toSparse(LinearOperator operator) {
+        if (operator instanceof SparseMatrix) {
+            return (SparseMatrix) operator;
+        }
+        return SparseMatrix.createMatrix((Matrix) operator);
+    }
+}
+
+class JacobiPreconditioner implements Preconditioner {
+    /*
+    Preconditioner dividing each element by the diagonal element of its row
+    Rows with a zero diagonal element are left as is
+     */
+    private double[] invDiag; // inverse of each diagonal element (interleaved real and imaginary parts)
+
+    /**
+     * Constructor for the class
+     * @param mat the matrix of coefficients ('SparseMatrix' class)
+     */
+    JacobiPreconditioner(SparseMatrix mat) {
+        int n = mat.size();
+        invDiag = new double[2 * n];
+        for (int row = 0; row < n; ++row) {
+            invDiag[2 * row] = 1.0;
+            for (int pos = mat.rowPtr[row]; pos < mat.rowPtr[row + 1]; ++pos) {
+                double real = mat.values[2 * pos];
+                double imag = mat.values[2 * pos + 1];
+                if (mat.colInd[pos] == row && (real != 0.0 || imag != 0.0)) {
+                    double denominator = real * real + imag * imag;
+                    invDiag[2 * row] = real / denominator;
+                    invDiag[2 * row + 1] = -imag / denominator;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        for (int ind = 0; ind < r.length; ind += 2) {
+            double real = r[ind];
+            double imag = r[ind + 1];
+            z[ind] = real * invDiag[ind] - imag * invDiag[ind + 1];
+            z[ind + 1] = real * invDiag[ind + 1] + imag * invDiag[ind];
+        }
+    }
+}
+
+class ILU0Preconditioner implements Preconditioner {
+    /*
+    Preconditioner using the incomplete LU factorization with no fill-in, ILU(0):
+    the factors have non-zero elements only where the matrix does, and are stored
+    together in a copy of its values (L is unit lower triangular)
+    Applying it is a forward and a back substitution
+     */
+    private SparseMatrix factors; // L below the diagonal and U on and above it, in the pattern of the matrix
+    private int[] diagPos; // position of the diagonal element of each row in the factors
+
+    /**
+     * Constructor for the class; factors the matrix
+     * @param mat the matrix of coefficients ('SparseMatrix' class)
+     */
+    ILU0Preconditioner(SparseMatrix mat) {
+        int n = mat.size();
+        factors = mat.copy();
+        int[] rowPtr = factors.rowPtr;
+        int[] colInd = factors.colInd;
+        double[] values = factors.values;
+        diagPos = new int[n];
+        // colPos[col] is the position of column 'col' in the row being factored, or -1
+        int[] colPos = new int[n];
+        Arrays.fill(colPos, -1);
+        for (int row = 0; row < n; ++row) {
+            diagPos[row] = -1;
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                colPos[colInd[pos]] = pos;
+                if (colInd[pos] == row) {
+                    diagPos[row] = pos;
+                }
+            }
+            if (diagPos[row] == -1) {
+                throw new IllegalArgumentException(String.format("Cannot use ILU(0) with a zero diagonal element in row %d", row + 1));
+            }
+            for (int pos = rowPtr[row]; pos < diagPos[row]; ++pos) {
+                int k = colInd[pos];
+                // a(row, k) <- a(row, k) / a(k, k)
+                double dReal = values[2 * diagPos[k]];
+                double dImag = values[2 * diagPos[k] + 1];
+                double denominator = dReal * dReal + dImag * dImag;
+                if (denominator == 0.0) {
+                    throw new IllegalArgumentException(String.format("Cannot use ILU(0): zero pivot in row %d", k + 1));
+                }
+                double real = values[2 * pos];
+                double imag = values[2 * pos + 1];
+                double lReal = (real * dReal + imag * dImag) / denominator;
+                double lImag = (imag * dReal - real * dImag) / denominator;
+                values[2 * pos] = lReal;
+                values[2 * pos + 1] = lImag;
+                // a(row, j) <- a(row, j) - a(row, k) * a(k, j), only where a(row, j) is in the pattern
+                for (int kPos = diagPos[k] + 1; kPos < rowPtr[k + 1]; ++kPos) {
+                    int jPos = colPos[colInd[kPos]];
+                    if (jPos != -1) {
+                        double uReal = values[2 * kPos];
+                        double uImag = values[2 * kPos + 1];
+                        values[2 * jPos] -= lReal * uReal - lImag * uImag;
+                        values[2 * jPos + 1] -= lReal * uImag + lImag * uReal;
+                    }
+                }
+            }
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                colPos[colInd[pos]] = -1;
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        int n = diagPos.length;
+        int[] rowPtr = factors.rowPtr;
+        int[] colInd = factors.colInd;
+        double[] values = factors.values;
+        // Forward substitution with the unit lower triangular L
+        for (int row = 0; row < n; ++row) {
+            double real = r[2 * row];
+            double imag = r[2 * row + 1];
+            for (int pos = rowPtr[row]; pos < diagPos[row]; ++pos) {
+                int col = colInd[pos];
+                real -= values[2 * pos] * z[2 * col] - values[2 * pos + 1] * z[2 * col + 1];
+                imag -= values[2 * pos] * z[2 * col + 1] + values[2 * pos + 1] * z[2 * col];
+            }
+            z[2 * row] = real;
+            z[2 * row + 1] = imag;
+        }
+        // Back substitution with U
+        for (int row = n - 1; row >= 0; --row) {
+            double real = z[2 * row];
+            double imag = z[2 * row + 1];
+            for (int pos = diagPos[row] + 1; pos < rowPtr[row + 1]; ++pos) {
+                int col = colInd[pos];
+                real -= values[2 * pos] * z[2 * col] - values[2 * pos + 1] * z[2 * col + 1];
+                imag -= values[2 * pos] * z[2 * col + 1] + values[2 * pos + 1] * z[2 * col];
+            }
+            double dReal = values[2 * diagPos[row]];
+            double dImag = values[2 * diagPos[row] + 1];
+            double denominator = dReal * dReal + dImag * dImag;
+            z[2 * row] = (real * dReal + imag * dImag) / denominator;
+            z[2 * row + 1] = (imag * dReal - real * dImag) / denominator;
+        }
+    }
+}
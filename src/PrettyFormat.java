@@ -6,38 +6,51 @@ public class PrettyFormat {
     prints them in a clean format, removing trailing zeros
     and even the decimal point if it can be done without
     losing information
+    Instances are immutable, so a single formatter can be shared between threads
+    Most numbers are formatted without String.format: the number is scaled by 10^n and rounded
+    to a long, whose digits are appended straight to the output. This gives the same digits as
+    String.format unless the scaled number is within a few ulps of a tie (x.5), where the
+    rounding of the double itself decides, so those numbers (and the ones printed in the
+    computerized notation, or too large for a long) still go through String.format
      */
-    private int numDecimalPlaces;
-    private String formatSpec;
+    // Scaled numbers up to 10^(7 + n) must fit in a long with exact doubles to go the fast way
+    private static final int MAX_FAST_DECIMAL_PLACES = 8;
+    // Distance from a tie (in ulps of the scaled number) inside which the fast way is not trusted
+    private static final double TIE_GUARD_ULPS = 4.0;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+            10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L
+    };
+    private final int numDecimalPlaces;
+    private final String formatSpec;
+    private final double scale; // 10^numDecimalPlaces
+    private final long minFastScaled; // smallest scaled number not printed in the computerized notation (0.001)
+    private final long maxFastScaled; // smallest scaled number printed in the computerized notation again (10^7)
 
     /**
      * No-argument constructor for the class.
      * Default value of 3 given to numDecimalPlaces
      */
     private PrettyFormat() {
-        setNumDecimalPlaces(3);
+        this(3);
     }
 
     /**
      * Constructor for the class
+     * Checks if input is valid before using it
      * @param numDecimalPlaces the number of decimal places to round the double to
      */
     PrettyFormat(int numDecimalPlaces) {
-        setNumDecimalPlaces(numDecimalPlaces);
-    }
-
-    /**
-     * Sets the number of decimal places to round up the double to, to the specified value
-     * Checks if input is valid before doing so
-     * @param numDecimalPlaces the number of decimal places to round up the double to
-     */
-    private void setNumDecimalPlaces(int numDecimalPlaces) {
         if (numDecimalPlaces < 0) {
             throw new IllegalArgumentException(String.format("Cannot format with < 0 decimal places. (Given: %d)", numDecimalPlaces));
-        } else {
-            this.numDecimalPlaces = numDecimalPlaces;
-            this.formatSpec = "%." + numDecimalPlaces + "f";
         }
+        this.numDecimalPlaces = numDecimalPlaces;
+        this.formatSpec = "%." + numDecimalPlaces + "f";
+        boolean isFast = numDecimalPlaces <= MAX_FAST_DECIMAL_PLACES;
+        this.scale = isFast ? POWERS_OF_TEN[numDecimalPlaces] : 0.0;
+        // Below 3 decimal places, the smallest non-zero rounded number is already at least 0.001
+        this.minFastScaled = (numDecimalPlaces >= 3) ? POWERS_OF_TEN[numDecimalPlaces - 3] : 1L;
+        this.maxFastScaled = isFast ? POWERS_OF_TEN[numDecimalPlaces + 7] : 0L;
     }
 
     /**
@@ -54,6 +67,63 @@ public class PrettyFormat {
      * @return the formatted double
      */
     String format(double num) {
+        StringBuilder out = new StringBuilder(24);
+        appendTo(out, num);
+        return out.toString();
+    }
+
+    /**
+     * Appends the formatted double to a buffer, like format() but without creating a String
+     * when it can be avoided
+     * @param out the buffer to append to ('StringBuilder')
+     * @param num the double to format (double)
+     */
+    void appendTo(StringBuilder out, double num) {
+        double scaled = Math.abs(num) * scale;
+        // Also false for NaN and infinities
+        if (!(scaled < maxFastScaled)) {
+            out.append(formatWithString(num));
+            return;
+        }
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= TIE_GUARD_ULPS * Math.ulp(scaled)) {
+            out.append(formatWithString(num));
+            return;
+        }
+        long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+        if (rounded < minFastScaled || rounded >= maxFastScaled) {
+            out.append(formatWithString(num));
+            return;
+        }
+        if (num < 0.0) {
+            out.append('-');
+        }
+        long powerOfTen = POWERS_OF_TEN[numDecimalPlaces];
+        out.append(rounded / powerOfTen);
+        long decimals = rounded % powerOfTen;
+        if (decimals == 0) {
+            return;
+        }
+        // Digits after the decimal point, with the leading zeros and without the trailing ones
+        int numDigits = numDecimalPlaces;
+        while (decimals % 10 == 0) {
+            decimals /= 10;
+            --numDigits;
+        }
+        out.append('.');
+        for (long bound = POWERS_OF_TEN[numDigits - 1]; bound > decimals; bound /= 10) {
+            out.append('0');
+        }
+        out.append(decimals);
+    }
+
+    /**
+     * Formats the double with String.format, for the numbers appendTo() can't format itself
+     * @param num the double to format
+     * @return the formatted double
+     */
+    private String formatWithString(double num) {
         // First round the number according to number of decimal places (earlier specified)
         String numStr = String.format(formatSpec, num);
         int ind = numStr.length() - 1;
@@ -95,15 +165,15 @@ public class PrettyFormat {
         System.out.printf("The number: %f\nUsing Double.toString(): %s\nUsing String.valueOf(): %s\nFormatted : %s\n", num, Double.toString(num), String.valueOf(num), formatter.format(num));
         num = Math.pow(10, 300) + 0.546;
         System.out.printf("The number: %f\nUsing Double.toString(): %s\nUsing String.valueOf(): %s\nFormatted : %s\n", num, Double.toString(num), String.valueOf(num), formatter.format(num));
-        formatter.setNumDecimalPlaces(8);
+        formatter = new PrettyFormat(8);
         num = 0.0045672190;
         System.out.printf("The number: %f\nUsing Double.toString(): %s\nUsing String.valueOf(): %s\nFormatted : %s\n", num, Double.toString(num), String.valueOf(num), formatter.format(num));
-        formatter.setNumDecimalPlaces(14);
+        formatter = new PrettyFormat(14);
         num = -0.0123456789012345;
         System.out.printf("The number: %f\nUsing Double.toString(): %s\nUsing String.valueOf(): %s\nFormatted : %s\n", num, Double.toString(num), String.valueOf(num), formatter.format(num));
         num = 0.000000014563525621;
         System.out.printf("The number: %f\nUsing Double.toString(): %s\nUsing String.valueOf(): %s\nFormatted : %s\n", num, Double.toString(num), String.valueOf(num), formatter.format(num));
-        formatter.setNumDecimalPlaces(0);
+        formatter = new PrettyFormat(0);
         num = 1.2345;
         System.out.printf("The number: %f\nUsing Double.toString(): %s\nUsing String.valueOf(): %s\nFormatted : %s\n", num, Double.toString(num), String.valueOf(num), formatter.format(num));
     }
@@ -0,0 +1,105 @@
+package solver;
+
+class RealGaussJordSolver extends GaussJordSolver {
+    /*
+    Class that extends GaussJordSolver for systems where no coefficient
+    or constant has an imaginary part. The system matrix is kept as plain
+    doubles (one per element, row-major) and the row operations only do
+    real arithmetic, which halves the memory and the work per element.
+    The elimination itself (pivoting, rank check, back substitution) is inherited, and so
+    are the row and column swaps, which only reorder 'rowOrder' and 'colOrder'
+     */
+    private double[] sysData; // the system matrix (augmented matrix), real parts only
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system ('Matrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    RealGaussJordSolver(Matrix coeffMat, Matrix constMat) {
+        super(coeffMat, constMat);
+    }
+
+    @Override
+    void createSystemMatrix() {
+        sysRows = coeffMat.rows;
+        sysCols = coeffMat.cols + 1;
+        sysData = new double[sysRows * sysCols];
+        for (int row = 0; row < sysRows; ++row) {
+            for (int col = 0; col < coeffMat.cols; ++col) {
+                sysData[row * sysCols + col] = coeffMat.getReal(row, col);
+            }
+            sysData[row * sysCols + sysCols - 1] = constMat.getReal(row, 0);
+        }
+    }
+
+    @Override
+    Complex getElem(int row, int col) {
+        return Complex.valueOf(sysData[rowOrder[row] * sysCols + colOrder[col]], 0.0);
+    }
+
+    @Override
+    double getReal(int row, int col) {
+        return sysData[rowOrder[row] * sysCols + colOrder[col]];
+    }
+
+    @Override
+    double getImag(int row, int col) {
+        return 0.0;
+    }
+
+    @Override
+    boolean isZeroElem(int row, int col) {
+        return Complex.isZero(sysData[rowOrder[row] * sysCols + colOrder[col]], 0.0);
+    }
+
+    @Override
+    boolean isOneElem(int row, int col) {
+        return Complex.isOne(sysData[rowOrder[row] * sysCols + colOrder[col]], 0.0);
+    }
+
+    /**
+     * Performs the elementary scaling of a row of the system matrix
+     * The imaginary part of the factor is ignored as the system is purely real
+     * @param row the row of the matrix to operate on (int)
+     * @param scaleReal the factor by which to scale the row (double)
+     * @param scaleImag unused; always zero for a real system (double)
+     */
+    @Override
+    void scaleRow(int row, double scaleReal, double scaleImag) {
+        // If an invalid row number is given, throw an exception
+        if (row >= sysRows) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on row %d with a matrix of %d rows", row, sysRows));
+        }
+        RowKernels.getCurrent().scaleReal(sysData, rowOrder[row] * sysCols, sysCols, scaleReal);
+    }
+
+    @Override
+    void addScaledRowToRow(int row1, int row2, double scaleReal, double scaleImag) {
+        addScaledRowToRow(row1, sysData, row2, scaleReal, scaleImag);
+    }
+
+    /**
+     * Performs the addition of a scaled row, taken from a copy of the system matrix, to a row of the system matrix
+     * Here we do row1 <- row1 + (scaleFactor * source.row2)
+     * The imaginary part of the factor is ignored as the system is purely real
+     * @param row1 the row to add to (int)
+     * @param source the storage to take row2 from, laid out like the system matrix (double[])
+     * @param row2 the row being added (int)
+     * @param scaleReal the factor by which to scale row2 before addition. (Does not affect row2) (double)
+     * @param scaleImag unused; always zero for a real system (double)
+     */
+    @Override
+    void addScaledRowToRow(int row1, double[] source, int row2, double scaleReal, double scaleImag) {
+        // If an invalid row number is given, throw an exception
+        if (row1 >= sysRows || row2 >= sysRows) {
+            throw new IllegalArgumentException(String.format("Cannot perform operation on rows %d and %d with a matrix of %d rows", row1, row2, sysRows));
+        }
+        RowKernels.getCurrent().addScaledReal(sysData, rowOrder[row1] * sysCols, source, rowOrder[row2] * sysCols, sysCols, scaleReal);
+    }
+
+    @Override
+    double[] copySystemData() {
+        return sysData.clone();
+    }
+}
@@ -0,0 +1,153 @@
+package solver;
+
+import java.lang.reflect.InvocationTargetException;
+
+class RowKernels {
+    /*
+    Class with the loops at the heart of the elimination: scaling a row and adding a scaled row
+    to another, over the primitive storage of the rows (interleaved real and imaginary parts for
+    complex rows). These are the plain scalar loops; 'VectorKernels' extends the class to do
+    the same with the Vector API (jdk.incubator.vector), several elements per instruction.
+    The Vector API is an incubator module, which the JVM only resolves when started with
+    --add-modules jdk.incubator.vector, so 'VectorKernels' is only loaded by name: without the
+    module, loading it fails and the scalar loops are used. The kernels used by the solvers
+    can also be chosen by name with setCurrent()
+     */
+    private static final String VECTOR_KERNELS_CLASS = "solver.VectorKernels";
+    private static RowKernels current = create("vector", true);
+
+    /**
+     * Returns the kernels used by the solvers
+     * @return the vector kernels if the Vector API is available, the scalar ones if not,
+     * unless others were set ('RowKernels')
+     */
+    static RowKernels getCurrent() {
+        return current;
+    }
+
+    /**
+     * Sets the kernels used by the solvers from then on
+     * @param kernels the kernels ('RowKernels')
+     */
+    static void setCurrent(RowKernels kernels) {
+        current = kernels;
+    }
+
+    /**
+     * Creates kernels by name
+     * "scalar" are the plain loops, "vector" uses the Vector API with the widest vectors the
+     * processor has, and "vector128", "vector256" and "vector512" use vectors of that many bits
+     * @param name the name of the kernels (String)
+     * @return the kernels ('RowKernels')
+     */
+    static RowKernels create(String name) {
+        return create(name, false);
+    }
+
+    /**
+     * Creates kernels by name
+     * @param name the name of the kernels (String)
+     * @param fallBack whether to return the scalar kernels if the Vector API is unavailable,
+     *                 instead of throwing an exception (boolean)
+     * @return the kernels ('RowKernels')
+     */
+    private static RowKernels create(String name, boolean fallBack) {
+        int bits;
+        if ("scalar".equals(name)) {
+            return new RowKernels();
+        } else if ("vector".equals(name)) {
+            bits = 0;
+        } else if ("vector128".equals(name) || "vector256".equals(name) || "vector512".equals(name)) {
+            bits = Integer.parseInt(name.substring("vector".length()));
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown kernels: %s (expected scalar, vector, vector128, vector256 or vector512)", name));
+        }
+        try {
+            return (RowKernels) Class.forName(VECTOR_KERNELS_CLASS).getDeclaredMethod("create", int.class).invoke(null, bits);
+        } catch (InvocationTargetException e) {
+            // The Vector API is there, but not vectors of the size asked for
+            if (fallBack) {
+                return new RowKernels();
+            }
+            throw (e.getCause() instanceof IllegalArgumentException) ? (IllegalArgumentException) e.getCause() : new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if (fallBack) {
+                return new RowKernels();
+            }
+            throw new IllegalArgumentException(String.format("The %s kernels are not available (run with --add-modules jdk.incubator.vector)", name));
+        }
+    }
+
+    /**
+     * Returns the name of the kernels, as accepted by create()
+     * @return the name (String)
+     */
+    String name() {
+        return "scalar";
+    }
+
+    /**
+     * Scales complex elements in place: data <- scale * data
+     * @param data the storage of the elements, with interleaved real and imaginary parts (double[])
+     * @param start the index of the real part of the first element (int)
+     * @param count # of elements (int)
+     * @param scaleReal the real part of the factor (double)
+     * @param scaleImag the imaginary part of the factor (double)
+     */
+    void scale(double[] data, int start, int count, double scaleReal, double scaleImag) {
+        int end = start + 2 * count;
+        for (int ind = start; ind < end; ind += 2) {
+            double real = data[ind];
+            double imag = data[ind + 1];
+            data[ind] = (real * scaleReal) - (imag * scaleImag);
+            data[ind + 1] = (real * scaleImag) + (imag * scaleReal);
+        }
+    }
+
+    /**
+     * Adds scaled complex elements to others: dest <- dest + scale * source
+     * @param dest the storage of the elements added to (double[])
+     * @param destStart the index of the real part of the first element added to (int)
+     * @param source the storage of the elements added (double[])
+     * @param sourceStart the index of the real part of the first element added (int)
+     * @param count # of elements (int)
+     * @param scaleReal the real part of the factor (double)
+     * @param scaleImag the imaginary part of the factor (double)
+     */
+    void addScaled(double[] dest, int destStart, double[] source, int sourceStart, int count, double scaleReal, double scaleImag) {
+        for (int offset = 0; offset < 2 * count; offset += 2) {
+            double real = source[sourceStart + offset];
+            double imag = source[sourceStart + offset + 1];
+            dest[destStart + offset] += (real * scaleReal) - (imag * scaleImag);
+            dest[destStart + offset + 1] += (real * scaleImag) + (imag * scaleReal);
+        }
+    }
+
+    /**
+     * Scales real elements in place: data <- scale * data
+     * @param data the storage of the elements (double[])
+     * @param start the index of the first element (int)
+     * @param count # of elements (int)
+     * @param scale the factor (double)
+     */
+    void scaleReal(double[] data, int start, int count, double scale) {
+        for (int ind = start; ind < start + count; ++ind) {
+            data[ind] *= scale;
+        }
+    }
+
+    /**
+     * Adds scaled real elements to others: dest <- dest + scale * source
+     * @param dest the storage of the elements added to (double[])
+     * @param destStart the index of the first element added to (int)
+     * @param source the storage of the elements added (double[])
+     * @param sourceStart the index of the first element added (int)
+     * @param count # of elements (int)
+     * @param scale the factor (double)
+     */
+    void addScaledReal(double[] dest, int destStart, double[] source, int sourceStart, int count, double scale) {
+        for (int offset = 0; offset < count; ++offset) {
+            dest[destStart + offset] += source[sourceStart + offset] * scale;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package solver;
+
+import java.io.IOException;
+import java.io.Writer;
+
+class SolutionWriter {
+    /*
+    Class to write the solution of a solved system as text, either in the format of the output
+    file (one line per variable, followed by the residual, backward error and condition number
+    estimate if the accuracy was assessed) or as the summary printed to the console.
+    The values are appended to one reusable buffer with Complex.appendTo(), which is handed to the
+    writer whenever it fills up, so a solution of millions of values is written without creating
+    a 'Complex' or a String per value and without a call to the writer per line
+     */
+    private static final int FLUSH_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private final Writer writer;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 256);
+
+    private SolutionWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the solution of a solved system in the format of the output file
+     * The accuracy is written if assessAccuracy() was called on it
+     * @param writer where to write the solution ('Writer')
+     * @param linSys the solved system ('LinearSystem')
+     * @throws IOException if the solution can't be written
+     */
+    static void write(Writer writer, LinearSystem linSys) throws IOException {
+        SolutionWriter solWriter = new SolutionWriter(writer);
+        // With several columns of constants, there is one solution per column
+        Matrix solMat = (linSys instanceof LUSolver) ? ((LUSolver) linSys).solMat : null;
+        if (linSys.hasInfiniteSolutions) {
+            solWriter.appendLine("Infinitely many solutions");
+        } else if (linSys.hasNoSolutions) {
+            solWriter.appendLine("No solutions");
+        } else if (linSys instanceof IterativeSolver && !linSys.hasUniqueSolution) {
+            solWriter.appendLine("No solution found within the tolerance");
+        } else if (linSys.hasUniqueSolution && solMat != null && solMat.cols > 1) {
+            // One line per variable, with its value for each column of constants separated by spaces
+            for (int row = 0; row < solMat.rows; ++row) {
+                for (int col = 0; col < solMat.cols; ++col) {
+                    if (col > 0) {
+                        solWriter.buffer.append(' ');
+                    }
+                    Complex.appendTo(solWriter.buffer, solMat.getReal(row, col), solMat.getImag(row, col));
+                }
+                solWriter.appendLine("");
+            }
+        } else if (linSys.hasUniqueSolution) {
+            for (Complex val : linSys.solArr) {
+                Complex.appendTo(solWriter.buffer, val.getReal(), val.getImag());
+                solWriter.appendLine("");
+            }
+        } else {
+            solWriter.appendLine("Error determining solution");
+        }
+        if (linSys.isAssessingAccuracy && !Double.isNaN(linSys.residual)) {
+            solWriter.appendLine(String.format("Residual ||b - Ax||: %.3e, backward error: %.3e", linSys.residual, linSys.backwardError));
+            if (!Double.isNaN(linSys.conditionEstimate)) {
+                solWriter.appendLine(String.format("Condition number estimate (1-norm): %.3e", linSys.conditionEstimate));
+            }
+        }
+        solWriter.flush();
+    }
+
+    /**
+     * Writes the solution of a solved system as it is printed to the console, after a blank line
+     * @param writer where to write the solution ('Writer')
+     * @param linSys the solved system ('LinearSystem')
+     * @throws IOException if the solution can't be written
+     */
+    static void writeSummary(Writer writer, LinearSystem linSys) throws IOException {
+        SolutionWriter solWriter = new SolutionWriter(writer);
+        // With several columns of constants, there is one solution per column
+        Matrix solMat = (linSys instanceof LUSolver) ? ((LUSolver) linSys).solMat : null;
+        if (linSys.hasInfiniteSolutions) {
+            solWriter.appendLine("\nInfinitely many solutions");
+        } else if (linSys.hasNoSolutions) {
+            solWriter.appendLine("\nNo solutions");
+        } else if (linSys instanceof IterativeSolver && !linSys.hasUniqueSolution) {
+            solWriter.appendLine("\nNo solution found within the tolerance");
+        } else if (linSys.hasUniqueSolution && solMat != null && solMat.cols > 1) {
+            for (int col = 0; col < solMat.cols; ++col) {
+                solWriter.buffer.append((col == 0) ? "\n" : "").append("The solution for constants #").append(col + 1).append(" is: (");
+                for (int row = 0; row < solMat.rows; ++row) {
+                    Complex.appendTo(solWriter.buffer, solMat.getReal(row, col), solMat.getImag(row, col));
+                    solWriter.append((row == solMat.rows - 1) ? ")\n" : ", ");
+                }
+            }
+        } else if (linSys.hasUniqueSolution) {
+            solWriter.buffer.append("\nThe solution is: (");
+            for (int elem = 0; elem < linSys.solArr.length; ++elem) {
+                Complex.appendTo(solWriter.buffer, linSys.solArr[elem].getReal(), linSys.solArr[elem].getImag());
+                solWriter.append((elem == linSys.solArr.length - 1) ? ")\n" : ", ");
+            }
+        } else {
+            solWriter.appendLine("\nError determining solution");
+        }
+        solWriter.flush();
+    }
+
+    private void append(String text) throws IOException {
+        buffer.append(text);
+        if (buffer.length() >= FLUSH_SIZE) {
+            flush();
+        }
+    }
+
+    private void appendLine(String line) throws IOException {
+        buffer.append(line);
+        append(LINE_SEPARATOR);
+    }
+
+    private void flush() throws IOException {
+        writer.append(buffer);
+        buffer.setLength(0);
+    }
+}
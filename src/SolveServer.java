@@ -0,0 +1,224 @@
+package solver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class SolveServer {
+    /*
+    Class keeping a solver resident in a JVM and solving the systems posted to it over HTTP,
+    so many small requests don't each pay for starting a JVM and for the JIT compiler to warm up.
+    It only listens on the loopback interface, at POST /solve. The request body is a system in
+    the text format of the input files, and the query can change the format and method for that
+    request only, e.g. /solve?format=sparse&solver=cg, and cond=true (or false) assesses the
+    accuracy of the solution like -cond does. The response is a line with the status (unique,
+    infinite, none, not-converged or error) followed by the solution in the format of the output
+    file (with the accuracy, if it was assessed), or by the reason of the error.
+    Requests are handled concurrently by a fixed # of workers, each system on a single thread,
+    and bodies longer than the size limit are refused without being read.
+    GET /stats gives the statistics of the factorization cache
+     */
+    static final int DEFAULT_MAX_BYTES = 16 << 20;
+    private static final int NUM_WARMUP_SYSTEMS = 2000;
+
+    private final SolverOptions options;
+    private final boolean isSparse; // whether the systems are in the sparse format unless the query says otherwise
+    private final int numThreads;
+    private final int maxBytes;
+
+    /**
+     * Constructor for the class
+     * @param options the options to create the solver of each system with ('SolverOptions')
+     * @param isSparse whether the systems are in the sparse format by default (boolean)
+     * @param numThreads # of requests handled at the same time; the # of processors if < 1 (int)
+     * @param maxBytes the largest request body accepted, in bytes (int)
+     */
+    SolveServer(SolverOptions options, boolean isSparse, int numThreads, int maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException(String.format("Invalid request size limit: %d", maxBytes));
+        }
+        this.options = options;
+        this.isSparse = isSparse;
+        this.numThreads = (numThreads < 1) ? Runtime.getRuntime().availableProcessors() : numThreads;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Warms up the solver and starts serving requests; they keep being served until the JVM exits
+     * @param port the port to listen on; 0 for any free port (int)
+     * @return the running server ('HttpServer')
+     * @throws IOException if the port can't be listened on
+     */
+    HttpServer start(int port) throws IOException {
+        warmUp();
+        // Otherwise the response headers and body can wait on delayed acknowledgements (~40 ms per request)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        server.setExecutor(executor);
+        server.createContext("/solve", this::handle);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+        System.out.printf("Listening on http://%s:%d/solve with %d workers\n",
+                server.getAddress().getHostString(), server.getAddress().getPort(), numThreads);
+        return server;
+    }
+
+    /**
+     * Solves small generated systems through the same path as the requests, so the
+     * first requests already run compiled code
+     * They are solved without the factorization cache, which would otherwise start out full of them and count them in its statistics
+     */
+    private void warmUp() {
+        SolverOptions warmUpOptions = options.copy();
+        warmUpOptions.cache = null;
+        // Tiny systems would only wait on the sockets of the distributed solver's workers (which may not be up yet)
+        if ("distributed".equals(warmUpOptions.method)) {
+            warmUpOptions.method = "gauss";
+            warmUpOptions.workers = null;
+        }
+        Random random = new Random(0);
+        for (int ind = 0; ind < NUM_WARMUP_SYSTEMS; ++ind) {
+            int size = 2 + random.nextInt(9);
+            StringBuilder text = new StringBuilder();
+            text.append(size).append(' ').append(size).append('\n');
+            for (int row = 0; row < size; ++row) {
+                for (int col = 0; col <= size; ++col) {
+                    text.append(col == 0 ? "" : " ").append(random.nextInt(201) - 100);
+                }
+                text.append('\n');
+            }
+            solve(text.toString(), false, warmUpOptions);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "error\nOnly POST is supported\n");
+                return;
+            }
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && Long.parseLong(length.trim()) > maxBytes) {
+                respond(exchange, 413, String.format("error\nThe system is larger than %d bytes\n", maxBytes));
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, String.format("error\nThe system is larger than %d bytes\n", maxBytes));
+                return;
+            }
+
+            boolean requestSparse = isSparse;
+            SolverOptions requestOptions = options;
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String param : query.split("&")) {
+                    int eq = param.indexOf('=');
+                    String key = (eq < 0) ? param : param.substring(0, eq);
+                    String value = (eq < 0) ? "" : URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8);
+                    if ("format".equals(key)) {
+                        requestSparse = "sparse".equals(value);
+                    } else if ("solver".equals(key)) {
+                        requestOptions = (requestOptions == options) ? options.copy() : requestOptions;
+                        requestOptions.method = value;
+                    } else if ("cond".equals(key)) {
+                        requestOptions = (requestOptions == options) ? options.copy() : requestOptions;
+                        requestOptions.isAssessingAccuracy = !"false".equals(value);
+                    }
+                }
+            }
+
+            String result = solve(new String(body, StandardCharsets.UTF_8), requestSparse, requestOptions);
+            respond(exchange, result.startsWith(LinearSystem.Status.ERROR.name) ? 400 : 200, result);
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, "error\nInvalid Content-Length\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers GET /stats with the statistics of the factorization cache
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange, 200, (options.cache == null) ? "Factorization cache: off\n" : options.cache.statsToString() + "\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads a request body, stopping as soon as it is longer than the size limit
+     * @param input the body ('InputStream')
+     * @return the bytes of the body; null if it is too long (byte[])
+     * @throws IOException if the body can't be read
+     */
+    private byte[] readBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int numRead;
+        while ((numRead = input.read(buffer)) != -1) {
+            if (body.size() + numRead > maxBytes) {
+                return null;
+            }
+            body.write(buffer, 0, numRead);
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Parses and solves a system, returning its status and solution
+     * @param text the system in the text format (String)
+     * @param isSparse whether the system is in the sparse format (boolean)
+     * @param requestOptions the options to create the solver with ('SolverOptions')
+     * @return the line with the status followed by the solution or the reason of the error (String)
+     */
+    private String solve(String text, boolean isSparse, SolverOptions requestOptions) {
+        StringWriter result = new StringWriter();
+        PrintWriter writer = new PrintWriter(result);
+        try {
+            LinearSystem linSys = requestOptions.createSolver(InputParser.readSystem(new BufferedReader(new StringReader(text)), isSparse));
+            linSys.solve();
+            if (requestOptions.isAssessingAccuracy) {
+                linSys.assessAccuracy();
+            }
+            writer.println(linSys.getStatus().name);
+            SolutionWriter.write(writer, linSys);
+        } catch (IOException | RuntimeException e) {
+            // Covers invalid input (NumberFormatException, IllegalArgumentException) as well as failures while solving
+            Exception cause = (e instanceof UncheckedIOException) ? ((UncheckedIOException) e).getCause() : e;
+            writer.println(LinearSystem.Status.ERROR.name);
+            writer.println(cause.getMessage() == null ? cause.toString() : cause.getMessage().replace('\n', ' '));
+        }
+        writer.flush();
+        return result.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int code, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
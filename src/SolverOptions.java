@@ -0,0 +1,86 @@
+package solver;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+class SolverOptions {
+    /*
+    Class holding the options given for the solver on the command line, to create
+    and configure the solver of each system the same way
+     */
+    String method; // name of the method to solve with; null for the default of the input format
+    int blockSize = BlockedLUSolver.DEFAULT_BLOCK_SIZE;
+    double tolerance = IterativeSolver.DEFAULT_TOLERANCE;
+    int maxIterations = IterativeSolver.DEFAULT_MAX_ITERATIONS;
+    int restart = GMRESSolver.DEFAULT_RESTART;
+    String precondName = "none";
+    FactorizationCache cache; // shared by the LU solvers created; null to factor every system
+    List<InetSocketAddress> workers; // the workers of the distributed solver; null if none were given
+    boolean isAssessingAccuracy; // whether the solvers keep what assessAccuracy() needs, and the results report it (-cond)
+
+    /**
+     * Returns a copy of the options that can be changed independently of them
+     * @return the copy ('SolverOptions')
+     */
+    SolverOptions copy() {
+        SolverOptions options = new SolverOptions();
+        options.method = method;
+        options.blockSize = blockSize;
+        options.tolerance = tolerance;
+        options.maxIterations = maxIterations;
+        options.restart = restart;
+        options.precondName = precondName;
+        options.cache = cache;
+        options.workers = workers;
+        options.isAssessingAccuracy = isAssessingAccuracy;
+        return options;
+    }
+
+    /**
+     * Creates the solver for a system and configures it with the options
+     * If no method was given, "banded" is used for systems with a narrow band of non-zero coefficients,
+     * and otherwise "gauss" for dense systems and "sparse" for sparse ones
+     * @param system the system to solve ('SystemData')
+     * @return the solver for the system ('LinearSystem')
+     */
+    LinearSystem createSolver(SystemData system) {
+        LinearSystem linSys = null;
+        if (method == null) {
+            linSys = system.isSparse() ? BandedSolver.createIfBanded(system.sparseCoeffMat, system.constMat)
+                    : BandedSolver.createIfBanded(system.coeffMat, system.constMat);
+        }
+        if (linSys != null) {
+            linSys.setAssessingAccuracy(isAssessingAccuracy);
+            return linSys;
+        }
+        if ("distributed".equals(method)) {
+            DistributedLUSolver distSolver = new DistributedLUSolver(system.isSparse() ? system.sparseCoeffMat.toDense() : system.coeffMat,
+                    system.constMat, workers);
+            distSolver.setBlockSize(blockSize);
+            distSolver.setAssessingAccuracy(isAssessingAccuracy);
+            return distSolver;
+        }
+        if (system.isSparse()) {
+            linSys = LinearSystem.create(method == null ? "sparse" : method, system.sparseCoeffMat, system.constMat);
+        } else {
+            linSys = LinearSystem.create(method == null ? "gauss" : method, system.coeffMat, system.constMat);
+        }
+        if (linSys instanceof LUSolver) {
+            ((LUSolver) linSys).setCache(cache);
+        }
+        if (linSys instanceof BlockedLUSolver) {
+            ((BlockedLUSolver) linSys).setBlockSize(blockSize);
+        }
+        if (linSys instanceof IterativeSolver) {
+            IterativeSolver iterSolver = (IterativeSolver) linSys;
+            iterSolver.setTolerance(tolerance);
+            iterSolver.setMaxIterations(maxIterations);
+            iterSolver.setPreconditioner(Preconditioner.create(precondName, iterSolver.operator));
+            if (linSys instanceof GMRESSolver) {
+                ((GMRESSolver) linSys).setRestart(restart);
+            }
+        }
+        linSys.setAssessingAccuracy(isAssessingAccuracy);
+        return linSys;
+    }
+}
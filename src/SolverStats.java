@@ -0,0 +1,278 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+class SolverStats implements StepListener {
+    /*
+    Class to record where a solve spends its time: the wall time and the bytes allocated of each
+    phase (parsing, solving and writing the output in Main, and the phases of the Gauss-Jordan
+    elimination within the solve), and, as a listener of the steps, the # of row swaps, column
+    swaps, row scalings and row updates with an estimate of the floating point operations they took.
+    Phases can be nested; each one is kept with its depth, in the order they started.
+    Each phase is also committed as a 'solver.Phase' JFR event and the whole solve as a
+    'solver.Solve' event, so a flight recording (-XX:StartFlightRecording) of a run on a single
+    system has them whether or not the statistics are printed.
+    Bytes are those allocated by the thread running the phase, so the rows updated on the
+    threads of a pool (-threads) are timed but their allocations are not counted
+     */
+    static final SolverStats NONE = new SolverStats(false);
+    // Floating point operations per element of a row; a complex product takes 4 multiplications and 2 additions
+    private static final int COMPLEX_SCALE_FLOPS = 6;
+    private static final int COMPLEX_ADD_SCALED_FLOPS = 8;
+    private static final int REAL_SCALE_FLOPS = 1;
+    private static final int REAL_ADD_SCALED_FLOPS = 2;
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final boolean isEnabled;
+    private final List<Phase> phases = new ArrayList<>();
+    private final Deque<Phase> openPhases = new ArrayDeque<>();
+    private int scaleFlops; // per row scaled, once the system matrix is known
+    private int addScaledFlops; // per row added
+    long numRowSwaps;
+    long numColSwaps;
+    long numRowScales;
+    long numRowUpdates;
+    long numFlops;
+
+    /**
+     * Constructor for the class
+     * @param isEnabled whether to record anything; NONE is the one that does not (boolean)
+     */
+    SolverStats(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Returns whether a flight recording takes the events of the solves, so that the steps are worth counting
+     * @return true if the 'solver.Solve' event is enabled; false if not
+     */
+    static boolean isRecording() {
+        return new SolveEvent().isEnabled();
+    }
+
+    /**
+     * Time spent by a phase and the bytes it allocated
+     */
+    static class Phase {
+        final String name;
+        final int depth;
+        private final long startNanos;
+        private final long startBytes;
+        private final PhaseEvent event = new PhaseEvent();
+        long nanos;
+        long bytesAllocated;
+
+        private Phase(String name, int depth) {
+            this.name = name;
+            this.depth = depth;
+            event.begin();
+            startBytes = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+            startNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts a phase, within the phase started last if it has not ended yet
+     * @param name the name of the phase (String)
+     */
+    void startPhase(String name) {
+        if (!isEnabled) {
+            return;
+        }
+        Phase phase = new Phase(name, openPhases.size());
+        phases.add(phase);
+        openPhases.push(phase);
+    }
+
+    /**
+     * Ends the phase started last
+     */
+    void endPhase() {
+        if (!isEnabled) {
+            return;
+        }
+        Phase phase = openPhases.pop();
+        phase.nanos = System.nanoTime() - phase.startNanos;
+        phase.bytesAllocated = THREAD_BEAN.getCurrentThreadAllocatedBytes() - phase.startBytes;
+        phase.event.end();
+        if (phase.event.shouldCommit()) {
+            phase.event.phase = phase.name;
+            phase.event.depth = phase.depth;
+            phase.event.bytesAllocated = phase.bytesAllocated;
+            phase.event.commit();
+        }
+    }
+
+    /**
+     * Returns the phases in the order they started
+     * @return the phases ('List<Phase>')
+     */
+    List<Phase> getPhases() {
+        return phases;
+    }
+
+    @Override
+    public void started(GaussJordSolver solver) {
+        boolean isReal = solver instanceof RealGaussJordSolver;
+        scaleFlops = solver.sysCols * (isReal ? REAL_SCALE_FLOPS : COMPLEX_SCALE_FLOPS);
+        addScaledFlops = solver.sysCols * (isReal ? REAL_ADD_SCALED_FLOPS : COMPLEX_ADD_SCALED_FLOPS);
+    }
+
+    @Override
+    public void rowsSwapped(int row1, int row2) {
+        ++numRowSwaps;
+    }
+
+    @Override
+    public void colsSwapped(int col1, int col2) {
+        ++numColSwaps;
+    }
+
+    @Override
+    public void rowScaled(int row, double real, double imag) {
+        ++numRowScales;
+        numFlops += scaleFlops;
+    }
+
+    @Override
+    public void rowAdded(int fromRow, int toRow, double real, double imag) {
+        ++numRowUpdates;
+        numFlops += addScaledFlops;
+    }
+
+    @Override
+    public void rowReduced(int fromRow, int toRow, double real, double imag) {
+        ++numRowUpdates;
+        numFlops += addScaledFlops;
+    }
+
+    /**
+     * Commits the 'solver.Solve' JFR event for a solved system, with the counts of its steps
+     * @param system the solved system ('LinearSystem')
+     * @param solveNanos the time the solve took (long)
+     */
+    void recordSolve(LinearSystem system, long solveNanos) {
+        SolveEvent event = new SolveEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.solver = system.getClass().getSimpleName();
+        event.numVars = system.solArr.length;
+        event.status = system.getStatus().name;
+        event.solveNanos = solveNanos;
+        event.rowSwaps = numRowSwaps;
+        event.colSwaps = numColSwaps;
+        event.rowUpdates = numRowUpdates;
+        event.flops = numFlops;
+        event.commit();
+    }
+
+    /**
+     * Returns the statistics as a table for people to read, one line per phase (indented by its depth)
+     * followed by the counts of the steps
+     * @return the table (String)
+     */
+    String toSummary() {
+        StringBuilder summary = new StringBuilder("Statistics:\n");
+        for (Phase phase : phases) {
+            String name = "  ".repeat(phase.depth + 1) + phase.name;
+            summary.append(String.format("%-26s %12.3f ms %14d bytes\n", name, phase.nanos / 1e6, phase.bytesAllocated));
+        }
+        summary.append(String.format("  row swaps: %d, column swaps: %d, row scalings: %d, row updates: %d\n",
+                numRowSwaps, numColSwaps, numRowScales, numRowUpdates));
+        summary.append(String.format("  estimated flops: %d\n", numFlops));
+        return summary.toString();
+    }
+
+    /**
+     * Returns the statistics of a solved system as a JSON object on a single line, for other programs to read
+     * Times are in nanoseconds. If the accuracy of the solution was assessed, its residual, backward error
+     * and condition number estimate are included, as null if they were not computed
+     * @param system the solved system ('LinearSystem')
+     * @return the JSON object (String)
+     */
+    String toJson(LinearSystem system) {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format("{\"solver\":\"%s\",\"vars\":%d,\"status\":\"%s\",\"phases\":[",
+                system.getClass().getSimpleName(), system.solArr.length, system.getStatus().name));
+        for (int ind = 0; ind < phases.size(); ++ind) {
+            Phase phase = phases.get(ind);
+            json.append((ind == 0) ? "" : ",").append(String.format("{\"name\":\"%s\",\"depth\":%d,\"nanos\":%d,\"bytes\":%d}",
+                    phase.name, phase.depth, phase.nanos, phase.bytesAllocated));
+        }
+        json.append(String.format("],\"rowSwaps\":%d,\"colSwaps\":%d,\"rowScales\":%d,\"rowUpdates\":%d,\"flops\":%d",
+                numRowSwaps, numColSwaps, numRowScales, numRowUpdates, numFlops));
+        if (system.isAssessingAccuracy) {
+            json.append(String.format(",\"residual\":%s,\"backwardError\":%s,\"cond\":%s",
+                    toJsonNumber(system.residual), toJsonNumber(system.backwardError), toJsonNumber(system.conditionEstimate)));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Returns a double as a JSON number, or null if it is not finite since JSON has no NaN or infinity
+     */
+    private static String toJsonNumber(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    @Name("solver.Phase")
+    @Label("Solver Phase")
+    @Category("Linear Equations Solver")
+    @Description("A phase of reading, solving or writing a system")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Depth")
+        @Description("# of phases this one is nested in")
+        int depth;
+
+        @Label("Bytes Allocated")
+        @DataAmount
+        long bytesAllocated;
+    }
+
+    @Name("solver.Solve")
+    @Label("Solve")
+    @Category("Linear Equations Solver")
+    @Description("A system solved, with the counts of the steps of its elimination")
+    static class SolveEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Variables")
+        int numVars;
+
+        @Label("Status")
+        String status;
+
+        @Label("Solve Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long solveNanos;
+
+        @Label("Row Swaps")
+        long rowSwaps;
+
+        @Label("Column Swaps")
+        long colSwaps;
+
+        @Label("Row Updates")
+        long rowUpdates;
+
+        @Label("Estimated Flops")
+        long flops;
+    }
+}
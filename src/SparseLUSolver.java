@@ -0,0 +1,486 @@
+package solver;
+
+import java.util.Arrays;
+
+class SparseLUSolver extends LinearSystem {
+    /*
+    Class that extends LinearSystem and solves systems with a sparse coefficient matrix
+    through a sparse LU factorization (left-looking, Gilbert-Peierls), so that the work
+    and memory depend on the # of non-zero elements instead of the size of the matrix.
+    The columns are first reordered with the reverse Cuthill-McKee ordering, which keeps
+    the non-zero elements close to the diagonal and so limits the fill-in of the factors.
+    Each column is then found with a sparse triangular solve against the columns of L
+    found so far, and its pivot is chosen by threshold partial pivoting, preferring the
+    diagonal element when it is large enough so that the ordering is kept
+     */
+    // A diagonal element is kept as pivot if its modulus is at least this fraction of the largest in the column
+    static final double DIAGONAL_PIVOT_THRESHOLD = 0.1;
+    // Largest # of variables for which a singular or non-square system is classified with dense elimination
+    static final int MAX_DENSE_FALLBACK_SIZE = 5000;
+    SparseMatrix sparseCoeffMat; // the coefficient matrix; 'coeffMat' is left null
+    int[] colOrder; // the variable eliminated at each step
+    int[] rowOrder; // rowOrder[row] is the step at which row was used as pivot
+    // L (unit lower, rows in pivot order, diagonal first in each column) and U (diagonal last in each column),
+    // both in compressed sparse column format with interleaved values
+    int[] lColPtr;
+    int[] lRowInd;
+    double[] lValues;
+    int[] uColPtr;
+    int[] uRowInd;
+    double[] uValues;
+    boolean isFactored;
+
+    /**
+     * Constructor for the class
+     * @param sparseCoeffMat the sparse matrix of coefficients in the linear equation system ('SparseMatrix' class)
+     * @param constMat the vector of constants in the linear equation system ('Matrix' class)
+     */
+    SparseLUSolver(SparseMatrix sparseCoeffMat, Matrix constMat) {
+        this.sparseCoeffMat = sparseCoeffMat;
+        this.constMat = constMat;
+        this.hasInfiniteSolutions = false;
+        this.hasUniqueSolution = false;
+        this.hasNoSolutions = false;
+        this.solArr = new Complex[sparseCoeffMat.cols];
+    }
+
+    @Override
+    void solve() {
+        if (sparseCoeffMat.rows != sparseCoeffMat.cols || !factor()) {
+            classifyWithoutUniqueSolution();
+            return;
+        }
+        double[] sol = solve(constMat, 0);
+        for (int var = 0; var < solArr.length; ++var) {
+            solArr[var] = Complex.valueOf(sol[2 * var], sol[2 * var + 1]);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    @Override
+    SparseMatrix getSparseCoeffMat() {
+        return sparseCoeffMat;
+    }
+
+    /**
+     * Used when the coefficient matrix is singular or not square: the system is then
+     * solved with Gauss-Jordan elimination on the dense matrix, if it is small enough,
+     * to tell if it has no solutions or infinitely many
+     */
+    private void classifyWithoutUniqueSolution() {
+        if (Math.max(sparseCoeffMat.rows, sparseCoeffMat.cols) > MAX_DENSE_FALLBACK_SIZE) {
+            hasUniqueSolution = false;
+            hasNoSolutions = false;
+            hasInfiniteSolutions = false;
+            return;
+        }
+        LinearSystem denseSys = LinearSystem.create(sparseCoeffMat.toDense(), constMat);
+        denseSys.setStepListener(stepListener);
+        denseSys.solve();
+        hasUniqueSolution = denseSys.hasUniqueSolution;
+        hasNoSolutions = denseSys.hasNoSolutions;
+        hasInfiniteSolutions = denseSys.hasInfiniteSolutions;
+        System.arraycopy(denseSys.solArr, 0, solArr, 0, solArr.length);
+    }
+
+    /**
+     * Factors the coefficient matrix: P * A * Q = L * U
+     * @return true if the matrix could be factored; false if it is singular
+     */
+    boolean factor() {
+        int n = sparseCoeffMat.rows;
+        // The CSR arrays of the transpose are the compressed sparse column arrays of A
+        SparseMatrix cols = sparseCoeffMat.transpose();
+        colOrder = reverseCuthillMcKee(sparseCoeffMat, cols);
+        rowOrder = new int[n];
+        Arrays.fill(rowOrder, -1);
+
+        int capacity = 4 * sparseCoeffMat.nonZeros() + n;
+        lColPtr = new int[n + 1];
+        lRowInd = new int[capacity];
+        lValues = new double[2 * capacity];
+        uColPtr = new int[n + 1];
+        uRowInd = new int[capacity];
+        uValues = new double[2 * capacity];
+        int lCount = 0;
+        int uCount = 0;
+
+        double[] x = new double[2 * n]; // dense work vector, only touched at the rows of the reach
+        int[] reach = new int[n]; // rows reached by the current column, in topological order from 'top'
+        int[] stack = new int[n];
+        int[] stackPos = new int[n];
+        int[] mark = new int[n];
+
+        for (int step = 0; step < n; ++step) {
+            int col = colOrder[step];
+            lColPtr[step] = lCount;
+            uColPtr[step] = uCount;
+            // Make sure the column fits in L and U even if every row is reached
+            if (lCount + n > lRowInd.length) {
+                lRowInd = Arrays.copyOf(lRowInd, 2 * lRowInd.length + n);
+                lValues = Arrays.copyOf(lValues, 2 * lRowInd.length);
+            }
+            if (uCount + n > uRowInd.length) {
+                uRowInd = Arrays.copyOf(uRowInd, 2 * uRowInd.length + n);
+                uValues = Arrays.copyOf(uValues, 2 * uRowInd.length);
+            }
+
+            // Solve L * x = A(:, col) for the rows reached from the column
+            int top = findReach(cols, col, step + 1, reach, stack, stackPos, mark);
+            for (int pos = top; pos < n; ++pos) {
+                x[2 * reach[pos]] = 0.0;
+                x[2 * reach[pos] + 1] = 0.0;
+            }
+            for (int pos = cols.rowPtr[col]; pos < cols.rowPtr[col + 1]; ++pos) {
+                int row = cols.colInd[pos];
+                x[2 * row] = cols.values[2 * pos];
+                x[2 * row + 1] = cols.values[2 * pos + 1];
+            }
+            for (int pos = top; pos < n; ++pos) {
+                int row = reach[pos];
+                int lCol = rowOrder[row];
+                if (lCol < 0) {
+                    continue;
+                }
+                double real = x[2 * row];
+                double imag = x[2 * row + 1];
+                // Skip the diagonal (first entry) of the column of L, which is 1
+                for (int lPos = lColPtr[lCol] + 1; lPos < lColPtr[lCol + 1]; ++lPos) {
+                    int lRow = lRowInd[lPos];
+                    double lReal = lValues[2 * lPos];
+                    double lImag = lValues[2 * lPos + 1];
+                    x[2 * lRow] -= lReal * real - lImag * imag;
+                    x[2 * lRow + 1] -= lReal * imag + lImag * real;
+                }
+            }
+
+            // Rows already used as pivots go to U; the largest of the others is the pivot
+            int pivotRow = -1;
+            double maxModulus = -1.0;
+            for (int pos = top; pos < n; ++pos) {
+                int row = reach[pos];
+                double modulus = x[2 * row] * x[2 * row] + x[2 * row + 1] * x[2 * row + 1];
+                if (rowOrder[row] < 0) {
+                    if (modulus > maxModulus) {
+                        maxModulus = modulus;
+                        pivotRow = row;
+                    }
+                } else {
+                    uRowInd[uCount] = rowOrder[row];
+                    uValues[2 * uCount] = x[2 * row];
+                    uValues[2 * uCount + 1] = x[2 * row + 1];
+                    ++uCount;
+                }
+            }
+            if (pivotRow == -1 || Complex.isZero(x[2 * pivotRow], x[2 * pivotRow + 1])) {
+                isFactored = false;
+                return false;
+            }
+            // Prefer the diagonal element of the reordered matrix to preserve the ordering
+            if (rowOrder[col] < 0 && mark[col] == step + 1) {
+                double diagModulus = x[2 * col] * x[2 * col] + x[2 * col + 1] * x[2 * col + 1];
+                if (diagModulus >= DIAGONAL_PIVOT_THRESHOLD * DIAGONAL_PIVOT_THRESHOLD * maxModulus
+                        && !Complex.isZero(x[2 * col], x[2 * col + 1])) {
+                    pivotRow = col;
+                }
+            }
+            double pivotReal = x[2 * pivotRow];
+            double pivotImag = x[2 * pivotRow + 1];
+            uRowInd[uCount] = step;
+            uValues[2 * uCount] = pivotReal;
+            uValues[2 * uCount + 1] = pivotImag;
+            ++uCount;
+            rowOrder[pivotRow] = step;
+
+            // The column of L is x / pivot for the rows not used as pivots yet
+            double denominator = pivotReal * pivotReal + pivotImag * pivotImag;
+            double invReal = pivotReal / denominator;
+            double invImag = -pivotImag / denominator;
+            lRowInd[lCount] = pivotRow;
+            lValues[2 * lCount] = 1.0;
+            lValues[2 * lCount + 1] = 0.0;
+            ++lCount;
+            for (int pos = top; pos < n; ++pos) {
+                int row = reach[pos];
+                if (rowOrder[row] < 0) {
+                    double real = x[2 * row];
+                    double imag = x[2 * row + 1];
+                    lRowInd[lCount] = row;
+                    lValues[2 * lCount] = real * invReal - imag * invImag;
+                    lValues[2 * lCount + 1] = real * invImag + imag * invReal;
+                    ++lCount;
+                }
+            }
+        }
+        lColPtr[n] = lCount;
+        uColPtr[n] = uCount;
+        // Now that every row has a pivot step, renumber the rows of L by their step
+        for (int pos = 0; pos < lCount; ++pos) {
+            lRowInd[pos] = rowOrder[lRowInd[pos]];
+        }
+        isFactored = true;
+        return true;
+    }
+
+    /**
+     * Finds the rows that will be non-zero when solving L * x = A(:, col), which are those reachable
+     * from the non-zero rows of the column through the columns of L found so far. They are stored
+     * in topological order at the end of 'reach', so that the solve can go through them in order
+     * @param cols the coefficient matrix in compressed sparse column format ('SparseMatrix' class)
+     * @param col the column of A to solve for (int)
+     * @param stamp value used to mark the rows visited for this column (int)
+     * @param reach where to store the rows reached (int[])
+     * @param stack work array for the depth-first search (int[])
+     * @param stackPos work array for the depth-first search (int[])
+     * @param mark array marking the visited rows with the stamp (int[])
+     * @return the position in 'reach' of the first row reached (int)
+     */
+    private int findReach(SparseMatrix cols, int col, int stamp, int[] reach, int[] stack, int[] stackPos, int[] mark) {
+        int n = reach.length;
+        int top = n;
+        for (int pos = cols.rowPtr[col]; pos < cols.rowPtr[col + 1]; ++pos) {
+            int start = cols.colInd[pos];
+            if (mark[start] == stamp) {
+                continue;
+            }
+            // Iterative depth-first search from 'start'
+            int head = 0;
+            stack[0] = start;
+            while (head >= 0) {
+                int row = stack[head];
+                int lCol = rowOrder[row];
+                if (mark[row] != stamp) {
+                    mark[row] = stamp;
+                    stackPos[head] = (lCol < 0) ? 0 : lColPtr[lCol];
+                }
+                boolean isDone = true;
+                int end = (lCol < 0) ? 0 : lColPtr[lCol + 1];
+                for (int lPos = stackPos[head]; lPos < end; ++lPos) {
+                    int next = lRowInd[lPos];
+                    if (mark[next] == stamp) {
+                        continue;
+                    }
+                    stackPos[head] = lPos + 1;
+                    stack[++head] = next;
+                    isDone = false;
+                    break;
+                }
+                if (isDone) {
+                    --head;
+                    reach[--top] = row;
+                }
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Solves the factored system for a column of constants with forward and back substitution
+     * @param rhs the constants ('Matrix' class)
+     * @param rhsCol the column of 'rhs' to solve for (int)
+     * @return the solution, with interleaved real and imaginary parts (double[])
+     */
+    double[] solve(Matrix rhs, int rhsCol) {
+        if (!isFactored) {
+            throw new ArithmeticException("Cannot solve with the factorization of a singular matrix!");
+        }
+        int n = sparseCoeffMat.rows;
+        double[] y = new double[2 * n];
+        for (int row = 0; row < n; ++row) {
+            y[2 * rowOrder[row]] = rhs.getReal(row, rhsCol);
+            y[2 * rowOrder[row] + 1] = rhs.getImag(row, rhsCol);
+        }
+        substitute(y);
+        // Undo the column ordering
+        double[] sol = new double[2 * n];
+        for (int step = 0; step < n; ++step) {
+            sol[2 * colOrder[step]] = y[2 * step];
+            sol[2 * colOrder[step] + 1] = y[2 * step + 1];
+        }
+        return sol;
+    }
+
+    /**
+     * Solves L * U * y = v with forward and back substitution
+     * @param y the vector v, with the rows in pivot order, replaced by y (double[])
+     */
+    private void substitute(double[] y) {
+        int n = sparseCoeffMat.rows;
+        // Forward substitution with L (unit diagonal first in each column)
+        for (int col = 0; col < n; ++col) {
+            double real = y[2 * col];
+            double imag = y[2 * col + 1];
+            if (real == 0.0 && imag == 0.0) {
+                continue;
+            }
+            for (int pos = lColPtr[col] + 1; pos < lColPtr[col + 1]; ++pos) {
+                int row = lRowInd[pos];
+                y[2 * row] -= lValues[2 * pos] * real - lValues[2 * pos + 1] * imag;
+                y[2 * row + 1] -= lValues[2 * pos] * imag + lValues[2 * pos + 1] * real;
+            }
+        }
+        // Back substitution with U (diagonal last in each column)
+        for (int col = n - 1; col >= 0; --col) {
+            int diag = uColPtr[col + 1] - 1;
+            double dReal = uValues[2 * diag];
+            double dImag = uValues[2 * diag + 1];
+            double denominator = dReal * dReal + dImag * dImag;
+            double real = (y[2 * col] * dReal + y[2 * col + 1] * dImag) / denominator;
+            double imag = (y[2 * col + 1] * dReal - y[2 * col] * dImag) / denominator;
+            y[2 * col] = real;
+            y[2 * col + 1] = imag;
+            for (int pos = uColPtr[col]; pos < diag; ++pos) {
+                int row = uRowInd[pos];
+                y[2 * row] -= uValues[2 * pos] * real - uValues[2 * pos + 1] * imag;
+                y[2 * row + 1] -= uValues[2 * pos] * imag + uValues[2 * pos + 1] * real;
+            }
+        }
+    }
+
+    /**
+     * Solves (L * U)^H * y = v: forward substitution with U^H, then back substitution with L^H.
+     * The columns of L and U are the rows of their conjugate transposes, so each element of y
+     * is found with a sparse dot product
+     * @param y the vector v, with the rows in column order, replaced by y, with the rows in pivot order (double[])
+     */
+    private void substituteConjugateTranspose(double[] y) {
+        int n = sparseCoeffMat.rows;
+        for (int col = 0; col < n; ++col) {
+            double real = y[2 * col];
+            double imag = y[2 * col + 1];
+            int diag = uColPtr[col + 1] - 1;
+            for (int pos = uColPtr[col]; pos < diag; ++pos) {
+                int row = uRowInd[pos];
+                double uReal = uValues[2 * pos];
+                double uImag = -uValues[2 * pos + 1];
+                real -= uReal * y[2 * row] - uImag * y[2 * row + 1];
+                imag -= uReal * y[2 * row + 1] + uImag * y[2 * row];
+            }
+            double dReal = uValues[2 * diag];
+            double dImag = -uValues[2 * diag + 1];
+            double denominator = dReal * dReal + dImag * dImag;
+            y[2 * col] = (real * dReal + imag * dImag) / denominator;
+            y[2 * col + 1] = (imag * dReal - real * dImag) / denominator;
+        }
+        for (int col = n - 1; col >= 0; --col) {
+            double real = y[2 * col];
+            double imag = y[2 * col + 1];
+            for (int pos = lColPtr[col] + 1; pos < lColPtr[col + 1]; ++pos) {
+                int row = lRowInd[pos];
+                double lReal = lValues[2 * pos];
+                double lImag = -lValues[2 * pos + 1];
+                real -= lReal * y[2 * row] - lImag * y[2 * row + 1];
+                imag -= lReal * y[2 * row + 1] + lImag * y[2 * row];
+            }
+            y[2 * col] = real;
+            y[2 * col + 1] = imag;
+        }
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        return isFactored ? new SparseInverse() : null;
+    }
+
+    /**
+     * The inverse through the factors: Inv(A) = Q * Inv(U) * Inv(L) * P, and Inv(A)^H = P^T * Inv(L)^H * Inv(U)^H * Q^T
+     */
+    private class SparseInverse implements ConditionEstimator.Inverse {
+        @Override
+        public int size() {
+            return sparseCoeffMat.rows;
+        }
+
+        @Override
+        public void solveInPlace(double[] x) {
+            int n = size();
+            double[] y = new double[2 * n];
+            for (int row = 0; row < n; ++row) {
+                y[2 * rowOrder[row]] = x[2 * row];
+                y[2 * rowOrder[row] + 1] = x[2 * row + 1];
+            }
+            substitute(y);
+            for (int step = 0; step < n; ++step) {
+                x[2 * colOrder[step]] = y[2 * step];
+                x[2 * colOrder[step] + 1] = y[2 * step + 1];
+            }
+        }
+
+        @Override
+        public void solveConjugateTransposeInPlace(double[] x) {
+            int n = size();
+            double[] y = new double[2 * n];
+            for (int step = 0; step < n; ++step) {
+                y[2 * step] = x[2 * colOrder[step]];
+                y[2 * step + 1] = x[2 * colOrder[step] + 1];
+            }
+            substituteConjugateTranspose(y);
+            for (int row = 0; row < n; ++row) {
+                x[2 * row] = y[2 * rowOrder[row]];
+                x[2 * row + 1] = y[2 * rowOrder[row] + 1];
+            }
+        }
+    }
+
+    /**
+     * Computes the reverse Cuthill-McKee ordering of the symmetrized pattern of a square matrix
+     * Each connected part is traversed breadth-first from a node of smallest degree,
+     * visiting neighbours by increasing degree, and the resulting order is reversed
+     * @param rowsMat the matrix in compressed sparse row format ('SparseMatrix' class)
+     * @param colsMat the same matrix in compressed sparse column format ('SparseMatrix' class)
+     * @return the order in which to take the columns (int[])
+     */
+    static int[] reverseCuthillMcKee(SparseMatrix rowsMat, SparseMatrix colsMat) {
+        int n = rowsMat.rows;
+        // Neighbours of a node are the union of its row and column patterns, without itself
+        int[] degree = new int[n];
+        for (int node = 0; node < n; ++node) {
+            degree[node] = (rowsMat.rowPtr[node + 1] - rowsMat.rowPtr[node]) + (colsMat.rowPtr[node + 1] - colsMat.rowPtr[node]);
+        }
+        boolean[] isVisited = new boolean[n];
+        int[] order = new int[n];
+        int[] neighbours = new int[n];
+        long[] keys = new long[n];
+        Integer[] nodesByDegree = new Integer[n];
+        for (int node = 0; node < n; ++node) {
+            nodesByDegree[node] = node;
+        }
+        Arrays.sort(nodesByDegree, (a, b) -> (degree[a] != degree[b]) ? Integer.compare(degree[a], degree[b]) : Integer.compare(a, b));
+        int count = 0;
+        for (int start : nodesByDegree) {
+            if (isVisited[start]) {
+                continue;
+            }
+            isVisited[start] = true;
+            order[count++] = start;
+            for (int head = count - 1; head < count; ++head) {
+                int node = order[head];
+                int numNeighbours = 0;
+                for (SparseMatrix mat : new SparseMatrix[]{rowsMat, colsMat}) {
+                    for (int pos = mat.rowPtr[node]; pos < mat.rowPtr[node + 1]; ++pos) {
+                        int next = mat.colInd[pos];
+                        if (!isVisited[next]) {
+                            isVisited[next] = true;
+                            neighbours[numNeighbours++] = next;
+                        }
+                    }
+                }
+                for (int ind = 0; ind < numNeighbours; ++ind) {
+                    keys[ind] = ((long) degree[neighbours[ind]] << 32) | neighbours[ind];
+                }
+                Arrays.sort(keys, 0, numNeighbours);
+                for (int ind = 0; ind < numNeighbours; ++ind) {
+                    order[count++] = (int) keys[ind];
+                }
+            }
+        }
+        for (int left = 0, right = n - 1; left < right; ++left, --right) {
+            int temp = order[left];
+            order[left] = order[right];
+            order[right] = temp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,311 @@
+package solver;
+
+import java.util.Arrays;
+
+class SparseMatrix implements LinearOperator {
+    /*
+    Class to create and perform operations on sparse matrices, stored in
+    compressed sparse row (CSR) format: the non-zero elements of row 'row' are at
+    positions [rowPtr[row], rowPtr[row + 1]) of 'colInd' (their columns, in increasing order)
+    and of 'values' (their values, with the real and imaginary parts interleaved like in 'Matrix')
+    Only the non-zero elements are stored, so memory is proportional to their #
+     */
+    int rows; // # of rows of matrix
+    int cols; // # of columns of matrix
+    int[] rowPtr; // start of each row in colInd, plus the # of non-zero elements at the end
+    int[] colInd; // column of each non-zero element
+    double[] values; // value of each non-zero element (interleaved real and imaginary parts)
+
+    /**
+     * Constructor for the SparseMatrix class
+     * @param rows # of rows of matrix (int)
+     * @param cols # of columns of matrix (int)
+     * @param rowPtr start of each row in colInd (int[] of length rows + 1)
+     * @param colInd column of each non-zero element (int[])
+     * @param values value of each non-zero element (double[] of length 2 * # of non-zero elements)
+     */
+    private SparseMatrix(int rows, int cols, int[] rowPtr, int[] colInd, double[] values) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowPtr = rowPtr;
+        this.colInd = colInd;
+        this.values = values;
+    }
+
+    /**
+     * Static method to create SparseMatrix instances from (row, col, value) triplets
+     * The triplets can be in any order; values given more than once for the same element are added up
+     * @param rows # of rows of matrix (int)
+     * @param cols # of columns of matrix (int)
+     * @param rowInds row of each triplet (int[])
+     * @param colInds column of each triplet (int[])
+     * @param vals value of each triplet (double[], interleaved real and imaginary parts)
+     * @param count # of triplets to use from the arrays (int)
+     * @return an instance of SparseMatrix class holding the triplets
+     */
+    static SparseMatrix createMatrix(int rows, int cols, int[] rowInds, int[] colInds, double[] vals, int count) {
+        if ((rows < 1) || (cols < 1)) {
+            throw new IllegalArgumentException(String.format("Invalid dimensions for matrix: %dx%d", rows, cols));
+        }
+        // Count the elements of each row to find where each row starts
+        int[] rowPtr = new int[rows + 1];
+        for (int ind = 0; ind < count; ++ind) {
+            if (rowInds[ind] < 0 || rowInds[ind] >= rows || colInds[ind] < 0 || colInds[ind] >= cols) {
+                throw new IllegalArgumentException(String.format("Element (%d, %d) is outside of a matrix of %dx%d", rowInds[ind] + 1, colInds[ind] + 1, rows, cols));
+            }
+            ++rowPtr[rowInds[ind] + 1];
+        }
+        for (int row = 0; row < rows; ++row) {
+            rowPtr[row + 1] += rowPtr[row];
+        }
+        // Place each triplet in its row
+        int[] next = Arrays.copyOf(rowPtr, rows);
+        int[] colInd = new int[count];
+        double[] values = new double[2 * count];
+        for (int ind = 0; ind < count; ++ind) {
+            int pos = next[rowInds[ind]]++;
+            colInd[pos] = colInds[ind];
+            values[2 * pos] = vals[2 * ind];
+            values[2 * pos + 1] = vals[2 * ind + 1];
+        }
+        return new SparseMatrix(rows, cols, rowPtr, colInd, values).sortAndSumDuplicates();
+    }
+
+    /**
+     * Static method to create SparseMatrix instances from arrays already in CSR format
+     * The arrays are used as they are (not copied) after checking that they are consistent
+     * @param rows # of rows of matrix (int)
+     * @param cols # of columns of matrix (int)
+     * @param rowPtr start of each row in colInd (int[] of length rows + 1)
+     * @param colInd column of each non-zero element, increasing within each row (int[])
+     * @param values value of each non-zero element (double[] of length 2 * # of non-zero elements)
+     * @return an instance of SparseMatrix class using the arrays
+     */
+    static SparseMatrix createMatrix(int rows, int cols, int[] rowPtr, int[] colInd, double[] values) {
+        if ((rows < 1) || (cols < 1)) {
+            throw new IllegalArgumentException(String.format("Invalid dimensions for matrix: %dx%d", rows, cols));
+        }
+        if (rowPtr.length != rows + 1 || rowPtr[0] != 0 || rowPtr[rows] != colInd.length || values.length != 2 * colInd.length) {
+            throw new IllegalArgumentException("Inconsistent sizes of the arrays of a sparse matrix");
+        }
+        for (int row = 0; row < rows; ++row) {
+            if (rowPtr[row] > rowPtr[row + 1]) {
+                throw new IllegalArgumentException(String.format("Row %d of a sparse matrix ends before it starts", row + 1));
+            }
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                if (colInd[pos] < 0 || colInd[pos] >= cols || (pos > rowPtr[row] && colInd[pos] <= colInd[pos - 1])) {
+                    throw new IllegalArgumentException(String.format("Invalid column %d in row %d of a sparse matrix of %dx%d", colInd[pos] + 1, row + 1, rows, cols));
+                }
+            }
+        }
+        return new SparseMatrix(rows, cols, rowPtr, colInd, values);
+    }
+
+    /**
+     * Static method to create a SparseMatrix from the non-zero elements of a Matrix
+     * @param mat the dense matrix ('Matrix' class)
+     * @return an instance of SparseMatrix class with the same elements
+     */
+    static SparseMatrix createMatrix(Matrix mat) {
+        int count = 0;
+        for (int ind = 0; ind < mat.data.length; ind += 2) {
+            if (mat.data[ind] != 0.0 || mat.data[ind + 1] != 0.0) {
+                ++count;
+            }
+        }
+        int[] rowPtr = new int[mat.rows + 1];
+        int[] colInd = new int[count];
+        double[] values = new double[2 * count];
+        int pos = 0;
+        for (int row = 0; row < mat.rows; ++row) {
+            for (int col = 0; col < mat.cols; ++col) {
+                int ind = mat.index(row, col);
+                if (mat.data[ind] != 0.0 || mat.data[ind + 1] != 0.0) {
+                    colInd[pos] = col;
+                    values[2 * pos] = mat.data[ind];
+                    values[2 * pos + 1] = mat.data[ind + 1];
+                    ++pos;
+                }
+            }
+            rowPtr[row + 1] = pos;
+        }
+        return new SparseMatrix(mat.rows, mat.cols, rowPtr, colInd, values);
+    }
+
+    /**
+     * Returns a copy of the matrix that can be modified independently of it
+     * @return the copy ('SparseMatrix')
+     */
+    SparseMatrix copy() {
+        return new SparseMatrix(rows, cols, rowPtr.clone(), colInd.clone(), values.clone());
+    }
+
+    /**
+     * Sorts the elements of each row by column and adds up the elements given for the same column
+     * @return this matrix, compacted in place
+     */
+    private SparseMatrix sortAndSumDuplicates() {
+        int pos = 0;
+        int[] order = new int[0];
+        long[] keys = new long[0];
+        int start = 0;
+        for (int row = 0; row < rows; ++row) {
+            int end = rowPtr[row + 1];
+            int len = end - start;
+            if (keys.length < len) {
+                keys = new long[len];
+                order = new int[len];
+            }
+            // Sort the row by column, keeping track of where each element came from
+            for (int ind = 0; ind < len; ++ind) {
+                keys[ind] = ((long) colInd[start + ind] << 32) | ind;
+            }
+            Arrays.sort(keys, 0, len);
+            for (int ind = 0; ind < len; ++ind) {
+                order[ind] = (int) keys[ind];
+            }
+            double[] rowVals = Arrays.copyOfRange(values, 2 * start, 2 * end);
+            int rowStart = pos;
+            for (int ind = 0; ind < len; ++ind) {
+                int col = (int) (keys[ind] >>> 32);
+                double real = rowVals[2 * order[ind]];
+                double imag = rowVals[2 * order[ind] + 1];
+                if (pos > rowStart && colInd[pos - 1] == col) {
+                    values[2 * (pos - 1)] += real;
+                    values[2 * (pos - 1) + 1] += imag;
+                } else {
+                    colInd[pos] = col;
+                    values[2 * pos] = real;
+                    values[2 * pos + 1] = imag;
+                    ++pos;
+                }
+            }
+            start = end;
+            rowPtr[row + 1] = pos;
+        }
+        if (pos < colInd.length) {
+            colInd = Arrays.copyOf(colInd, pos);
+            values = Arrays.copyOf(values, 2 * pos);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the # of stored (non-zero) elements
+     * @return the # of non-zero elements (int)
+     */
+    int nonZeros() {
+        return rowPtr[rows];
+    }
+
+    @Override
+    public int size() {
+        if (rows != cols) {
+            throw new IllegalArgumentException(String.format("A matrix of %dx%d is not square", rows, cols));
+        }
+        return rows;
+    }
+
+    @Override
+    public void multiply(double[] x, double[] y) {
+        for (int row = 0; row < rows; ++row) {
+            double real = 0.0;
+            double imag = 0.0;
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                int col = colInd[pos];
+                double aReal = values[2 * pos];
+                double aImag = values[2 * pos + 1];
+                real += aReal * x[2 * col] - aImag * x[2 * col + 1];
+                imag += aReal * x[2 * col + 1] + aImag * x[2 * col];
+            }
+            y[2 * row] = real;
+            y[2 * row + 1] = imag;
+        }
+    }
+
+    /**
+     * Returns the transpose of the matrix (not the conjugate transpose)
+     * The CSR arrays of the transpose are also the compressed sparse column arrays of this matrix
+     * @return the transposed matrix ('SparseMatrix')
+     */
+    SparseMatrix transpose() {
+        int nnz = nonZeros();
+        int[] tRowPtr = new int[cols + 1];
+        for (int pos = 0; pos < nnz; ++pos) {
+            ++tRowPtr[colInd[pos] + 1];
+        }
+        for (int col = 0; col < cols; ++col) {
+            tRowPtr[col + 1] += tRowPtr[col];
+        }
+        int[] next = Arrays.copyOf(tRowPtr, cols);
+        int[] tColInd = new int[nnz];
+        double[] tValues = new double[2 * nnz];
+        // Going through the rows in order keeps the columns of the transpose sorted
+        for (int row = 0; row < rows; ++row) {
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                int tPos = next[colInd[pos]]++;
+                tColInd[tPos] = row;
+                tValues[2 * tPos] = values[2 * pos];
+                tValues[2 * tPos + 1] = values[2 * pos + 1];
+            }
+        }
+        return new SparseMatrix(cols, rows, tRowPtr, tColInd, tValues);
+    }
+
+    /**
+     * Converts the matrix to a dense Matrix
+     * @return the dense matrix ('Matrix' class)
+     */
+    Matrix toDense() {
+        Matrix mat = Matrix.createMatrix(rows, cols);
+        for (int row = 0; row < rows; ++row) {
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                mat.set(row, colInd[pos], values[2 * pos], values[2 * pos + 1]);
+            }
+        }
+        return mat;
+    }
+
+    /**
+     * Returns the lower and upper bandwidths of the matrix: the largest distance below and above
+     * the diagonal of a stored element that is not exactly zero (0 for a diagonal matrix)
+     * @return {lower, upper} (int[])
+     */
+    int[] bandwidths() {
+        int lower = 0;
+        int upper = 0;
+        for (int row = 0; row < rows; ++row) {
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                if (values[2 * pos] != 0.0 || values[2 * pos + 1] != 0.0) {
+                    lower = Math.max(lower, row - colInd[pos]);
+                    upper = Math.max(upper, colInd[pos] - row);
+                }
+            }
+        }
+        return new int[]{lower, upper};
+    }
+
+    /**
+     * Check if every element of the matrix has an imaginary part of exactly zero
+     * @return true if the matrix is purely real; false if not
+     */
+    boolean isReal() {
+        for (int ind = 1; ind < 2 * nonZeros(); ind += 2) {
+            if (values[ind] != 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder strRep = new StringBuilder(String.format("SPARSE MATRIX %dx%d (%d non-zero)\n", this.rows, this.cols, nonZeros()));
+        for (int row = 0; row < this.rows; ++row) {
+            for (int pos = rowPtr[row]; pos < rowPtr[row + 1]; ++pos) {
+                strRep.append(String.format("(%d, %d)\t%s\n", row + 1, colInd[pos] + 1, Complex.valueOf(values[2 * pos], values[2 * pos + 1]).toString()));
+            }
+        }
+        return strRep.toString();
+    }
+}
@@ -0,0 +1,234 @@
+package solver;
+
+import java.io.PrintWriter;
+
+interface StepListener {
+    /*
+    Interface to follow the steps of the Gauss-Jordan elimination as they are done
+    The solvers report each row/column operation with its rows and factor as primitives,
+    so nothing is formatted unless a listener that prints the steps is set.
+    Every method does nothing by default; NONE is the listener used when no trace is wanted
+    Rows and columns are numbered from 0
+     */
+    StepListener NONE = new StepListener() {
+    };
+
+    /**
+     * Called once the system matrix (augmented matrix) is created, before any step
+     * @param solver the solver, whose system matrix can be printed with systemMatrixToString() ('GaussJordSolver')
+     */
+    default void started(GaussJordSolver solver) {
+    }
+
+    /**
+     * Rows row1 and row2 were swapped
+     */
+    default void rowsSwapped(int row1, int row2) {
+    }
+
+    /**
+     * Columns col1 and col2 were swapped
+     */
+    default void colsSwapped(int col1, int col2) {
+    }
+
+    /**
+     * Row 'row' was multiplied by real + imag * i
+     */
+    default void rowScaled(int row, double real, double imag) {
+    }
+
+    /**
+     * Row 'fromRow' multiplied by real + imag * i was added to row 'toRow', while eliminating below a pivot
+     */
+    default void rowAdded(int fromRow, int toRow, double real, double imag) {
+    }
+
+    /**
+     * Row 'fromRow' multiplied by real + imag * i was added to row 'toRow', while converting
+     * the upper triangular matrix to reduced row echelon form
+     */
+    default void rowReduced(int fromRow, int toRow, double real, double imag) {
+    }
+
+    /**
+     * Called once the system is solved
+     * @param system the solved system, with its solution flags set ('LinearSystem')
+     */
+    default void finished(LinearSystem system) {
+    }
+
+    /**
+     * Returns a listener telling both listeners given about each step, the first one first
+     * @param first the first listener ('StepListener')
+     * @param second the second listener ('StepListener')
+     * @return the listener ('StepListener'); one of those given if the other is NONE
+     */
+    static StepListener both(StepListener first, StepListener second) {
+        if (second == NONE) {
+            return first;
+        } else if (first == NONE) {
+            return second;
+        }
+        return new StepListener() {
+            @Override
+            public void started(GaussJordSolver solver) {
+                first.started(solver);
+                second.started(solver);
+            }
+
+            @Override
+            public void rowsSwapped(int row1, int row2) {
+                first.rowsSwapped(row1, row2);
+                second.rowsSwapped(row1, row2);
+            }
+
+            @Override
+            public void colsSwapped(int col1, int col2) {
+                first.colsSwapped(col1, col2);
+                second.colsSwapped(col1, col2);
+            }
+
+            @Override
+            public void rowScaled(int row, double real, double imag) {
+                first.rowScaled(row, real, imag);
+                second.rowScaled(row, real, imag);
+            }
+
+            @Override
+            public void rowAdded(int fromRow, int toRow, double real, double imag) {
+                first.rowAdded(fromRow, toRow, real, imag);
+                second.rowAdded(fromRow, toRow, real, imag);
+            }
+
+            @Override
+            public void rowReduced(int fromRow, int toRow, double real, double imag) {
+                first.rowReduced(fromRow, toRow, real, imag);
+                second.rowReduced(fromRow, toRow, real, imag);
+            }
+
+            @Override
+            public void finished(LinearSystem system) {
+                first.finished(system);
+                second.finished(system);
+            }
+        };
+    }
+
+    /**
+     * Creates a listener printing the steps by the name of its format
+     * "quiet" prints nothing, "human" prints the matrix and the steps like "-2 * R1 + R2 -> R2"
+     * and "json" prints an object per line for each step
+     * @param name the name of the format (String)
+     * @param sink where to print the steps; it is flushed when the system is solved ('PrintWriter')
+     * @return the listener ('StepListener')
+     */
+    static StepListener create(String name, PrintWriter sink) {
+        switch (name) {
+            case "quiet":
+                return NONE;
+            case "human":
+                return new HumanStepTrace(sink);
+            case "json":
+                return new JsonStepTrace(sink);
+            default:
+                throw new IllegalArgumentException(String.format("Unknown trace: %s", name));
+        }
+    }
+}
+
+class HumanStepTrace implements StepListener {
+    /*
+    Listener printing the system matrix and then each step, in the format the solver has always used
+     */
+    private final PrintWriter sink;
+
+    HumanStepTrace(PrintWriter sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void started(GaussJordSolver solver) {
+        sink.println(solver.systemMatrixToString());
+    }
+
+    @Override
+    public void rowsSwapped(int row1, int row2) {
+        sink.printf("R%d <-> R%d\n", row1 + 1, row2 + 1);
+    }
+
+    @Override
+    public void colsSwapped(int col1, int col2) {
+        sink.printf("C%d <-> C%d\n", col1 + 1, col2 + 1);
+    }
+
+    @Override
+    public void rowScaled(int row, double real, double imag) {
+        sink.printf("%s * R%d -> R%d\n", Complex.valueOf(real, imag).toString(), row + 1, row + 1);
+    }
+
+    @Override
+    public void rowAdded(int fromRow, int toRow, double real, double imag) {
+        sink.printf("%s * R%d + R%d -> R%d\n", Complex.valueOf(real, imag).toString(), fromRow + 1, toRow + 1, toRow + 1);
+    }
+
+    @Override
+    public void rowReduced(int fromRow, int toRow, double real, double imag) {
+        sink.printf("%s * R%d -> R%d\n", Complex.valueOf(real, imag).toString(), fromRow + 1, toRow + 1);
+    }
+
+    @Override
+    public void finished(LinearSystem system) {
+        sink.flush();
+    }
+}
+
+class JsonStepTrace implements StepListener {
+    /*
+    Listener printing a JSON object per line for each event, for other programs to read
+    Rows and columns are numbered from 1 like in the human-readable steps, and factors
+    are given with their full precision as "real" and "imag"
+     */
+    private final PrintWriter sink;
+
+    JsonStepTrace(PrintWriter sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void started(GaussJordSolver solver) {
+        sink.printf("{\"event\":\"start\",\"rows\":%d,\"cols\":%d}\n", solver.sysRows, solver.sysCols);
+    }
+
+    @Override
+    public void rowsSwapped(int row1, int row2) {
+        sink.printf("{\"event\":\"swap_rows\",\"row1\":%d,\"row2\":%d}\n", row1 + 1, row2 + 1);
+    }
+
+    @Override
+    public void colsSwapped(int col1, int col2) {
+        sink.printf("{\"event\":\"swap_cols\",\"col1\":%d,\"col2\":%d}\n", col1 + 1, col2 + 1);
+    }
+
+    @Override
+    public void rowScaled(int row, double real, double imag) {
+        sink.printf("{\"event\":\"scale\",\"row\":%d,\"real\":%s,\"imag\":%s}\n", row + 1, real, imag);
+    }
+
+    @Override
+    public void rowAdded(int fromRow, int toRow, double real, double imag) {
+        sink.printf("{\"event\":\"add\",\"from\":%d,\"to\":%d,\"real\":%s,\"imag\":%s}\n", fromRow + 1, toRow + 1, real, imag);
+    }
+
+    @Override
+    public void rowReduced(int fromRow, int toRow, double real, double imag) {
+        sink.printf("{\"event\":\"reduce\",\"from\":%d,\"to\":%d,\"real\":%s,\"imag\":%s}\n", fromRow + 1, toRow + 1, real, imag);
+    }
+
+    @Override
+    public void finished(LinearSystem system) {
+        String result = system.hasUniqueSolution ? "unique" : system.hasInfiniteSolutions ? "infinite" : system.hasNoSolutions ? "none" : "unknown";
+        sink.printf("{\"event\":\"end\",\"result\":\"%s\"}\n", result);
+        sink.flush();
+    }
+}
@@ -0,0 +1,19 @@
+package solver;
+
+class SystemData {
+    /*
+    Class holding a linear system as read from an input file: the matrix of coefficients,
+    either dense or sparse depending on the format of the file, and the constants
+     */
+    Matrix coeffMat; // the dense matrix of coefficients; null if the input is sparse
+    SparseMatrix sparseCoeffMat; // the sparse matrix of coefficients; null if the input is dense
+    Matrix constMat; // the constants, a column for each set of constants
+
+    /**
+     * Check if the coefficients were read in the sparse format
+     * @return true if 'sparseCoeffMat' holds the coefficients; false if 'coeffMat' does
+     */
+    boolean isSparse() {
+        return sparseCoeffMat != null;
+    }
+}
@@ -0,0 +1,245 @@
+package solver;
+
+class UpdatableLUSolver extends LUSolver {
+    /*
+    Class that extends LUSolver so that the coefficients can be changed by low-rank updates
+    (a few rows or columns, or in general A <- A + U * V with U of n x k and V of k x n)
+    without factoring the matrix again.
+    The factorization of the matrix before the first update is kept, and the solution of the
+    updated system is found with the Sherman-Morrison-Woodbury formula:
+        Inv(A + U * V) * B = Y - Z * Inv(I + V * Z) * V * Y, with Y = Inv(A) * B and Z = Inv(A) * U
+    Each update costs O(n^2 * k) to solve for the new columns of Z, and each solve only O(n * k)
+    more than substituting with the original factors. Once the updates add up to more than the
+    maximum rank, or the small matrix I + V * Z is near singular (so the formula would lose
+    accuracy), the updated matrix is factored again from scratch and the updates start over
+    The coefficient matrix given is copied, since the updates are applied to it
+     */
+    static final int DEFAULT_MAX_RANK = 32;
+    // I + V * Z is considered near singular if its smallest pivot is this small relative to its largest
+    private static final double MIN_PIVOT_RATIO = 1e-10;
+    private int maxRank;
+    private Matrix updateU; // the columns of U of all updates since the last factorization; null if there are none
+    private Matrix updateV; // the rows of V of all updates since the last factorization
+    private Matrix solvedU; // Z = Inv(A) * U, with A the last matrix factored
+    private Matrix baseSolMat; // Y = Inv(A) * B for the constants it was solved for
+    private Matrix baseConstMat; // the constants 'baseSolMat' was solved for
+    int numRefactorizations; // # of times the matrix was factored again because of the updates
+
+    /**
+     * Constructor for the class
+     * @param coeffMat the matrix of coefficients in the linear equation system, copied ('Matrix' class)
+     * @param constMat the constants in the linear equation system, one column per system ('Matrix' class)
+     */
+    UpdatableLUSolver(Matrix coeffMat, Matrix constMat) {
+        super(copyOf(coeffMat), constMat);
+        this.maxRank = DEFAULT_MAX_RANK;
+    }
+
+    /**
+     * Sets the total rank of the updates after which the matrix is factored again
+     * @param maxRank the maximum # of columns of U (int)
+     */
+    void setMaxRank(int maxRank) {
+        if (maxRank < 1) {
+            throw new IllegalArgumentException(String.format("Invalid maximum rank: %d", maxRank));
+        }
+        this.maxRank = maxRank;
+    }
+
+    @Override
+    void setCache(FactorizationCache cache) {
+        // The coefficients change with each update, so the factorizations are never shared
+    }
+
+    /**
+     * Replaces a row of the matrix of coefficients (a rank-1 update)
+     * @param row the row to replace (int)
+     * @param newRow the new coefficients of the row, as a 1 x n matrix ('Matrix' class)
+     */
+    void updateRow(int row, Matrix newRow) {
+        if (row < 0 || row >= coeffMat.rows || newRow.rows != 1 || newRow.cols != coeffMat.cols) {
+            throw new IllegalArgumentException(String.format("Cannot replace row %d of a %dx%d matrix with a %dx%d matrix",
+                    row + 1, coeffMat.rows, coeffMat.cols, newRow.rows, newRow.cols));
+        }
+        Matrix u = Matrix.createMatrix(coeffMat.rows, 1);
+        u.set(row, 0, 1.0, 0.0);
+        Matrix v = Matrix.createMatrix(1, coeffMat.cols);
+        for (int col = 0; col < coeffMat.cols; ++col) {
+            v.set(0, col, newRow.getReal(0, col) - coeffMat.getReal(row, col), newRow.getImag(0, col) - coeffMat.getImag(row, col));
+        }
+        update(u, v);
+    }
+
+    /**
+     * Replaces a column of the matrix of coefficients (a rank-1 update)
+     * @param col the column to replace (int)
+     * @param newCol the new coefficients of the column, as an n x 1 matrix ('Matrix' class)
+     */
+    void updateColumn(int col, Matrix newCol) {
+        if (col < 0 || col >= coeffMat.cols || newCol.cols != 1 || newCol.rows != coeffMat.rows) {
+            throw new IllegalArgumentException(String.format("Cannot replace column %d of a %dx%d matrix with a %dx%d matrix",
+                    col + 1, coeffMat.rows, coeffMat.cols, newCol.rows, newCol.cols));
+        }
+        Matrix u = Matrix.createMatrix(coeffMat.rows, 1);
+        for (int row = 0; row < coeffMat.rows; ++row) {
+            u.set(row, 0, newCol.getReal(row, 0) - coeffMat.getReal(row, col), newCol.getImag(row, 0) - coeffMat.getImag(row, col));
+        }
+        Matrix v = Matrix.createMatrix(1, coeffMat.cols);
+        v.set(0, col, 1.0, 0.0);
+        update(u, v);
+    }
+
+    /**
+     * Adds U * V to the matrix of coefficients (a rank-k update)
+     * The new solution is found by the next call to solve()
+     * @param u the n x k matrix U ('Matrix' class)
+     * @param v the k x n matrix V ('Matrix' class)
+     */
+    void update(Matrix u, Matrix v) {
+        if (u.rows != coeffMat.rows || v.cols != coeffMat.cols || u.cols != v.rows) {
+            throw new IllegalArgumentException(String.format("Cannot update a %dx%d matrix by the product of a %dx%d and a %dx%d matrix",
+                    coeffMat.rows, coeffMat.cols, u.rows, u.cols, v.rows, v.cols));
+        }
+        subtractProduct(coeffMat, u, v, -1.0);
+        int rank = (updateU == null) ? u.cols : updateU.cols + u.cols;
+        // A non-square or singular matrix has no factors to update, and too many updates cost more than factoring
+        if (factorization == null || factorization.isSingular || rank > maxRank) {
+            discardUpdates();
+            return;
+        }
+        Matrix newSolvedU = factorization.solve(u);
+        updateU = (updateU == null) ? u : concatColumns(updateU, u);
+        solvedU = (solvedU == null) ? newSolvedU : concatColumns(solvedU, newSolvedU);
+        updateV = (updateV == null) ? v : concatRows(updateV, v);
+    }
+
+    /**
+     * Forgets the factorization and the updates, so the next call to solve() factors the updated matrix
+     */
+    private void discardUpdates() {
+        if (factorization != null) {
+            ++numRefactorizations;
+        }
+        factorization = null;
+        updateU = null;
+        updateV = null;
+        solvedU = null;
+        baseSolMat = null;
+        baseConstMat = null;
+    }
+
+    @Override
+    ConditionEstimator.Inverse getInverse() {
+        // The factorization is of the matrix before the updates
+        return (updateU == null) ? super.getInverse() : null;
+    }
+
+    @Override
+    void solve() {
+        if (updateU == null) {
+            super.solve();
+            if (factorization != null && !factorization.isSingular) {
+                baseSolMat = solMat;
+                baseConstMat = constMat;
+            }
+            return;
+        }
+        if (baseConstMat != constMat) {
+            baseSolMat = factorization.solve(constMat);
+            baseConstMat = constMat;
+        }
+        // Capacitance matrix I + V * Z
+        Matrix capacitance = multiply(updateV, solvedU);
+        for (int ind = 0; ind < capacitance.rows; ++ind) {
+            capacitance.data[capacitance.index(ind, ind)] += 1.0;
+        }
+        LUFactorization capacitanceLU = LUFactorization.factor(capacitance);
+        if (isNearSingular(capacitanceLU)) {
+            discardUpdates();
+            solve();
+            return;
+        }
+        // X = Y - Z * Inv(I + V * Z) * V * Y
+        solMat = copyOf(baseSolMat);
+        subtractProduct(solMat, solvedU, capacitanceLU.solve(multiply(updateV, baseSolMat)), 1.0);
+        for (int col = 0; col < solArr.length; ++col) {
+            solArr[col] = solMat.get(col, 0);
+        }
+        hasUniqueSolution = true;
+        hasNoSolutions = false;
+        hasInfiniteSolutions = false;
+    }
+
+    private static boolean isNearSingular(LUFactorization factorization) {
+        if (factorization.isSingular) {
+            return true;
+        }
+        double minModulus = Double.POSITIVE_INFINITY;
+        double maxModulus = 0.0;
+        for (int ind = 0; ind < factorization.size; ++ind) {
+            double modulus = Math.hypot(factorization.lu.getReal(ind, ind), factorization.lu.getImag(ind, ind));
+            minModulus = Math.min(minModulus, modulus);
+            maxModulus = Math.max(maxModulus, modulus);
+        }
+        return minModulus < MIN_PIVOT_RATIO * maxModulus;
+    }
+
+    private static Matrix copyOf(Matrix mat) {
+        Matrix copy = Matrix.createMatrix(mat.rows, mat.cols);
+        System.arraycopy(mat.data, 0, copy.data, 0, mat.data.length);
+        return copy;
+    }
+
+    /**
+     * Returns the product A * B of two matrices
+     */
+    private static Matrix multiply(Matrix a, Matrix b) {
+        Matrix prod = Matrix.createMatrix(a.rows, b.cols);
+        subtractProduct(prod, a, b, -1.0);
+        return prod;
+    }
+
+    /**
+     * Computes C <- C - sign * A * B
+     * @param c the matrix updated in place ('Matrix' class)
+     * @param a the left factor ('Matrix' class)
+     * @param b the right factor ('Matrix' class)
+     * @param sign 1 to subtract the product, -1 to add it (double)
+     */
+    private static void subtractProduct(Matrix c, Matrix a, Matrix b, double sign) {
+        double[] cData = c.data;
+        double[] bData = b.data;
+        int width = 2 * c.cols;
+        for (int row = 0; row < a.rows; ++row) {
+            int dst = c.index(row, 0);
+            for (int k = 0; k < a.cols; ++k) {
+                double aReal = sign * a.getReal(row, k);
+                double aImag = sign * a.getImag(row, k);
+                if (aReal == 0.0 && aImag == 0.0) {
+                    continue;
+                }
+                int src = b.index(k, 0);
+                for (int offset = 0; offset < width; offset += 2) {
+                    cData[dst + offset] -= aReal * bData[src + offset] - aImag * bData[src + offset + 1];
+                    cData[dst + offset + 1] -= aReal * bData[src + offset + 1] + aImag * bData[src + offset];
+                }
+            }
+        }
+    }
+
+    private static Matrix concatColumns(Matrix left, Matrix right) {
+        Matrix mat = Matrix.createMatrix(left.rows, left.cols + right.cols);
+        for (int row = 0; row < mat.rows; ++row) {
+            System.arraycopy(left.data, left.index(row, 0), mat.data, mat.index(row, 0), 2 * left.cols);
+            System.arraycopy(right.data, right.index(row, 0), mat.data, mat.index(row, left.cols), 2 * right.cols);
+        }
+        return mat;
+    }
+
+    private static Matrix concatRows(Matrix top, Matrix bottom) {
+        Matrix mat = Matrix.createMatrix(top.rows + bottom.rows, top.cols);
+        System.arraycopy(top.data, 0, mat.data, 0, top.data.length);
+        System.arraycopy(bottom.data, 0, mat.data, top.data.length, bottom.data.length);
+        return mat;
+    }
+}
@@ -0,0 +1,164 @@
+package solver;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+abstract class VectorKernels extends RowKernels {
+    /*
+    Class that extends RowKernels and does the complex row operations with the Vector API, a
+    vector of doubles at a time, with the scalar loops for the elements left over at the end of
+    a row. A vector of interleaved complex elements [re0, im0, re1, im1, ...] is multiplied by
+    the factor a + bi as
+        a * [re0, im0, re1, im1, ...] + [-b, b, -b, b, ...] * [im0, re0, im1, re1, ...]
+    where the second vector swaps the parts of each element. Each lane does the same operations
+    as the scalar loop, with the same rounding (no fused multiply-add), so the results are
+    identical to the scalar kernels. The real kernels are left to the scalar loops, which the
+    JIT compiler already vectorizes by itself.
+    The JIT compiler only turns vector operations into instructions when their species is a
+    constant in the method compiled, so each size of vector has its own subclass with the
+    species in a static final field and its own copy of the loops.
+    Only loaded by name from RowKernels, since it needs the jdk.incubator.vector module
+     */
+
+    /**
+     * Creates the kernels for a size of vectors; called by RowKernels
+     * @param bits the size of the vectors in bits (128, 256 or 512), or 0 for the widest the processor has (int)
+     * @return the kernels ('RowKernels')
+     */
+    static RowKernels create(int bits) {
+        int maxBits = DoubleVector.SPECIES_PREFERRED.vectorBitSize();
+        if (bits == 0) {
+            bits = maxBits;
+        } else if (bits > maxBits) {
+            throw new IllegalArgumentException(String.format("Vectors of %d bits are not supported by this processor (at most %d)", bits, maxBits));
+        }
+        switch (bits) {
+            case 128:
+                return new Kernels128();
+            case 256:
+                return new Kernels256();
+            case 512:
+                return new Kernels512();
+            default:
+                throw new IllegalArgumentException(String.format("No vector kernels for vectors of %d bits", bits));
+        }
+    }
+
+    private static final class Kernels128 extends VectorKernels {
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_128;
+        private static final VectorShuffle<Double> SWAP_PARTS = swapParts(SPECIES);
+        private static final double[] SIGNS = signs(SPECIES);
+
+        @Override
+        String name() {
+            return "vector128";
+        }
+
+        @Override
+        void scale(double[] data, int start, int count, double scaleReal, double scaleImag) {
+            DoubleVector imagFactor = DoubleVector.fromArray(SPECIES, SIGNS, 0).mul(scaleImag);
+            int bound = SPECIES.loopBound(2 * count);
+            for (int offset = 0; offset < bound; offset += SPECIES.length()) {
+                DoubleVector vals = DoubleVector.fromArray(SPECIES, data, start + offset);
+                vals.mul(scaleReal).add(vals.rearrange(SWAP_PARTS).mul(imagFactor)).intoArray(data, start + offset);
+            }
+            super.scale(data, start + bound, count - bound / 2, scaleReal, scaleImag);
+        }
+
+        @Override
+        void addScaled(double[] dest, int destStart, double[] source, int sourceStart, int count, double scaleReal, double scaleImag) {
+            DoubleVector imagFactor = DoubleVector.fromArray(SPECIES, SIGNS, 0).mul(scaleImag);
+            int bound = SPECIES.loopBound(2 * count);
+            for (int offset = 0; offset < bound; offset += SPECIES.length()) {
+                DoubleVector vals = DoubleVector.fromArray(SPECIES, source, sourceStart + offset);
+                DoubleVector scaled = vals.mul(scaleReal).add(vals.rearrange(SWAP_PARTS).mul(imagFactor));
+                DoubleVector.fromArray(SPECIES, dest, destStart + offset).add(scaled).intoArray(dest, destStart + offset);
+            }
+            super.addScaled(dest, destStart + bound, source, sourceStart + bound, count - bound / 2, scaleReal, scaleImag);
+        }
+    }
+
+    private static final class Kernels256 extends VectorKernels {
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_256;
+        private static final VectorShuffle<Double> SWAP_PARTS = swapParts(SPECIES);
+        private static final double[] SIGNS = signs(SPECIES);
+
+        @Override
+        String name() {
+            return "vector256";
+        }
+
+        @Override
+        void scale(double[] data, int start, int count, double scaleReal, double scaleImag) {
+            DoubleVector imagFactor = DoubleVector.fromArray(SPECIES, SIGNS, 0).mul(scaleImag);
+            int bound = SPECIES.loopBound(2 * count);
+            for (int offset = 0; offset < bound; offset += SPECIES.length()) {
+                DoubleVector vals = DoubleVector.fromArray(SPECIES, data, start + offset);
+                vals.mul(scaleReal).add(vals.rearrange(SWAP_PARTS).mul(imagFactor)).intoArray(data, start + offset);
+            }
+            super.scale(data, start + bound, count - bound / 2, scaleReal, scaleImag);
+        }
+
+        @Override
+        void addScaled(double[] dest, int destStart, double[] source, int sourceStart, int count, double scaleReal, double scaleImag) {
+            DoubleVector imagFactor = DoubleVector.fromArray(SPECIES, SIGNS, 0).mul(scaleImag);
+            int bound = SPECIES.loopBound(2 * count);
+            for (int offset = 0; offset < bound; offset += SPECIES.length()) {
+                DoubleVector vals = DoubleVector.fromArray(SPECIES, source, sourceStart + offset);
+                DoubleVector scaled = vals.mul(scaleReal).add(vals.rearrange(SWAP_PARTS).mul(imagFactor));
+                DoubleVector.fromArray(SPECIES, dest, destStart + offset).add(scaled).intoArray(dest, destStart + offset);
+            }
+            super.addScaled(dest, destStart + bound, source, sourceStart + bound, count - bound / 2, scaleReal, scaleImag);
+        }
+    }
+
+    private static final class Kernels512 extends VectorKernels {
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_512;
+        private static final VectorShuffle<Double> SWAP_PARTS = swapParts(SPECIES);
+        private static final double[] SIGNS = signs(SPECIES);
+
+        @Override
+        String name() {
+            return "vector512";
+        }
+
+        @Override
+        void scale(double[] data, int start, int count, double scaleReal, double scaleImag) {
+            DoubleVector imagFactor = DoubleVector.fromArray(SPECIES, SIGNS, 0).mul(scaleImag);
+            int bound = SPECIES.loopBound(2 * count);
+            for (int offset = 0; offset < bound; offset += SPECIES.length()) {
+                DoubleVector vals = DoubleVector.fromArray(SPECIES, data, start + offset);
+                vals.mul(scaleReal).add(vals.rearrange(SWAP_PARTS).mul(imagFactor)).intoArray(data, start + offset);
+            }
+            super.scale(data, start + bound, count - bound / 2, scaleReal, scaleImag);
+        }
+
+        @Override
+        void addScaled(double[] dest, int destStart, double[] source, int sourceStart, int count, double scaleReal, double scaleImag) {
+            DoubleVector imagFactor = DoubleVector.fromArray(SPECIES, SIGNS, 0).mul(scaleImag);
+            int bound = SPECIES.loopBound(2 * count);
+            for (int offset = 0; offset < bound; offset += SPECIES.length()) {
+                DoubleVector vals = DoubleVector.fromArray(SPECIES, source, sourceStart + offset);
+                DoubleVector scaled = vals.mul(scaleReal).add(vals.rearrange(SWAP_PARTS).mul(imagFactor));
+                DoubleVector.fromArray(SPECIES, dest, destStart + offset).add(scaled).intoArray(dest, destStart + offset);
+            }
+            super.addScaled(dest, destStart + bound, source, sourceStart + bound, count - bound / 2, scaleReal, scaleImag);
+        }
+    }
+
+    private static VectorShuffle<Double> swapParts(VectorSpecies<Double> species) {
+        return VectorShuffle.fromOp(species, lane -> lane ^ 1);
+    }
+
+    /**
+     * Returns -1, 1, -1, 1... for each lane, to build the vector of the imaginary part of a factor
+     */
+    private static double[] signs(VectorSpecies<Double> species) {
+        double[] signs = new double[species.length()];
+        for (int lane = 0; lane < signs.length; ++lane) {
+            signs[lane] = (lane % 2 == 0) ? -1.0 : 1.0;
+        }
+        return signs;
+    }
+}